@@ -0,0 +1,41 @@
+package com.theschool.clock.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with allocation profiling, and writes the results as JSON.
+ * <p>
+ * The arguments are the usual JMH command line options, e.g. a regular expression selecting the
+ * benchmarks to run. Unless {@code -rff} is given, the results are written to {@value #RESULT_FILE}
+ * so they can be compared between runs to spot regressions.
+ *
+ * @author Thomas Munguya
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {}
+
+    /**
+     * Defines the file the results are written to by default.
+     */
+    public static final String RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON);
+        if(!commandLine.getResult().hasValue()) {
+            builder.result(RESULT_FILE);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,224 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.server.BinaryProtocol;
+import com.theschool.clock.server.BinaryServer;
+import com.theschool.clock.server.TimerService;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a {@link BinaryServer} creating and cancelling timers in bulk.
+ * <p>
+ * Each connection keeps a number of batches in flight: it sends requests creating batches of
+ * timers, and answers each response by cancelling the range of ids it holds and creating the next
+ * batch. Unless a port is given, a server is started in the same process on a free port.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.theschool.clock.bench.BinaryProtocolBenchmark
+ * [connections] [seconds] [batch] [start] [host:port]}, where {@code start} tells whether the
+ * timers are started when they are created.
+ *
+ * @author Thomas Munguya
+ */
+public final class BinaryProtocolBenchmark {
+    private BinaryProtocolBenchmark() {}
+
+    /**
+     * Defines the number of batches each connection keeps in flight.
+     */
+    private static final int IN_FLIGHT = 4;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int batch = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        boolean start = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        BinaryServer server = null;
+        InetSocketAddress address;
+        if(args.length > 4) {
+            String[] hostPort = args[4].split(":");
+            address = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+        }
+        else {
+            server = new BinaryServer(new InetSocketAddress("127.0.0.1", 0), new TimerService());
+            server.start();
+            address = new InetSocketAddress("127.0.0.1", server.getPort());
+        }
+
+        Client[] clients = new Client[connections];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for(int i = 0; i < connections; i++) {
+            clients[i] = new Client(address, batch, start, deadline);
+            clients[i].start();
+        }
+        long created = 0;
+        long cancelled = 0;
+        for(Client client : clients) {
+            client.join();
+            created += client.created;
+            cancelled += client.cancelled;
+        }
+        System.out.printf("%d connections, batches of %d, %s, %d s%n", connections, batch, start ? "started" : "idle", seconds);
+        System.out.printf("created: %d (%.0f timers/s), cancelled: %d (%.0f timers/s)%n",
+                created, created / (double) seconds, cancelled, cancelled / (double) seconds);
+        if(server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * Creates and cancels batches of timers over a connection until a deadline.
+     */
+    private static final class Client extends Thread {
+        /**
+         * The address of the server.
+         */
+        private final InetSocketAddress address;
+
+        /**
+         * The number of timers of a batch.
+         */
+        private final int batch;
+
+        /**
+         * Whether the timers are started when they are created.
+         */
+        private final boolean start;
+
+        /**
+         * The {@link System#nanoTime()} mark at which the client stops creating batches.
+         */
+        private final long deadline;
+
+        /**
+         * The request creating a batch, reused for every batch.
+         */
+        private final ByteBuffer createRequest;
+
+        /**
+         * The request cancelling a range of ids.
+         */
+        private final ByteBuffer cancelRequest = ByteBuffer.allocateDirect(BinaryProtocol.LENGTH_SIZE + 1 + 2 * Long.BYTES);
+
+        /**
+         * The buffer responses are read into.
+         */
+        private final ByteBuffer response;
+
+        /**
+         * The number of timers created.
+         */
+        private long created;
+
+        /**
+         * The number of timers cancelled.
+         */
+        private long cancelled;
+
+        /**
+         * Constructs a {@code Client}.
+         * @param address the address of the server.
+         * @param batch the number of timers of a batch.
+         * @param start whether the timers are started when they are created.
+         * @param deadline the {@link System#nanoTime()} mark at which the client stops creating batches.
+         */
+        Client(InetSocketAddress address, int batch, boolean start, long deadline) {
+            super("binary-client");
+            this.address = address;
+            this.batch = batch;
+            this.start = start;
+            this.deadline = deadline;
+            int createSize = 1 + 1 + Integer.BYTES + batch * Long.BYTES;
+            this.createRequest = ByteBuffer.allocateDirect(BinaryProtocol.LENGTH_SIZE + createSize);
+            createRequest.putInt(createSize).put(BinaryProtocol.CREATE_TIMERS).put((byte) (start ? 1 : 0)).putInt(batch);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for(int i = 0; i < batch; i++) {
+                createRequest.putLong(TimeUnit.SECONDS.toNanos(random.nextInt(60, 3600)));
+            }
+            this.response = ByteBuffer.allocateDirect(BinaryProtocol.LENGTH_SIZE + BinaryProtocol.MAX_FRAME_SIZE);
+        }
+
+        @Override
+        public void run() {
+            try(SocketChannel channel = SocketChannel.open(address)) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                int pending = 0;
+                for(; pending < IN_FLIGHT; pending++) {
+                    write(channel, createRequest);
+                }
+                while(pending > 0) {
+                    readFrame(channel);
+                    pending--;
+                    byte opcode = response.get(BinaryProtocol.LENGTH_SIZE);
+                    if(response.get(BinaryProtocol.LENGTH_SIZE + 1) != BinaryProtocol.OK) {
+                        throw new IOException("Request " + opcode + " failed.");
+                    }
+                    if(opcode == BinaryProtocol.CANCEL_RANGE) {
+                        cancelled += response.getInt(BinaryProtocol.LENGTH_SIZE + 2);
+                        continue;
+                    }
+                    int count = response.getInt(BinaryProtocol.LENGTH_SIZE + 2);
+                    int ids = BinaryProtocol.LENGTH_SIZE + 2 + Integer.BYTES;
+                    created += count;
+                    long first = response.getLong(ids);
+                    long last = response.getLong(ids + (count - 1) * Long.BYTES);
+                    cancelRequest.clear();
+                    cancelRequest.putInt(1 + 2 * Long.BYTES).put(BinaryProtocol.CANCEL_RANGE).putLong(first).putLong(last + 1);
+                    write(channel, cancelRequest);
+                    pending++;
+                    if(System.nanoTime() < deadline) {
+                        write(channel, createRequest);
+                        pending++;
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        /**
+         * Writes a request.
+         * @param channel the channel of the connection.
+         * @param request the request, whose content ends at its position.
+         * @throws IOException if the request cannot be written.
+         */
+        private static void write(SocketChannel channel, ByteBuffer request) throws IOException {
+            ByteBuffer view = request.duplicate().flip();
+            while(view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+
+        /**
+         * Reads a response frame into the response buffer, from its start.
+         * @param channel the channel of the connection.
+         * @throws IOException if the frame cannot be read.
+         */
+        private void readFrame(SocketChannel channel) throws IOException {
+            response.clear().limit(BinaryProtocol.LENGTH_SIZE);
+            readFully(channel);
+            response.limit(BinaryProtocol.LENGTH_SIZE + response.getInt(0));
+            readFully(channel);
+        }
+
+        /**
+         * Reads into the response buffer up to its limit.
+         * @param channel the channel of the connection.
+         * @throws IOException if the channel is closed before.
+         */
+        private void readFully(SocketChannel channel) throws IOException {
+            while(response.hasRemaining()) {
+                if(channel.read(response) < 0) {
+                    throw new EOFException();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.ExecutionStrategy;
+import com.theschool.clock.model.TickScheduler;
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.TimeSinks;
+import com.theschool.clock.model.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long each {@link ExecutionStrategy} takes to run many timers to expiry.
+ * <p>
+ * The {@code virtual} strategy needs a runtime with virtual threads, and can be selected with
+ * {@code -p strategy=virtual}.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExecutionStrategyBenchmark {
+
+    /**
+     * Defines the strategy: {@code scheduler}, {@code platform} or {@code virtual}.
+     */
+    @Param({"scheduler", "platform"})
+    public String strategy;
+
+    /**
+     * Defines the number of timers.
+     */
+    @Param({"1000", "10000", "100000"})
+    public int count;
+
+    /**
+     * Defines the duration of the timers, in milliseconds.
+     */
+    @Param({"200"})
+    public long durationMillis;
+
+    /**
+     * Defines the scheduler used by the {@code scheduler} strategy.
+     */
+    private TickScheduler scheduler;
+
+    /**
+     * Defines the strategy instance.
+     */
+    private ExecutionStrategy executionStrategy;
+
+    /**
+     * Defines the timers of the invocation.
+     */
+    private Timer[] timers;
+
+    /**
+     * Defines the latch counting down the timers left to expire.
+     */
+    private CountDownLatch expired;
+
+    @Setup(Level.Trial)
+    public void setUpStrategy() {
+        switch(strategy) {
+            case "scheduler":
+                scheduler = new TickScheduler();
+                executionStrategy = ExecutionStrategy.scheduler(scheduler);
+                break;
+            case "platform":
+                executionStrategy = ExecutionStrategy.platformThreads();
+                break;
+            case "virtual":
+                executionStrategy = ExecutionStrategy.virtualThreads();
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid value provided for strategy.");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTimers() {
+        expired = new CountDownLatch(count);
+        timers = new Timer[count];
+        Time duration = Time.ofNanos(TimeUnit.MILLISECONDS.toNanos(durationMillis));
+        for(int i = 0; i < count; i++) {
+            Timer timer = new Timer(duration, false, TimeSinks.noOp());
+            timer.setExecutionStrategy(executionStrategy);
+            timer.addTimerListener(t -> expired.countDown());
+            timers[i] = timer;
+        }
+    }
+
+    @Benchmark
+    public void startAndExpire() throws InterruptedException {
+        for(Timer timer : timers) {
+            timer.start();
+        }
+        expired.await();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if(scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.DispatchExecutors;
+import com.theschool.clock.model.ExecutionStrategy;
+import com.theschool.clock.model.ExpiryBatchListener;
+import com.theschool.clock.model.TickScheduler;
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.Timer;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput and latency of expiry callbacks when batches of timers expire together.
+ * <p>
+ * Every {@value #PERIOD_MILLIS} ms, a batch of timers is created and started at once, all due
+ * {@value #DURATION_MILLIS} ms later. With an executor, the timers are driven by a scheduler with
+ * 1 ms ticks, and a single {@link ExpiryBatchListener} is called on the executor with the ids of
+ * the timers expiring during each tick. With {@code threads}, each timer is driven by a platform
+ * thread of its own and calls a listener of its own, as a baseline. The latency of a timer is the
+ * time between its deadline and the start of the callback that receives it.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.theschool.clock.bench.ExpiryDispatchBenchmark
+ * [batch] [seconds] [same|forkjoin|virtual|threads]}.
+ *
+ * @author Thomas Munguya
+ */
+public final class ExpiryDispatchBenchmark {
+    private ExpiryDispatchBenchmark() {}
+
+    /**
+     * Defines the time between two batches, in milliseconds.
+     */
+    private static final long PERIOD_MILLIS = 50;
+
+    /**
+     * Defines the time of the timers, in milliseconds.
+     */
+    private static final long DURATION_MILLIS = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        int batch = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String mode = args.length > 2 ? args[2] : "same";
+
+        int rounds = (int) (TimeUnit.SECONDS.toMillis(seconds) / PERIOD_MILLIS);
+        int capacity = rounds * batch;
+        long[] deadlines = new long[capacity];
+        long[] latencies = new long[capacity];
+        AtomicInteger delivered = new AtomicInteger();
+        AtomicLong callbacks = new AtomicLong();
+        long firstId = new Timer().getId() + 1;
+
+        ExpiryBatchListener listener = (ids) -> {
+            long now = System.nanoTime();
+            callbacks.incrementAndGet();
+            int offset = delivered.getAndAdd(ids.length);
+            for(int i = 0; i < ids.length; i++) {
+                latencies[offset + i] = now - deadlines[(int) (ids[i] - firstId)];
+            }
+        };
+
+        ExecutionStrategy strategy;
+        TickScheduler scheduler = null;
+        if("threads".equals(mode)) {
+            strategy = ExecutionStrategy.platformThreads();
+        }
+        else {
+            scheduler = new TickScheduler(TimeUnit.MILLISECONDS.toNanos(1), 1024);
+            scheduler.addExpiryBatchListener(listener, executorOf(mode));
+            strategy = ExecutionStrategy.scheduler(scheduler);
+        }
+
+        Time duration = Time.ofNanos(TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS));
+        Timer[] timers = new Timer[batch];
+        long start = System.nanoTime();
+        for(int round = 0; round < rounds; round++) {
+            for(int i = 0; i < batch; i++) {
+                Timer timer = new Timer(duration);
+                timer.setExecutionStrategy(strategy);
+                if(scheduler == null) {
+                    timer.addTimerListener((expired) -> listener.timersExpired(new long[]{expired.getId()}));
+                }
+                timers[i] = timer;
+            }
+            for(Timer timer : timers) {
+                timer.start();
+                deadlines[(int) (timer.getId() - firstId)] = timer.getDeadline();
+            }
+            long next = start + TimeUnit.MILLISECONDS.toNanos(PERIOD_MILLIS * (round + 1));
+            long sleep = next - System.nanoTime();
+            if(sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+        }
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(delivered.get() < capacity && System.nanoTime() < end) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int count = delivered.get();
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        System.out.printf("%s, batches of %d every %d ms, %d s%n", mode, batch, PERIOD_MILLIS, seconds);
+        System.out.printf("delivered: %d of %d timers in %d callbacks (%.0f timers/s)%n",
+                count, capacity, callbacks.get(), count / elapsed);
+        if(count > 0) {
+            System.out.printf("latency after the deadline: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[count - 1] / 1e6);
+        }
+        if(scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Returns the executor named on the command line.
+     * @param mode the name of the executor.
+     * @return the executor.
+     * @throws IllegalArgumentException if {@code mode} is not the name of an executor.
+     */
+    private static Executor executorOf(String mode) {
+        return switch(mode) {
+            case "same" -> DispatchExecutors.sameThread();
+            case "forkjoin" -> DispatchExecutors.forkJoinPool();
+            case "virtual" -> DispatchExecutors.virtualThreads();
+            default -> throw new IllegalArgumentException("Invalid value provided for executor: " + mode);
+        };
+    }
+
+    /**
+     * Returns a percentile of sorted values.
+     * @param sorted the values, in ascending order.
+     * @param fraction the percentile, between 0 and 1.
+     * @return the value.
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,92 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.ExpiryIndex;
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.TimeSinks;
+import com.theschool.clock.model.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations of an {@link ExpiryIndex} holding a large number of running timers.
+ * <p>
+ * The timers are constructed running, so they are not ticked, and are far enough from their
+ * deadlines not to expire.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpiryIndexBenchmark {
+
+    /**
+     * Defines the number of timers in the index.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int population;
+
+    /**
+     * Defines the index.
+     */
+    private ExpiryIndex index;
+
+    /**
+     * Defines the timers of the index.
+     */
+    private Timer[] timers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new ExpiryIndex();
+        timers = new Timer[population];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for(int i = 0; i < population; i++) {
+            timers[i] = new Timer(new Time(random.nextInt(1, 99), random.nextInt(60), random.nextInt(60)), true, TimeSinks.noOp());
+            index.update(timers[i]);
+        }
+    }
+
+    @Benchmark
+    public long reschedule() {
+        Timer timer = timers[ThreadLocalRandom.current().nextInt(timers.length)];
+        timer.setTime(new Time(ThreadLocalRandom.current().nextInt(1, 99), 0, 0));
+        index.update(timer);
+        return timer.getDeadline();
+    }
+
+    @Benchmark
+    public int removeAndAdd() {
+        Timer timer = timers[ThreadLocalRandom.current().nextInt(timers.length)];
+        index.remove(timer.getId());
+        index.update(timer);
+        return index.size();
+    }
+
+    @Benchmark
+    public List<Timer> peekNext10() {
+        return index.peekNext(10);
+    }
+
+    @Benchmark
+    public int countWithinTwoHours() {
+        return index.countWithin(TimeUnit.HOURS.toNanos(2));
+    }
+}
@@ -0,0 +1,81 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.Stopwatch;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost the flight recorder events add to the changes of state of a Timeable: starting
+ * then resetting a stopwatch, which emits two transition events, with no recording, and while a
+ * recording with the default settings runs.
+ * <p>
+ * The recording keeps its events in memory and is closed without being written, so the benchmark
+ * measures committing the events, not the disk.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JfrEventsBenchmark {
+
+    /**
+     * Defines whether a recording runs.
+     */
+    @Param({"off", "on"})
+    private String recording;
+
+    /**
+     * Defines the stopwatch.
+     */
+    private Stopwatch stopwatch;
+
+    /**
+     * Defines the running recording, or {@code null} if there is none.
+     */
+    private Recording running;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ParseException {
+        stopwatch = new Stopwatch();
+        if(recording.equals("on")) {
+            running = new Recording(Configuration.getConfiguration("default"));
+            running.setToDisk(false);
+            running.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if(running != null) {
+            running.close();
+        }
+    }
+
+    @Benchmark
+    public Stopwatch startAndReset() {
+        stopwatch.start();
+        stopwatch.reset();
+        return stopwatch;
+    }
+}
@@ -0,0 +1,84 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.TimeSinks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures laps captured on one stopwatch from one and several threads, while a thread of its own
+ * moves them into the recorder.
+ * <p>
+ * The lap buffer holds {@value #CAPACITY} laps. A lap captured while it is full is dropped, and
+ * returns -1; it is still counted as an operation, so the score of the producers is the rate at
+ * which they call {@link Stopwatch#lap()}, and the score of the consumer the rate at which it empties
+ * the buffer. Capturing a lap does not allocate: the allocation reported by the GC profiler is the
+ * growth of the recorder, which keeps every lap of the iteration.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LapBenchmark {
+
+    /**
+     * Defines the number of laps the buffer holds.
+     */
+    private static final int CAPACITY = 65536;
+
+    /**
+     * Defines the stopwatch.
+     */
+    private Stopwatch stopwatch;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        stopwatch = new Stopwatch(false, TimeSinks.noOp(), CAPACITY);
+        stopwatch.start();
+    }
+
+    @Benchmark
+    @Group("single")
+    @GroupThreads(1)
+    public long lap() {
+        return stopwatch.lap();
+    }
+
+    @Benchmark
+    @Group("single")
+    @GroupThreads(1)
+    public int drain() {
+        return stopwatch.drainLaps();
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(3)
+    public long lapConcurrent() {
+        return stopwatch.lap();
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public int drainConcurrent() {
+        return stopwatch.drainLaps();
+    }
+}
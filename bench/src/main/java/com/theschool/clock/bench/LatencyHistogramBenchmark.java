@@ -0,0 +1,84 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.util.LatencyHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost a latency histogram adds to the tick path: recording one lag, from one thread
+ * as the scheduler does, and from several threads sharing a histogram as the threads of an
+ * execution strategy do.
+ * <p>
+ * The lags are spread from a microsecond to about a second, so they land in different buckets.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatencyHistogramBenchmark {
+
+    /**
+     * Defines the number of lags recorded in turn.
+     */
+    private static final int LAGS = 1024;
+
+    /**
+     * Defines the histogram.
+     */
+    private LatencyHistogram histogram;
+
+    /**
+     * Defines the lags recorded in turn, in nanoseconds.
+     */
+    private long[] lags;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        histogram = new LatencyHistogram();
+        lags = new long[LAGS];
+        for(int i = 0; i < LAGS; i++) {
+            lags[i] = (long) Math.pow(2, 10 + ThreadLocalRandom.current().nextDouble() * 20);
+        }
+    }
+
+    /**
+     * The index of the next lag recorded by a thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        /**
+         * Defines the index of the next lag.
+         */
+        int next;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void record(Cursor cursor) {
+        histogram.record(lags[cursor.next++ & (LAGS - 1)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordConcurrent(Cursor cursor) {
+        histogram.record(lags[cursor.next++ & (LAGS - 1)]);
+    }
+}
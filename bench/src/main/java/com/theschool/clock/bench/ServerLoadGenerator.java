@@ -0,0 +1,291 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.server.ClockServer;
+import com.theschool.clock.server.TimerService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a {@link ClockServer} with keep-alive HTTP connections, and reports its throughput and latency.
+ * <p>
+ * Each connection has a thread of its own, which sends a request, reads the response, and sends
+ * the next one. Nine requests in ten query a random Timeable, and the others start, pause or lap
+ * it. Unless a port is given, a server is started in the same process on a free port.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.theschool.clock.bench.ServerLoadGenerator
+ * [connections] [seconds] [timeables] [host:port]}
+ *
+ * @author Thomas Munguya
+ */
+public final class ServerLoadGenerator {
+    private ServerLoadGenerator() {}
+
+    /**
+     * Defines the default number of connections.
+     */
+    private static final int DEFAULT_CONNECTIONS = 64;
+
+    /**
+     * Defines the default duration of the run, in seconds.
+     */
+    private static final int DEFAULT_SECONDS = 10;
+
+    /**
+     * Defines the default number of Timeables the requests are spread over.
+     */
+    private static final int DEFAULT_TIMEABLES = 10_000;
+
+    /**
+     * Defines the actions of the requests that change a Timeable.
+     */
+    private static final String[] ACTIONS = {"start", "pause", "lap"};
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONNECTIONS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int timeables = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TIMEABLES;
+
+        ClockServer server = null;
+        InetSocketAddress address;
+        if(args.length > 3) {
+            String[] hostPort = args[3].split(":");
+            address = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+        }
+        else {
+            server = new ClockServer(new InetSocketAddress("127.0.0.1", 0), new TimerService());
+            server.start();
+            address = new InetSocketAddress("127.0.0.1", server.getPort());
+        }
+
+        long[] ids = new long[timeables];
+        try(Connection connection = new Connection(address)) {
+            for(int i = 0; i < timeables; i++) {
+                String body = connection.send("POST", "/timers?type=" + (i % 2 == 0 ? "stopwatch" : "timer&seconds=3600"));
+                int start = body.indexOf(':') + 1;
+                ids[i] = Long.parseLong(body.substring(start, body.indexOf(',', start)));
+            }
+        }
+
+        Worker[] workers = new Worker[connections];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for(int i = 0; i < connections; i++) {
+            workers[i] = new Worker(address, ids, deadline);
+            workers[i].start();
+        }
+        long requests = 0;
+        long errors = 0;
+        long[] latencies = new long[0];
+        for(Worker worker : workers) {
+            worker.join();
+            requests += worker.count;
+            errors += worker.errors;
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("%d connections, %d timeables, %d s%n", connections, timeables, seconds);
+        System.out.printf("requests: %d (%d errors), throughput: %.0f req/s%n", requests, errors, requests / (double) seconds);
+        System.out.printf("latency p50: %.1f us, p99: %.1f us, p99.9: %.1f us, max: %.1f us%n",
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1_000.0);
+        if(server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * Returns a percentile of sorted latencies.
+     * @param sorted the latencies, in nanoseconds, in increasing order.
+     * @param quantile the quantile, between zero and one.
+     * @return the percentile, in microseconds.
+     */
+    private static double percentile(long[] sorted, double quantile) {
+        if(sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, (long) (sorted.length * quantile))] / 1_000.0;
+    }
+
+    /**
+     * Sends requests over a connection until a deadline, and records their latencies.
+     */
+    private static final class Worker extends Thread {
+        /**
+         * The address of the server.
+         */
+        private final InetSocketAddress address;
+
+        /**
+         * The ids of the Timeables.
+         */
+        private final long[] ids;
+
+        /**
+         * The {@link System#nanoTime()} mark at which the worker stops.
+         */
+        private final long deadline;
+
+        /**
+         * The latency of each request, in nanoseconds.
+         */
+        private long[] latencies = new long[1 << 16];
+
+        /**
+         * The number of requests sent.
+         */
+        private int count;
+
+        /**
+         * The number of requests that failed.
+         */
+        private long errors;
+
+        /**
+         * Constructs a {@code Worker}.
+         * @param address the address of the server.
+         * @param ids the ids of the Timeables.
+         * @param deadline the {@link System#nanoTime()} mark at which the worker stops.
+         */
+        Worker(InetSocketAddress address, long[] ids, long deadline) {
+            super("load-generator");
+            this.address = address;
+            this.ids = ids;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try(Connection connection = new Connection(address)) {
+                long now = System.nanoTime();
+                while(now < deadline) {
+                    long id = ids[random.nextInt(ids.length)];
+                    int choice = random.nextInt(10);
+                    if(choice == 0) {
+                        connection.send("POST", "/timers/" + id + '/' + ACTIONS[random.nextInt(ACTIONS.length)]);
+                    }
+                    else {
+                        connection.send("GET", "/timers/" + id);
+                    }
+                    long end = System.nanoTime();
+                    if(connection.status >= 400 && connection.status != 409) {
+                        errors++;
+                    }
+                    if(count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count << 1);
+                    }
+                    latencies[count++] = end - now;
+                    now = end;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * A keep-alive HTTP/1.1 connection to the server.
+     */
+    private static final class Connection implements AutoCloseable {
+        /**
+         * The socket of the connection.
+         */
+        private final Socket socket;
+
+        /**
+         * The stream of the requests.
+         */
+        private final OutputStream out;
+
+        /**
+         * The stream of the responses.
+         */
+        private final InputStream in;
+
+        /**
+         * The value of the host header.
+         */
+        private final String host;
+
+        /**
+         * The status of the last response.
+         */
+        private int status;
+
+        /**
+         * Opens a {@code Connection}.
+         * @param address the address of the server.
+         * @throws IOException if the connection cannot be opened.
+         */
+        Connection(InetSocketAddress address) throws IOException {
+            this.socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.host = address.getHostString() + ':' + address.getPort();
+        }
+
+        /**
+         * Sends a request without a body, and reads its response.
+         * @param method the method of the request.
+         * @param target the target of the request.
+         * @return the body of the response.
+         * @throws IOException if the request cannot be sent, or the response cannot be read.
+         */
+        String send(String method, String target) throws IOException {
+            String request = method + ' ' + target + " HTTP/1.1\r\nHost: " + host + "\r\nContent-Length: 0\r\n\r\n";
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            String statusLine = readLine();
+            status = Integer.parseInt(statusLine.substring(9, 12));
+            int length = 0;
+            for(String header = readLine(); !header.isEmpty(); header = readLine()) {
+                if(header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    length = Integer.parseInt(header.substring(15).trim());
+                }
+            }
+            byte[] body = in.readNBytes(length);
+            if(body.length < length) {
+                throw new IOException("Connection closed by the server.");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads a line of the response.
+         * @return the line, without its terminator.
+         * @throws IOException if the line cannot be read.
+         */
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder(64);
+            int c;
+            while((c = in.read()) != '\n') {
+                if(c < 0) {
+                    throw new IOException("Connection closed by the server.");
+                }
+                if(c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
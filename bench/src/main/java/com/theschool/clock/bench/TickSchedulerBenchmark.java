@@ -0,0 +1,96 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.TickScheduler;
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.TimeSinks;
+import com.theschool.clock.model.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a {@link TickScheduler} takes to drive many timers to expiry.
+ * <p>
+ * Each invocation registers all the timers at once and waits until the last one expires. The
+ * timers are due after {@link #durationMillis}, so the time beyond it is the cost of the wheel.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TickSchedulerBenchmark {
+
+    /**
+     * Defines the number of timers.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int count;
+
+    /**
+     * Defines the duration of the timers, in milliseconds.
+     */
+    @Param({"100"})
+    public long durationMillis;
+
+    /**
+     * Defines the scheduler.
+     */
+    private TickScheduler scheduler;
+
+    /**
+     * Defines the timers of the invocation.
+     */
+    private Timer[] timers;
+
+    /**
+     * Defines the latch counting down the timers left to expire.
+     */
+    private CountDownLatch expired;
+
+    @Setup(Level.Trial)
+    public void setUpScheduler() {
+        scheduler = new TickScheduler(TimeUnit.MILLISECONDS.toNanos(1), TickScheduler.DEFAULT_WHEEL_SIZE);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTimers() {
+        expired = new CountDownLatch(count);
+        timers = new Timer[count];
+        Time duration = Time.ofNanos(TimeUnit.MILLISECONDS.toNanos(durationMillis));
+        for(int i = 0; i < count; i++) {
+            Timer timer = new Timer(duration, false, TimeSinks.noOp());
+            timer.addTimerListener(t -> expired.countDown());
+            timers[i] = timer;
+        }
+    }
+
+    @Benchmark
+    public void registerAndExpire() throws InterruptedException {
+        for(Timer timer : timers) {
+            scheduler.register(timer);
+        }
+        expired.await();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+}
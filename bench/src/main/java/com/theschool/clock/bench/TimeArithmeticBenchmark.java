@@ -0,0 +1,89 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.TimeSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the arithmetic of {@link Time} and {@link TimeSpan}.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeArithmeticBenchmark {
+
+    /**
+     * Defines the left operand.
+     */
+    private Time time = new Time(1, 59, 59);
+
+    /**
+     * Defines the right operand.
+     */
+    private Time delta = new Time(0, 0, 1);
+
+    /**
+     * Defines the left operand as a span.
+     */
+    private TimeSpan span = time.toTimeSpan();
+
+    /**
+     * Defines the right operand as a span.
+     */
+    private TimeSpan deltaSpan = delta.toTimeSpan();
+
+    /**
+     * Defines the left operand in nanoseconds.
+     */
+    private long nanos = time.toNanos();
+
+    /**
+     * Defines the right operand in nanoseconds.
+     */
+    private long deltaNanos = delta.toNanos();
+
+    @Benchmark
+    public Time timeAdd() {
+        return time.add(delta);
+    }
+
+    @Benchmark
+    public Time timeSubtract() {
+        return time.subtract(delta);
+    }
+
+    @Benchmark
+    public TimeSpan spanPlus() {
+        return span.plus(deltaSpan);
+    }
+
+    @Benchmark
+    public TimeSpan spanMinus() {
+        return span.minus(deltaSpan);
+    }
+
+    @Benchmark
+    public long nanosAdd() {
+        return TimeSpan.addNanos(nanos, deltaNanos);
+    }
+
+    @Benchmark
+    public long nanosSubtract() {
+        return TimeSpan.subtractNanos(nanos, deltaNanos);
+    }
+}
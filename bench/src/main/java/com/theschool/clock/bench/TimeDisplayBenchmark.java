@@ -0,0 +1,147 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.gui.TextComponentSink;
+import com.theschool.clock.gui.TimeDisplay;
+import com.theschool.clock.model.Stopwatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of showing a new time, one second later than the previous one, in a
+ * {@link TimeDisplay} and in a {@link JTextField} fed by a {@link TextComponentSink}.
+ * <p>
+ * An update is rendering the new time and painting what the component asks to repaint into an
+ * image: the two cells of the seconds of the display, and the whole text field. The components
+ * are never shown, so the benchmark runs headless.
+ * <p>
+ * {@code followedMilliseconds} is a frame of a display following a running stopwatch to the
+ * millisecond: reading its time, and painting the cells that changed. It is the whole cost of a
+ * shown high-resolution stopwatch per frame, since the stopwatch itself is never ticked.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TimeDisplayBenchmark {
+
+    /**
+     * Defines the number of nanoseconds in a second.
+     */
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Defines the display.
+     */
+    private TimeDisplay display;
+
+    /**
+     * Defines the display following a running stopwatch to the millisecond.
+     */
+    private TimeDisplay followingDisplay;
+
+    /**
+     * Defines the text field.
+     */
+    private JTextField textField;
+
+    /**
+     * Defines the sink of the text field.
+     */
+    private TextComponentSink textFieldSink;
+
+    /**
+     * Defines the image the components are painted into.
+     */
+    private BufferedImage image;
+
+    /**
+     * Defines the graphics of the image.
+     */
+    private Graphics2D graphics;
+
+    /**
+     * Defines the time shown by the next update.
+     */
+    private long nanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        display = new TimeDisplay();
+        display.setSize(300, 40);
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.start();
+        followingDisplay = new TimeDisplay();
+        followingDisplay.setFractionDigits(3);
+        followingDisplay.follow(stopwatch);
+        followingDisplay.setSize(300, 40);
+        textField = new JTextField();
+        textField.setFont(new Font(Font.MONOSPACED, Font.BOLD, 20));
+        textField.setHorizontalAlignment(JTextField.CENTER);
+        textField.setEditable(false);
+        textField.setSize(300, 40);
+        textFieldSink = new TextComponentSink(textField);
+        image = new BufferedImage(300, 40, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public boolean timeDisplay() {
+        nanos += SECOND;
+        display.onTick(nanos);
+        boolean rendered = display.render();
+        // paint the cells of the seconds, which is what a repaint manager paints on most updates.
+        int length = display.getText().length();
+        Rectangle dirty = display.getCellBounds(length - 2).union(display.getCellBounds(length - 1));
+        Graphics g = graphics.create(dirty.x, dirty.y, dirty.width, dirty.height);
+        g.translate(-dirty.x, -dirty.y);
+        display.paint(g);
+        g.dispose();
+        return rendered;
+    }
+
+    @Benchmark
+    public boolean followedMilliseconds() {
+        boolean rendered = followingDisplay.render();
+        // paint the cells of the milliseconds, which change on every frame.
+        int length = followingDisplay.getText().length();
+        Rectangle dirty = followingDisplay.getCellBounds(length - 3).union(followingDisplay.getCellBounds(length - 1));
+        Graphics g = graphics.create(dirty.x, dirty.y, dirty.width, dirty.height);
+        g.translate(-dirty.x, -dirty.y);
+        followingDisplay.paint(g);
+        g.dispose();
+        return rendered;
+    }
+
+    @Benchmark
+    public boolean textField() {
+        nanos += SECOND;
+        textFieldSink.onTick(nanos);
+        boolean rendered = textFieldSink.render();
+        textField.paint(graphics);
+        return rendered;
+    }
+}
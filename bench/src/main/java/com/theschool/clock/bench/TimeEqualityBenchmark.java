@@ -0,0 +1,91 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.TimeSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the equality and hash code of {@link Time} and {@link TimeSpan}, against the varargs
+ * {@link Objects#hash(Object...)} hash code that {@link Time} used to compute.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeEqualityBenchmark {
+
+    /**
+     * Defines a time.
+     */
+    private Time time = new Time(12, 34, 56);
+
+    /**
+     * Defines a time equal to {@link #time}.
+     */
+    private Time equalTime = new Time(12, 34, 56);
+
+    /**
+     * Defines a time different from {@link #time}.
+     */
+    private Time otherTime = new Time(12, 34, 57);
+
+    /**
+     * Defines a span.
+     */
+    private TimeSpan span = time.toTimeSpan();
+
+    /**
+     * Defines a span equal to {@link #span}.
+     */
+    private TimeSpan equalSpan = TimeSpan.of(12, 34, 56);
+
+    @Benchmark
+    public boolean timeEquals() {
+        return time.equals(equalTime);
+    }
+
+    @Benchmark
+    public boolean timeNotEquals() {
+        return time.equals(otherTime);
+    }
+
+    @Benchmark
+    public int timeHashCode() {
+        return time.hashCode();
+    }
+
+    @Benchmark
+    public int legacyVarargsHashCode() {
+        return Objects.hash(time.getHour(), time.getMinute(), time.getSecond());
+    }
+
+    @Benchmark
+    public boolean spanEquals() {
+        return span.equals(equalSpan);
+    }
+
+    @Benchmark
+    public int spanHashCode() {
+        return span.hashCode();
+    }
+
+    @Benchmark
+    public int spanCompareTo() {
+        return span.compareTo(equalSpan);
+    }
+}
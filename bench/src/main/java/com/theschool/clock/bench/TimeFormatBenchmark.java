@@ -0,0 +1,98 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.Time;
+import com.theschool.clock.util.TimeFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the formatting of times, against the {@code String.format} based formatting that
+ * {@link Time#toString()} used before {@link TimeFormatter}.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeFormatBenchmark {
+
+    /**
+     * Defines the formatted time, in seconds.
+     */
+    @Param({"5", "45296", "450000"})
+    public long seconds;
+
+    /**
+     * Defines the formatted time.
+     */
+    private Time time;
+
+    /**
+     * Defines the formatted time, in nanoseconds.
+     */
+    private long nanos;
+
+    /**
+     * Defines the buffer formatted into.
+     */
+    private final char[] buffer = new char[TimeFormatter.MAX_LENGTH];
+
+    /**
+     * Defines the string builder formatted into.
+     */
+    private final StringBuilder builder = new StringBuilder(TimeFormatter.MAX_LENGTH);
+
+    @Setup
+    public void setUp() {
+        nanos = TimeUnit.SECONDS.toNanos(seconds);
+        time = Time.ofNanos(nanos);
+    }
+
+    @Benchmark
+    public String legacyStringFormat() {
+        long hour = seconds / 3600;
+        long minute = seconds / 60 % 60;
+        long second = seconds % 60;
+        return String.format("%s:%s:%s",
+                hour > 9 ? hour : "0" + hour,
+                minute > 9 ? minute : "0" + minute,
+                second > 9 ? second : "0" + second);
+    }
+
+    @Benchmark
+    public String timeToString() {
+        return time.toString();
+    }
+
+    @Benchmark
+    public char[] formatIntoArray() {
+        TimeFormatter.format(nanos, 0, buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public char[] formatMillisIntoArray() {
+        TimeFormatter.format(nanos, 3, buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public StringBuilder appendToBuilder() {
+        builder.setLength(0);
+        return TimeFormatter.append(nanos, 0, builder);
+    }
+}
@@ -0,0 +1,153 @@
+package com.theschool.clock.bench;
+
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.TimeableRegistry;
+import com.theschool.clock.model.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups and registrations in a {@link TimeableRegistry} holding a large population,
+ * against a {@link ConcurrentHashMap} keyed by boxed ids.
+ * <p>
+ * Run with {@code -t} to choose the number of threads, or run this class to measure the scaling
+ * from 1 to 64 threads; the results are written to {@value #RESULT_FILE}.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeableRegistryBenchmark {
+
+    /**
+     * Defines the file the scaling results are written to.
+     */
+    public static final String RESULT_FILE = "registry-scaling.json";
+
+    /**
+     * Defines the thread counts of the scaling run.
+     */
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    /**
+     * Defines the number of Timeables registered before measuring.
+     */
+    @Param({"1000000"})
+    public int population;
+
+    /**
+     * Defines the index the Timeables are kept in: {@code registry} or {@code concurrentHashMap}.
+     */
+    @Param({"registry", "concurrentHashMap"})
+    public String index;
+
+    /**
+     * Defines the registry.
+     */
+    private TimeableRegistry registry;
+
+    /**
+     * Defines the map used as a baseline.
+     */
+    private Map<Long, Timeable> map;
+
+    /**
+     * Defines the ids of the registered Timeables.
+     */
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new TimeableRegistry();
+        map = new ConcurrentHashMap<>();
+        ids = new long[population];
+        for(int i = 0; i < population; i++) {
+            Timeable timeable = i % 2 == 0 ? new Stopwatch() : new Timer(new Time(0, 1, 0));
+            ids[i] = timeable.getId();
+            if("registry".equals(index)) {
+                registry.register(timeable);
+            }
+            else {
+                map.put(timeable.getId(), timeable);
+            }
+        }
+    }
+
+    /**
+     * The Timeable a thread registers and unregisters.
+     */
+    @State(Scope.Thread)
+    public static class Churn {
+        /**
+         * The Timeable.
+         */
+        Timeable timeable = new Stopwatch();
+    }
+
+    @Benchmark
+    public Timeable lookup() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return "registry".equals(index) ? registry.get(id) : map.get(id);
+    }
+
+    @Benchmark
+    public Timeable registerUnregister(Churn churn) {
+        Timeable timeable = churn.timeable;
+        if("registry".equals(index)) {
+            registry.register(timeable);
+            return registry.unregister(timeable.getId());
+        }
+        map.put(timeable.getId(), timeable);
+        return map.remove(timeable.getId());
+    }
+
+    @Benchmark
+    public Timeable pauseById() {
+        // the Timeables are idle, so this measures the lookup and the failed transition.
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        if("registry".equals(index)) {
+            return registry.pause(id);
+        }
+        Timeable timeable = map.get(id);
+        timeable.pause();
+        return timeable;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for(int threads : THREADS) {
+            new Runner(new OptionsBuilder()
+                    .include(TimeableRegistryBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(threads + "-" + RESULT_FILE)
+                    .build()).run();
+        }
+    }
+}
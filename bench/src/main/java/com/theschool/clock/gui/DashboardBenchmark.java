@@ -0,0 +1,185 @@
+package com.theschool.clock.gui;
+
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.TimeableRegistry;
+import com.theschool.clock.model.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time a frame of a {@link TimeableGrid} over a large registry spends on the event
+ * dispatch thread: rendering, then painting the region the grid asked to repaint into an image.
+ * <p>
+ * Most Timeables are running, so the cells in view change once per second, and the grid collects
+ * the ids of the registry every few frames. {@code frame} is the frame of a dashboard left alone;
+ * its sampled distribution shows the frames repainting every running cell and the frames
+ * collecting the ids. {@code scrollFrame} jumps to a random row before each frame, so every cell
+ * in view is new. The grid is never shown, so the benchmark runs headless.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DashboardBenchmark {
+
+    /**
+     * Defines the width of the viewport.
+     */
+    private static final int WIDTH = 982;
+
+    /**
+     * Defines the height of the viewport.
+     */
+    private static final int HEIGHT = 700;
+
+    /**
+     * Defines the number of Timeables.
+     */
+    @Param({"50000"})
+    private int population;
+
+    /**
+     * Defines the grid.
+     */
+    private TimeableGrid grid;
+
+    /**
+     * Defines the scroll pane of the grid.
+     */
+    private JScrollPane scrollPane;
+
+    /**
+     * Defines the repaint manager collecting the region the grid asks to repaint.
+     */
+    private DirtyRegion dirtyRegion;
+
+    /**
+     * Defines the repaint manager in place before the benchmark.
+     */
+    private RepaintManager previousManager;
+
+    /**
+     * Defines the image the grid is painted into.
+     */
+    private BufferedImage image;
+
+    /**
+     * Defines the graphics of the image.
+     */
+    private Graphics2D graphics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TimeableRegistry registry = new TimeableRegistry();
+        for(int i = 0; i < population; i++) {
+            Timeable timeable = i % 2 == 0 ? new Stopwatch() : new Timer(Time.ofNanos(TimeUnit.MINUTES.toNanos(30 + i % 60)));
+            registry.register(timeable);
+            if(i % 10 != 0) {
+                timeable.start();
+            }
+            if(i % 10 == 1) {
+                timeable.pause();
+            }
+        }
+        grid = new TimeableGrid(registry);
+        scrollPane = new JScrollPane(grid,
+                ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+        scrollPane.setSize(WIDTH, HEIGHT);
+        dirtyRegion = new DirtyRegion();
+        previousManager = RepaintManager.currentManager(grid);
+        RepaintManager.setCurrentManager(dirtyRegion);
+        grid.render();
+        // the scroll pane has no peer to validate it, so it is laid out here, sizing the grid to its Timeables.
+        scrollPane.doLayout();
+        scrollPane.getViewport().doLayout();
+        if(grid.getHeight() <= HEIGHT) {
+            throw new IllegalStateException("The grid is not laid out.");
+        }
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+        RepaintManager.setCurrentManager(previousManager);
+    }
+
+    @Benchmark
+    public boolean frame() {
+        return renderAndPaint();
+    }
+
+    @Benchmark
+    public boolean scrollFrame() {
+        int rows = grid.getHeight() / TimeableGrid.CELL_HEIGHT;
+        int row = ThreadLocalRandom.current().nextInt(rows);
+        scrollPane.getViewport().setViewPosition(new Point(0, Math.min(row * TimeableGrid.CELL_HEIGHT, grid.getHeight() - HEIGHT)));
+        return renderAndPaint();
+    }
+
+    /**
+     * Renders the grid, then paints the region it asked to repaint within the viewport.
+     * @return whether the grid repainted anything.
+     */
+    private boolean renderAndPaint() {
+        dirtyRegion.bounds = null;
+        boolean rendered = grid.render();
+        Rectangle dirty = dirtyRegion.bounds;
+        if(dirty != null) {
+            Rectangle visible = grid.getVisibleRect();
+            dirty = dirty.intersection(visible);
+            if(!dirty.isEmpty()) {
+                Graphics g = graphics.create(dirty.x - visible.x, dirty.y - visible.y, dirty.width, dirty.height);
+                g.translate(-dirty.x, -dirty.y);
+                grid.paint(g);
+                g.dispose();
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * A repaint manager that collects the region the grid asks to repaint instead of scheduling a paint.
+     */
+    private static final class DirtyRegion extends RepaintManager {
+
+        /**
+         * Defines the union of the regions asked, or {@code null} if there is none.
+         */
+        private Rectangle bounds;
+
+        @Override
+        public void addDirtyRegion(JComponent component, int x, int y, int width, int height) {
+            Rectangle region = new Rectangle(x, y, width, height);
+            bounds = bounds == null ? region : bounds.union(region);
+        }
+
+        @Override
+        public void addInvalidComponent(JComponent component) {
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.theschool.clock.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the tick loops of {@link Stopwatch} and {@link Timer}, from one
+ * thread and from several threads ticking the same Timeables.
+ * <p>
+ * The benchmark lives in the model package so that it can call {@link Timeable#tick()} directly,
+ * without the scheduling around it.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickThroughputBenchmark {
+
+    /**
+     * Defines the number of Timeables of each kind.
+     */
+    @Param({"1", "16", "256", "4096"})
+    public int count;
+
+    /**
+     * Defines the running stopwatches.
+     */
+    private Stopwatch[] stopwatches;
+
+    /**
+     * Defines the running timers. They are far enough from their deadline not to expire.
+     */
+    private Timer[] timers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MetricsTimeSink sink = new MetricsTimeSink();
+        stopwatches = new Stopwatch[count];
+        timers = new Timer[count];
+        for(int i = 0; i < count; i++) {
+            stopwatches[i] = new Stopwatch(true, sink);
+            timers[i] = new Timer(new Time(99, 0, 0), true, sink);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long stopwatchTicks() {
+        return tickAll(stopwatches);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long stopwatchTicksConcurrent() {
+        return tickAll(stopwatches);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long timerTicks() {
+        return tickAll(timers);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long timerTicksConcurrent() {
+        return tickAll(timers);
+    }
+
+    /**
+     * Ticks every Timeable once.
+     * @param timeables the Timeables.
+     * @return the sum of the delays until their next ticks.
+     */
+    private static long tickAll(Timeable[] timeables) {
+        long delays = 0;
+        for(Timeable timeable : timeables) {
+            delays += timeable.tick();
+        }
+        return delays;
+    }
+}
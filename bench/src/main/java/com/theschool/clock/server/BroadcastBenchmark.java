@@ -0,0 +1,63 @@
+package com.theschool.clock.server;
+
+import com.theschool.clock.model.Stopwatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of handing a tick of a Timeable to its subscribers, which never write them:
+ * each tick replaces the previous one in the slot of every subscriber.
+ * <p>
+ * The benchmark lives in the server package so that it can reach the package-private broadcaster.
+ *
+ * @author Thomas Munguya
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    /**
+     * Defines the number of subscribers of the Timeable.
+     */
+    @Param({"0", "1", "100", "10000"})
+    public int subscribers;
+
+    /**
+     * Defines the broadcaster of the Timeable.
+     */
+    private TimeableBroadcaster broadcaster;
+
+    /**
+     * Defines the time handed to the broadcaster.
+     */
+    private long nanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broadcaster = new TimeableBroadcaster(new Stopwatch());
+        for(int i = 0; i < subscribers; i++) {
+            broadcaster.subscribe(new EventSubscriber(1), 0);
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        broadcaster.onTick(nanos++);
+    }
+}
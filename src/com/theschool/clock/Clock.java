@@ -1,12 +1,37 @@
 package com.theschool.clock;
 
 import com.theschool.clock.gui.*;
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.TimeSink;
+import com.theschool.clock.model.TimeSinks;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.TimeableRegistry;
+import com.theschool.clock.model.Timer;
+import com.theschool.clock.persistence.SessionJournal;
+import com.theschool.clock.persistence.Snapshotter;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The {@code Clock} class represents the entry point for the clock application.
+ * <p>
+ * The sessions of the stopwatch and the timer are kept in a {@link SessionJournal}, in the
+ * {@value #JOURNAL_DIRECTORY} directory of the home of the user. When the application starts, the
+ * stopwatch and timer of the previous run are restored from it, and their windows are reopened.
+ * Closing a window keeps its stopwatch or timer, which is shown again when the window is reopened.
+ * A {@link Snapshotter} takes snapshots of them in the background, so that only the end of the
+ * journal is replayed on the next start.
+ * <p>
+ * The stopwatch and the timer are registered in a {@link TimeableRegistry} while they are in use,
+ * and the dashboard window shows every Timeable of the registry.
  *
  * @author Thomas Munguya
  */
@@ -31,10 +56,15 @@ public class Clock {
      */
     private JButton exitButton;
 
+    /**
+     * Defines the dashboard button.
+     */
+    private JButton dashboardButton;
+
     /**
      * Defines the graphical user interface for the stopwatch.
      */
-    private static StopwatchGUI stopwatchGUI;
+    private static volatile StopwatchGUI stopwatchGUI;
 
     /**
      * Defines the JFrame for the stopwatch.
@@ -44,13 +74,63 @@ public class Clock {
     /**
      * Defines the graphical user interface for the timer.
      */
-    private static TimerGUI timerGUI;
+    private static volatile TimerGUI timerGUI;
 
     /**
      * Defines the JFrame for the timer.
      */
     private static JFrame timerJFrame;
 
+    /**
+     * Defines the graphical user interface for the dashboard.
+     */
+    private static volatile DashboardGUI dashboardGUI;
+
+    /**
+     * Defines the JFrame for the dashboard.
+     */
+    private static JFrame dashboardJFrame;
+
+    /**
+     * Defines the registry of the Timeables in use, shown by the dashboard.
+     */
+    private static final TimeableRegistry registry = new TimeableRegistry();
+
+    /**
+     * Defines the directory of the journal, relative to the home of the user.
+     */
+    private static final String JOURNAL_DIRECTORY = ".clock";
+
+    /**
+     * Defines the name of the journal file.
+     */
+    private static final String JOURNAL_FILE = "session.journal";
+
+    /**
+     * Defines the name of the snapshot file.
+     */
+    private static final String SNAPSHOT_FILE = "session.snapshot";
+
+    /**
+     * Defines the journal of the sessions, or {@code null} if it could not be opened.
+     */
+    private static SessionJournal journal;
+
+    /**
+     * Defines the snapshotter of the stopwatch and the timer, or {@code null} if there is no journal.
+     */
+    private static Snapshotter snapshotter;
+
+    /**
+     * Defines the stopwatch to show when the stopwatch window opens, or {@code null} for a new one.
+     */
+    private static volatile Stopwatch stopwatch;
+
+    /**
+     * Defines the timer to show when the timer window opens, or {@code null} for a new one.
+     */
+    private static volatile Timer timer;
+
     /**
      * Defines the dimensions of the screen.
      */
@@ -66,8 +146,35 @@ public class Clock {
      */
     private static final Clock clock = new Clock();
 
+    /**
+     * Constructs the {@code Clock}, creating its components unless the GUI designer already bound
+     * them from {@code Clock.form}, so that the application also runs when built without the designer.
+     */
+    private Clock() {
+        if(mainJPanel == null) {
+            createComponents();
+        }
+    }
+
+    /**
+     * Creates the main pane and its buttons, as laid out in {@code Clock.form}.
+     */
+    private void createComponents() {
+        mainJPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 5, 5));
+        timerButton = new JButton("Timer");
+        exitButton = new JButton("Exit");
+        stopwatchButton = new JButton("Stopwatch");
+        dashboardButton = new JButton("Dashboard");
+
+        mainJPanel.add(timerButton);
+        mainJPanel.add(exitButton);
+        mainJPanel.add(stopwatchButton);
+        mainJPanel.add(dashboardButton);
+    }
+
     public static void main(String[] args) {
 
+        openJournal();
         clock.registerButtonEventHandlers();
 
         FlowLayout flowLayout = new FlowLayout(FlowLayout.CENTER);
@@ -83,7 +190,10 @@ public class Clock {
         springLayout.putConstraint(SpringLayout.NORTH, startStopButtonsPanel, 10, SpringLayout.NORTH, clock.mainJPanel);
         springLayout.putConstraint(SpringLayout.NORTH, clock.exitButton, 10, SpringLayout.SOUTH, startStopButtonsPanel);
 
-        springLayout.putConstraint(SpringLayout.WEST, clock.exitButton, 80, SpringLayout.WEST, clock.mainJPanel);
+        springLayout.putConstraint(SpringLayout.NORTH, clock.dashboardButton, 10, SpringLayout.SOUTH, startStopButtonsPanel);
+        springLayout.putConstraint(SpringLayout.WEST, clock.dashboardButton, 30, SpringLayout.WEST, clock.mainJPanel);
+
+        springLayout.putConstraint(SpringLayout.WEST, clock.exitButton, 10, SpringLayout.EAST, clock.dashboardButton);
 
         clock.mainJPanel.setLayout(springLayout);
 
@@ -96,50 +206,153 @@ public class Clock {
         mainJFrame.setSize(240, 135);
         mainJFrame.setResizable(false);
         mainJFrame.setVisible(true);
+
+        if(stopwatch != null) {
+            showStopwatch();
+        }
+        if(timer != null) {
+            showTimer();
+        }
     }
 
     /**
-     * Registers button event handlers.
+     * Opens the journal of the sessions, takes the last stopwatch and timer it restored, and starts
+     * taking snapshots of them.
      */
-    private void registerButtonEventHandlers() {
-        clock.stopwatchButton.addActionListener((e) -> {
-            if(stopwatchGUI == null) {
-                stopwatchGUI = new StopwatchGUI();
-
-                stopwatchJFrame = new JFrame();
-                stopwatchJFrame.setContentPane(stopwatchGUI);
-                stopwatchJFrame.setSize(335, 455);
-                stopwatchJFrame.setTitle("Stopwatch");
-                stopwatchJFrame.setResizable(false);
-                stopwatchJFrame.addWindowListener(new StopwatchWindowListener());
-                stopwatchJFrame.setVisible(true);
+    private static void openJournal() {
+        Path file = Paths.get(System.getProperty("user.home"), JOURNAL_DIRECTORY, JOURNAL_FILE);
+        Path snapshot = file.resolveSibling(SNAPSHOT_FILE);
+        try {
+            Files.createDirectories(file.getParent());
+            journal = SessionJournal.open(file, snapshot, SessionJournal.DEFAULT_FORCE_INTERVAL_NANOS, registry.sink());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        for(Timeable timeable : journal.getRestored()) {
+            if(timeable instanceof Stopwatch) {
+                stopwatch = (Stopwatch) timeable;
             }
-            else {
-                stopwatchJFrame.requestFocus();
+            else if(timeable instanceof Timer) {
+                timer = (Timer) timeable;
             }
-        });
+            if(timeable.getState() != Timeable.State.IDLE) {
+                registry.register(timeable);
+            }
+        }
+        snapshotter = new Snapshotter(snapshot, Clock::sessionTimeables, journal);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            snapshotter.close();
+            journal.close();
+        }, "session-journal-close"));
+    }
+
+    /**
+     * Returns the stopwatch and the timer of the session, whether their windows are open or not.
+     * @return the Timeables.
+     */
+    private static List<Timeable> sessionTimeables() {
+        List<Timeable> timeables = new ArrayList<>(2);
+        StopwatchGUI openStopwatch = stopwatchGUI;
+        Stopwatch currentStopwatch = openStopwatch != null ? openStopwatch.getStopwatch() : stopwatch;
+        if(currentStopwatch != null) {
+            timeables.add(currentStopwatch);
+        }
+        TimerGUI openTimer = timerGUI;
+        Timer currentTimer = openTimer != null ? openTimer.getTimer() : timer;
+        if(currentTimer != null) {
+            timeables.add(currentTimer);
+        }
+        return timeables;
+    }
+
+    /**
+     * Returns the sink that the stopwatch and the timer hand their output to besides their windows.
+     * @return the sink of the registry, composed with the journal if there is one.
+     */
+    private static TimeSink sessionSink() {
+        return journal != null ? TimeSinks.compose(journal, registry.sink()) : registry.sink();
+    }
+
+    /**
+     * Shows the stopwatch window, opening it if it is not open.
+     */
+    private static void showStopwatch() {
+        if(stopwatchGUI == null) {
+            stopwatchGUI = new StopwatchGUI(sessionSink());
+            if(stopwatch != null) {
+                stopwatchGUI.restore(stopwatch);
+            }
+
+            stopwatchJFrame = new JFrame();
+            stopwatchJFrame.setContentPane(stopwatchGUI);
+            stopwatchJFrame.setSize(335, 480);
+            stopwatchJFrame.setTitle("Stopwatch");
+            stopwatchJFrame.setResizable(false);
+            stopwatchJFrame.addWindowListener(new StopwatchWindowListener());
+            stopwatchJFrame.setVisible(true);
+        }
+        else {
+            stopwatchJFrame.requestFocus();
+        }
+    }
+
+    /**
+     * Shows the timer window, opening it if it is not open.
+     */
+    private static void showTimer() {
+        if(timerGUI == null) {
+            timerGUI = new TimerGUI(sessionSink());
+            if(timer != null) {
+                timerGUI.restore(timer);
+            }
+
+            timerJFrame = new JFrame();
+            timerJFrame.setContentPane(timerGUI);
+            timerJFrame.setSize(345, 200);
+            timerJFrame.setTitle("Timer");
+            timerJFrame.setResizable(false);
+            timerJFrame.addWindowListener(new TimerWindowListener());
+            timerJFrame.setVisible(true);
+        }
+        else {
+            timerGUI.requestFocus();
+        }
+    }
+
+    /**
+     * Shows the dashboard window, opening it if it is not open.
+     */
+    private static void showDashboard() {
+        if(dashboardGUI == null) {
+            dashboardGUI = new DashboardGUI(registry);
+
+            dashboardJFrame = new JFrame();
+            dashboardJFrame.setContentPane(dashboardGUI);
+            dashboardJFrame.setSize(1000, 700);
+            dashboardJFrame.setTitle("Dashboard");
+            dashboardJFrame.addWindowListener(new DashboardWindowListener());
+            dashboardJFrame.setVisible(true);
+        }
+        else {
+            dashboardJFrame.requestFocus();
+        }
+    }
+
+    /**
+     * Registers button event handlers.
+     */
+    private void registerButtonEventHandlers() {
+        clock.stopwatchButton.addActionListener((e) -> showStopwatch());
 
         clock.exitButton.addActionListener((e) -> {
             mainJFrame.dispose();
             System.exit(0);
         });
 
-        clock.timerButton.addActionListener((e) -> {
-            if(timerGUI == null) {
-                timerGUI = new TimerGUI();
-
-                timerJFrame = new JFrame();
-                timerJFrame.setContentPane(timerGUI);
-                timerJFrame.setSize(345, 200);
-                timerJFrame.setTitle("Timer");
-                timerJFrame.setResizable(false);
-                timerJFrame.addWindowListener(new TimerWindowListener());
-                timerJFrame.setVisible(true);
-            }
-            else {
-                timerGUI.requestFocus();
-            }
-        });
+        clock.timerButton.addActionListener((e) -> showTimer());
+
+        clock.dashboardButton.addActionListener((e) -> showDashboard());
     }
 
     /**
@@ -152,6 +365,7 @@ public class Clock {
 
         @Override
         public void windowClosing(WindowEvent e) {
+            stopwatch = stopwatchGUI.getStopwatch();
             stopwatchGUI = null;
             stopwatchJFrame.dispose();
         }
@@ -182,6 +396,7 @@ public class Clock {
 
         @Override
         public void windowClosing(WindowEvent e) {
+            timer = timerGUI.getTimer();
             timerGUI = null;
             timerJFrame.dispose();
         }
@@ -201,4 +416,34 @@ public class Clock {
         @Override
         public void windowDeactivated(WindowEvent e) {}
     }
+
+    /**
+     * A listener for the dashboard window.
+     */
+    private static class DashboardWindowListener implements WindowListener {
+
+        @Override
+        public void windowOpened(WindowEvent e) {}
+
+        @Override
+        public void windowClosing(WindowEvent e) {
+            dashboardGUI = null;
+            dashboardJFrame.dispose();
+        }
+
+        @Override
+        public void windowClosed(WindowEvent e) {}
+
+        @Override
+        public void windowIconified(WindowEvent e) {}
+
+        @Override
+        public void windowDeiconified(WindowEvent e) {}
+
+        @Override
+        public void windowActivated(WindowEvent e) {}
+
+        @Override
+        public void windowDeactivated(WindowEvent e) {}
+    }
 }
@@ -0,0 +1,100 @@
+package com.theschool.clock.gui;
+
+import com.theschool.clock.model.TimeableRegistry;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Represents the graphical user interface showing every Timeable of a {@link TimeableRegistry} at once.
+ * <p>
+ * The Timeables are laid out in a scrollable grid, ordered by id, with their time and a color
+ * telling their state. The grid only looks at the rows in view, and repaints once per frame the
+ * cells that changed, so it stays responsive with tens of thousands of Timeables. The status bar
+ * shows the number of Timeables and the time the event dispatch thread spent per frame over the
+ * last second.
+ *
+ * @see TimeableGrid
+ *
+ * @author Thomas Munguya
+ */
+public class DashboardGUI extends Container {
+
+    /**
+     * Defines the interval between two updates of the status bar, in milliseconds.
+     */
+    private static final int STATUS_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Defines the grid.
+     */
+    private final TimeableGrid grid;
+
+    /**
+     * Defines the status bar.
+     */
+    private final JLabel statusLabel;
+
+    /**
+     * Defines the timer updating the status bar.
+     */
+    private final javax.swing.Timer statusTimer;
+
+    /**
+     * Constructs a new {@code DashboardGUI}.
+     * @param registry the registry whose Timeables are shown.
+     * @throws IllegalArgumentException if {@code registry} is {@code null}.
+     */
+    public DashboardGUI(TimeableRegistry registry) {
+        this.grid = new TimeableGrid(registry);
+        this.statusLabel = new JLabel(" ");
+        this.statusTimer = new javax.swing.Timer(STATUS_INTERVAL_MILLIS, (e) -> updateStatus());
+
+        setUpGui();
+    }
+
+    /**
+     * Shows the number of Timeables and the time spent per frame in the status bar.
+     */
+    private void updateStatus() {
+        statusLabel.setText(String.format("%,d timeables   EDT per frame: mean %.2f ms, max %.2f ms",
+                grid.getTimeableCount(), grid.getMeanFrameNanos() / 1e6, grid.getMaxFrameNanos() / 1e6));
+        grid.resetFrameStatistics();
+    }
+
+    /**
+     * Starts rendering the grid once the GUI is added to a window.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        RenderPipeline.getShared().attach(grid);
+        statusTimer.start();
+    }
+
+    /**
+     * Stops rendering the grid once the GUI is removed from its window.
+     */
+    @Override
+    public void removeNotify() {
+        statusTimer.stop();
+        RenderPipeline.getShared().detach(grid);
+        super.removeNotify();
+    }
+
+    /**
+     * Sets up the GUI.
+     */
+    private void setUpGui() {
+        JScrollPane gridScrollPane = new JScrollPane(grid,
+                ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+        gridScrollPane.getViewport().setBackground(grid.getBackground());
+
+        statusLabel.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+
+        this.setLayout(new BorderLayout());
+        this.add(gridScrollPane, BorderLayout.CENTER);
+        this.add(statusLabel, BorderLayout.SOUTH);
+    }
+}
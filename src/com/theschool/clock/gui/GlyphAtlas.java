@@ -0,0 +1,185 @@
+package com.theschool.clock.gui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An image holding the glyphs of formatted times, rendered once, from which they are copied.
+ * <p>
+ * The atlas is a strip of equally wide cells, one per character that a formatted time may
+ * contain, each painted with its background. Drawing a character is copying its cell, so it does
+ * not go through text layout or glyph rasterization, and overwrites whatever the cell covered.
+ * The atlas is rendered at the scale of the screen, so it stays sharp on high-density displays.
+ * <p>
+ * Atlases are shared by every component using the same font, colors and scale. All methods must
+ * be called on the event dispatch thread.
+ *
+ * @see TimeDisplay
+ *
+ * @author Thomas Munguya
+ */
+final class GlyphAtlas {
+
+    /**
+     * Defines the characters of the atlas. Any other character is drawn as a space.
+     */
+    static final String GLYPHS = "0123456789:. ";
+
+    /**
+     * Defines the atlases, by font, colors and scale.
+     */
+    private static final Map<List<Object>, GlyphAtlas> atlases = new HashMap<>();
+
+    /**
+     * Defines the image whose graphics measure the glyphs, with the hints they are rendered with.
+     */
+    private static final BufferedImage MEASURE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+
+    /**
+     * Defines the image of the atlas, in device pixels.
+     */
+    private final Image image;
+
+    /**
+     * Defines the width of a cell, in user space.
+     */
+    final int cellWidth;
+
+    /**
+     * Defines the height of a cell, in user space.
+     */
+    final int cellHeight;
+
+    /**
+     * Defines the scale from user space to device pixels.
+     */
+    private final double scale;
+
+    /**
+     * Defines the cell of each character below 128, or the cell of the space for the others.
+     */
+    private final int[] cells = new int[128];
+
+    /**
+     * Constructs a {@code GlyphAtlas}, rendering its glyphs.
+     * @param font the font.
+     * @param foreground the color of the glyphs.
+     * @param background the color of the cells.
+     * @param scale the scale from user space to device pixels.
+     * @param configuration the configuration of the screen the atlas is drawn on, or {@code null}.
+     */
+    private GlyphAtlas(Font font, Color foreground, Color background, double scale, GraphicsConfiguration configuration) {
+        this.scale = scale;
+        Dimension cell = cellSize(font);
+        this.cellWidth = cell.width;
+        this.cellHeight = cell.height;
+        Arrays.fill(cells, GLYPHS.indexOf(' '));
+        for(int i = 0; i < GLYPHS.length(); i++) {
+            cells[GLYPHS.charAt(i)] = i;
+        }
+
+        int width = (int) Math.ceil(cellWidth * GLYPHS.length() * scale);
+        int height = (int) Math.ceil(cellHeight * scale);
+        BufferedImage rendered = configuration != null && !GraphicsEnvironment.isHeadless()
+                ? configuration.createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rendered.createGraphics();
+        try {
+            g.setColor(background);
+            g.fillRect(0, 0, width, height);
+            g.scale(scale, scale);
+            setHints(g);
+            g.setFont(font);
+            g.setColor(foreground);
+            FontMetrics metrics = g.getFontMetrics();
+            for(int i = 0; i < GLYPHS.length(); i++) {
+                char c = GLYPHS.charAt(i);
+                g.drawString(String.valueOf(c), i * cellWidth + (cellWidth - metrics.charWidth(c)) / 2, metrics.getAscent());
+            }
+        } finally {
+            g.dispose();
+        }
+        this.image = rendered;
+    }
+
+    /**
+     * Returns the atlas of a font, colors and scale, rendering it the first time.
+     * @param font the font.
+     * @param foreground the color of the glyphs.
+     * @param background the color of the cells.
+     * @param scale the scale from user space to device pixels.
+     * @param configuration the configuration of the screen the atlas is drawn on, or {@code null}.
+     * @return the atlas.
+     */
+    static GlyphAtlas of(Font font, Color foreground, Color background, double scale, GraphicsConfiguration configuration) {
+        List<Object> key = List.of(font, foreground, background, scale);
+        GlyphAtlas atlas = atlases.get(key);
+        if(atlas == null) {
+            atlas = new GlyphAtlas(font, foreground, background, scale, configuration);
+            atlases.put(key, atlas);
+        }
+        return atlas;
+    }
+
+    /**
+     * Returns the size of a cell of the atlases of a font, in user space.
+     * @param font the font.
+     * @return the size.
+     */
+    static Dimension cellSize(Font font) {
+        FontMetrics metrics;
+        Graphics2D g = MEASURE.createGraphics();
+        try {
+            setHints(g);
+            metrics = g.getFontMetrics(font);
+        } finally {
+            g.dispose();
+        }
+        int width = 0;
+        for(int i = 0; i < GLYPHS.length(); i++) {
+            width = Math.max(width, metrics.charWidth(GLYPHS.charAt(i)));
+        }
+        return new Dimension(width, metrics.getAscent() + metrics.getDescent());
+    }
+
+    /**
+     * Sets the hints the glyphs are measured and rendered with.
+     * @param g the graphics.
+     */
+    private static void setHints(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+    }
+
+    /**
+     * Returns whether this atlas is drawn at a scale.
+     * @param scale the scale from user space to device pixels.
+     * @return {@code true} if the atlas is rendered at this scale, and {@code false} otherwise.
+     */
+    boolean hasScale(double scale) {
+        return this.scale == scale;
+    }
+
+    /**
+     * Draws characters in consecutive cells.
+     * @param g the graphics.
+     * @param text the characters.
+     * @param from the index of the first character.
+     * @param to the index following the last character.
+     * @param x the left of the first cell, in user space.
+     * @param y the top of the cells, in user space.
+     */
+    void draw(Graphics g, char[] text, int from, int to, int x, int y) {
+        for(int i = from; i < to; i++, x += cellWidth) {
+            char c = text[i];
+            int cell = c < cells.length ? cells[c] : cells[' '];
+            int sourceX = (int) Math.round(cell * cellWidth * scale);
+            g.drawImage(image, x, y, x + cellWidth, y + cellHeight,
+                    sourceX, 0, (int) Math.round((cell + 1) * cellWidth * scale), (int) Math.round(cellHeight * scale), null);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.theschool.clock.gui;
+
+import com.theschool.clock.model.LapRecorder;
+import com.theschool.clock.util.TimeFormatter;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * A list model that shows the laps of a {@link LapRecorder}.
+ * <p>
+ * The rows are not stored: a row is formatted from the recorder when the list asks for it, and a
+ * list only asks for the rows it draws. With a prototype cell value, the list does not need to
+ * measure the other rows either, so thousands of laps cost no more to show than a screenful.
+ * <p>
+ * The model must only be used on the event dispatch thread.
+ *
+ * @author Thomas Munguya
+ */
+public class LapListModel extends AbstractListModel<String> {
+
+    /**
+     * Defines the number of fraction digits of the lap times.
+     */
+    private static final int FRACTION_DIGITS = 2;
+
+    /**
+     * Defines a row as wide as the rows of the model, to be used as the prototype cell value of a list.
+     */
+    public static final String PROTOTYPE_ROW = "#9999  00:00:00.00  00:00:00.00";
+
+    /**
+     * Defines the recorder whose laps are shown.
+     */
+    private LapRecorder laps;
+
+    /**
+     * Defines the number of rows the list knows about.
+     */
+    private int rows;
+
+    /**
+     * Constructs a {@code LapListModel}.
+     * @param laps the recorder whose laps are shown.
+     * @throws IllegalArgumentException if {@code laps} is {@code null}.
+     */
+    public LapListModel(LapRecorder laps) {
+        setLaps(laps);
+    }
+
+    /**
+     * Sets the recorder whose laps are shown.
+     * @param laps the recorder.
+     * @throws IllegalArgumentException if {@code laps} is {@code null}.
+     */
+    public void setLaps(LapRecorder laps) {
+        if(laps == null) {
+            throw new IllegalArgumentException("Laps argument cannot be null.");
+        }
+        this.laps = laps;
+        refresh();
+    }
+
+    /**
+     * Tells the list about the laps recorded or cleared since the last refresh.
+     */
+    public void refresh() {
+        int size = laps.size();
+        if(size < rows) {
+            int removed = rows;
+            rows = 0;
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+        if(size > rows) {
+            int first = rows;
+            rows = size;
+            fireIntervalAdded(this, first, size - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return rows;
+    }
+
+    /**
+     * Returns the row of a lap: its number, its split and the cumulative time.
+     */
+    @Override
+    public String getElementAt(int index) {
+        StringBuilder row = new StringBuilder(PROTOTYPE_ROW.length());
+        row.append('#').append(index + 1);
+        while(row.length() < 7) {
+            row.append(' ');
+        }
+        TimeFormatter.append(laps.getSplit(index), FRACTION_DIGITS, row).append("  ");
+        return TimeFormatter.append(laps.getCumulative(index), FRACTION_DIGITS, row).toString();
+    }
+}
@@ -0,0 +1,168 @@
+package com.theschool.clock.gui;
+
+import com.theschool.clock.jfr.RenderFrameEvent;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders views once per frame, on the event dispatch thread.
+ * <p>
+ * Views keep the latest value they were given, typically by a Timeable ticking on a background
+ * thread, and only touch Swing when they are rendered. A single {@link javax.swing.Timer} renders
+ * every view that has changed, so the background threads never touch Swing, and a view that
+ * changes several times between two frames is rendered only once. At most
+ * {@link #getMaxUpdatesPerFrame()} views are updated per frame; the next frame carries on from
+ * where the previous one stopped, so every view is eventually rendered. Frames slower than the
+ * threshold of {@link RenderFrameEvent} are recorded by Java Flight Recorder, when it is recording.
+ * <p>
+ * All methods must be called on the event dispatch thread.
+ *
+ * @see TextComponentSink
+ * @see TimeDisplay
+ *
+ * @author Thomas Munguya
+ */
+public final class RenderPipeline {
+
+    /**
+     * Defines the delay between two frames, in milliseconds.
+     */
+    public static final int FRAME_MILLIS = 16;
+
+    /**
+     * Defines the default maximum number of components updated per frame.
+     */
+    public static final int DEFAULT_MAX_UPDATES_PER_FRAME = 256;
+
+    /**
+     * Defines the pipeline shared by the application.
+     */
+    private static RenderPipeline shared;
+
+    /**
+     * Defines the views.
+     */
+    private final List<View> views = new ArrayList<>();
+
+    /**
+     * Defines the timer that renders the frames.
+     */
+    private final Timer frameTimer;
+
+    /**
+     * Defines the maximum number of views updated per frame.
+     */
+    private final int maxUpdatesPerFrame;
+
+    /**
+     * Defines the index of the view the next frame starts from.
+     */
+    private int cursor;
+
+    /**
+     * Constructs a {@code RenderPipeline}.
+     * @param maxUpdatesPerFrame the maximum number of views updated per frame.
+     * @throws IllegalArgumentException if {@code maxUpdatesPerFrame} is not greater than zero.
+     */
+    public RenderPipeline(int maxUpdatesPerFrame) {
+        if(maxUpdatesPerFrame <= 0) {
+            throw new IllegalArgumentException("Maximum updates per frame must be greater than zero.");
+        }
+        this.maxUpdatesPerFrame = maxUpdatesPerFrame;
+        this.frameTimer = new Timer(FRAME_MILLIS, (e) -> renderFrame());
+        this.frameTimer.setCoalesce(true);
+    }
+
+    /**
+     * Returns the pipeline shared by the application.
+     * @return the shared pipeline.
+     */
+    public static RenderPipeline getShared() {
+        if(shared == null) {
+            shared = new RenderPipeline(DEFAULT_MAX_UPDATES_PER_FRAME);
+        }
+        return shared;
+    }
+
+    /**
+     * Starts rendering a view.
+     * @param view the view.
+     * @throws IllegalArgumentException if {@code view} is {@code null}.
+     */
+    public void attach(View view) {
+        if(view == null) {
+            throw new IllegalArgumentException("View argument cannot be null.");
+        }
+        if(!views.contains(view)) {
+            views.add(view);
+        }
+        if(!frameTimer.isRunning()) {
+            frameTimer.start();
+        }
+    }
+
+    /**
+     * Stops rendering a view. Any change it was not rendered for yet is rendered first.
+     * @param view the view.
+     */
+    public void detach(View view) {
+        int index = views.indexOf(view);
+        if(index < 0) {
+            return;
+        }
+        view.render();
+        views.remove(index);
+        if(index < cursor) {
+            cursor--;
+        }
+        if(views.isEmpty()) {
+            frameTimer.stop();
+        }
+    }
+
+    /**
+     * Returns the maximum number of views updated per frame.
+     * @return the maximum number of updates.
+     */
+    public int getMaxUpdatesPerFrame() {
+        return maxUpdatesPerFrame;
+    }
+
+    /**
+     * Renders a frame.
+     */
+    private void renderFrame() {
+        RenderFrameEvent event = new RenderFrameEvent();
+        event.begin();
+        int size = views.size();
+        int updates = 0;
+        int visited = 0;
+        while(visited < size && updates < maxUpdatesPerFrame) {
+            if(cursor >= size) {
+                cursor = 0;
+            }
+            if(views.get(cursor++).render()) {
+                updates++;
+            }
+            visited++;
+        }
+        event.end();
+        if(event.shouldCommit()) {
+            event.set(visited, updates);
+            event.commit();
+        }
+    }
+
+    /**
+     * A view rendered by the pipeline.
+     */
+    public interface View {
+        /**
+         * Updates the view if it changed since it was last rendered. Called on the event dispatch thread.
+         * @return {@code true} if the view was updated, and {@code false} otherwise.
+         */
+        boolean render();
+    }
+}
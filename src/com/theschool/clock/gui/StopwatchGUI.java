@@ -2,18 +2,35 @@ package com.theschool.clock.gui;
 
 
 
+import com.theschool.clock.model.LapRecorder;
 import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.TimeSink;
+import com.theschool.clock.model.TimeSinks;
 import com.theschool.clock.util.Constants;
+import com.theschool.clock.util.TimeFormatter;
 
 import javax.swing.*;
 import java.awt.*;
 
 /**
  * Represents the graphical user interface for the stopwatch.
+ * <p>
+ * The display reads the time of the stopwatch once per frame, so it can show hundredths or
+ * milliseconds without the stopwatch being ticked for it.
  *
  * @see Stopwatch
  */
 public class StopwatchGUI extends Container {
+    /**
+     * Defines the names of the resolutions the time can be shown at.
+     */
+    private static final String[] RESOLUTIONS = {"Seconds", "Hundredths", "Milliseconds"};
+
+    /**
+     * Defines the number of digits of the fraction of a second shown at each resolution.
+     */
+    private static final int[] RESOLUTION_FRACTION_DIGITS = {0, 2, 3};
+
     /**
      * Defines the start button.
      */
@@ -30,35 +47,67 @@ public class StopwatchGUI extends Container {
     private final JButton lapButton;
 
     /**
-     * Defines the stopwatch text field.
+     * Defines the display of the time of the stopwatch, which reads it once per frame.
      */
-    private final JTextField stopwatchTextField;
+    private final TimeDisplay stopwatchDisplay;
+
+    /**
+     * Defines the combo box choosing the resolution the time is shown at.
+     */
+    private final JComboBox<String> resolutionComboBox;
+
+    /**
+     * Defines the sink that receives the output of the stopwatch, such as a journal.
+     */
+    private final TimeSink sessionSink;
 
     /**
      * Defines the underlying stopwatch of the user interface.
      */
-    private Stopwatch stopwatch;
+    private volatile Stopwatch stopwatch;
+
+    /**
+     * Defines the model of the lap list.
+     */
+    private final LapListModel lapListModel;
 
     /**
-     * Defines the stopwatch thread.
+     * Defines the lap list.
      */
-    private Thread stopwatchThread;
+    private final JList<String> lapList;
 
     /**
-     * Defines the lap text area.
+     * Defines the label showing the statistics of the laps.
      */
-    private final JTextArea lapTextArea;
+    private final JLabel lapStatisticsLabel;
 
     /**
      * Constructs a new {@code StopwatchGUI}.
      */
     public StopwatchGUI() {
+        this(TimeSinks.noOp());
+    }
+
+    /**
+     * Constructs a new {@code StopwatchGUI} whose stopwatches also hand their output to the provided sink.
+     * @param sessionSink the sink, such as a journal.
+     * @throws IllegalArgumentException if {@code sessionSink} is {@code null}.
+     */
+    public StopwatchGUI(TimeSink sessionSink) {
+        if(sessionSink == null) {
+            throw new IllegalArgumentException("Session sink argument cannot be null.");
+        }
+        this.sessionSink = sessionSink;
         this.startButton = new JButton(Constants.START);
         this.resetButton = new JButton(Constants.RESET);
         this.lapButton = new JButton(Constants.LAP);
-        this.stopwatchTextField = new JTextField();
+        this.stopwatchDisplay = new TimeDisplay();
+        this.resolutionComboBox = new JComboBox<>(RESOLUTIONS);
         this.stopwatch = new Stopwatch();
-        this.lapTextArea = new JTextArea();
+        this.stopwatchDisplay.follow(stopwatch);
+        this.lapListModel = new LapListModel(stopwatch.getLaps());
+        this.lapList = new JList<>(lapListModel);
+        this.lapStatisticsLabel = new JLabel(" ");
 
         setUpGui();
         registerButtonEventListeners();
@@ -83,14 +132,49 @@ public class StopwatchGUI extends Container {
         resetButton.addActionListener((e) -> resetStopwatch());
 
         lapButton.addActionListener((e) -> lapStopwatch());
+
+        resolutionComboBox.addActionListener((e) ->
+                stopwatchDisplay.setFractionDigits(RESOLUTION_FRACTION_DIGITS[resolutionComboBox.getSelectedIndex()]));
     }
 
+    /**
+     * Starts the stopwatch.
+     */
     private void startStopwatch() {
-        if(stopwatchThread == null || stopwatchThread.getState().equals(Thread.State.TERMINATED)) {
-            stopwatch = new Stopwatch(true, stopwatchTextField);
-            stopwatchThread = new Thread(stopwatch);
-            stopwatchThread.start();
-            startButton.setText(Constants.PAUSE);
+        stopwatch = new Stopwatch(false, sessionSink);
+        stopwatchDisplay.follow(stopwatch);
+        lapListModel.setLaps(stopwatch.getLaps());
+        updateLapStatistics();
+        stopwatch.start();
+        startButton.setText(Constants.PAUSE);
+    }
+
+    /**
+     * Returns the underlying stopwatch of the user interface.
+     * @return the stopwatch.
+     */
+    public Stopwatch getStopwatch() {
+        return stopwatch;
+    }
+
+    /**
+     * Shows a stopwatch that already exists, such as one restored from a journal, in whatever state it is.
+     * @param restored the stopwatch.
+     * @throws IllegalArgumentException if {@code restored} is {@code null}.
+     */
+    public void restore(Stopwatch restored) {
+        if(restored == null) {
+            throw new IllegalArgumentException("Stopwatch argument cannot be null.");
+        }
+        stopwatch = restored;
+        stopwatch.setTimeSink(sessionSink);
+        stopwatchDisplay.follow(stopwatch);
+        lapListModel.setLaps(stopwatch.getLaps());
+        updateLapStatistics();
+        switch(stopwatch.getState()) {
+            case RUNNING -> startButton.setText(Constants.PAUSE);
+            case PAUSED -> startButton.setText(Constants.RESUME);
+            default -> startButton.setText(Constants.START);
         }
     }
 
@@ -98,20 +182,14 @@ public class StopwatchGUI extends Container {
      * Resumes the stopwatch.
      */
     private void resumeStopwatch() {
-        startButton.setText(Constants.PAUSE);
-        if(stopwatchThread.getState().equals(Thread.State.TERMINATED)) {
-            stopwatch.setRunning(true);
-            stopwatchThread = new Thread(stopwatch);
-            stopwatchThread.start();
-        }
+        startButton.setText(stopwatch.resume() ? Constants.PAUSE : Constants.START);
     }
 
     /**
      * Pauses the stopwatch.
      */
     private void pauseStopwatch() {
-        startButton.setText(Constants.RESUME);
-        stopwatch.setRunning(false);
+        startButton.setText(stopwatch.pause() ? Constants.RESUME : Constants.START);
     }
 
     /**
@@ -120,48 +198,98 @@ public class StopwatchGUI extends Container {
     private void resetStopwatch() {
         startButton.setText(Constants.START);
         stopwatch.reset();
-        lapTextArea.setText("");
+        lapListModel.refresh();
+        updateLapStatistics();
     }
 
     /**
      * Laps the stopwatch.
      */
     private void lapStopwatch() {
-        lapTextArea.setText(lapTextArea.getText() + stopwatch.getTime() + "\n");
+        stopwatch.lap();
+        stopwatch.drainLaps();
+        lapListModel.refresh();
+        lapList.ensureIndexIsVisible(lapListModel.getSize() - 1);
+        updateLapStatistics();
+    }
+
+    /**
+     * Shows the fastest, slowest and mean laps in the lap statistics label.
+     */
+    private void updateLapStatistics() {
+        LapRecorder laps = stopwatch.getLaps();
+        if(laps.isEmpty()) {
+            lapStatisticsLabel.setText(" ");
+            return;
+        }
+        StringBuilder text = new StringBuilder("Best #").append(laps.getMinLap() + 1).append(' ');
+        TimeFormatter.append(laps.getMinSplit(), 2, text).append("  Worst #").append(laps.getMaxLap() + 1).append(' ');
+        TimeFormatter.append(laps.getMaxSplit(), 2, text).append("  Mean ");
+        lapStatisticsLabel.setText(TimeFormatter.append(laps.getMeanSplit(), 2, text).toString());
+    }
+
+    /**
+     * Starts rendering the stopwatch once the GUI is added to a window.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        RenderPipeline.getShared().attach(stopwatchDisplay);
+    }
+
+    /**
+     * Stops rendering the stopwatch once the GUI is removed from its window.
+     */
+    @Override
+    public void removeNotify() {
+        RenderPipeline.getShared().detach(stopwatchDisplay);
+        super.removeNotify();
     }
 
     /**
      * Sets up the GUI.
      */
     private void setUpGui() {
-        stopwatchTextField.setText("00:00:00");
-        stopwatchTextField.setPreferredSize(new Dimension(300, 40));
-        stopwatchTextField.setFont(new Font(Font.MONOSPACED, Font.BOLD, 20));
-        stopwatchTextField.setHorizontalAlignment(JTextField.CENTER);
-        stopwatchTextField.setEditable(false);
+        stopwatchDisplay.setPreferredSize(new Dimension(300, 40));
+
+        lapList.setFont(new Font(Font.MONOSPACED, Font.BOLD, 14));
+        lapList.setPrototypeCellValue(LapListModel.PROTOTYPE_ROW);
+        lapList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JScrollPane lapScrollPane = new JScrollPane(lapList);
+        lapScrollPane.setPreferredSize(new Dimension(300, 270));
 
-        lapTextArea.setPreferredSize(new Dimension(300, 300));
-        lapTextArea.setFont(new Font(Font.MONOSPACED, Font.BOLD, 20));
-        lapTextArea.setEditable(false);
+        lapStatisticsLabel.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
 
         JPanel buttonsPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         buttonsPanel.add(startButton);
         buttonsPanel.add(resetButton);
         buttonsPanel.add(lapButton);
 
+        JPanel resolutionPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        resolutionPanel.add(new JLabel("Resolution"));
+        resolutionPanel.add(resolutionComboBox);
+
         SpringLayout springLayout = new SpringLayout();
-        springLayout.putConstraint(SpringLayout.NORTH, stopwatchTextField, 10, SpringLayout.NORTH, this);
-        springLayout.putConstraint(SpringLayout.WEST, stopwatchTextField, 10, SpringLayout.WEST, this);
+        springLayout.putConstraint(SpringLayout.NORTH, stopwatchDisplay, 10, SpringLayout.NORTH, this);
+        springLayout.putConstraint(SpringLayout.WEST, stopwatchDisplay, 10, SpringLayout.WEST, this);
 
         springLayout.putConstraint(SpringLayout.WEST, buttonsPanel, 60, SpringLayout.WEST, this);
-        springLayout.putConstraint(SpringLayout.NORTH, buttonsPanel, 10, SpringLayout.SOUTH, stopwatchTextField);
+        springLayout.putConstraint(SpringLayout.NORTH, buttonsPanel, 10, SpringLayout.SOUTH, stopwatchDisplay);
+
+        springLayout.putConstraint(SpringLayout.WEST, resolutionPanel, 60, SpringLayout.WEST, this);
+        springLayout.putConstraint(SpringLayout.NORTH, resolutionPanel, 0, SpringLayout.SOUTH, buttonsPanel);
+
+        springLayout.putConstraint(SpringLayout.NORTH, lapScrollPane, 5, SpringLayout.SOUTH, resolutionPanel);
+        springLayout.putConstraint(SpringLayout.WEST, lapScrollPane, 10, SpringLayout.WEST, this);
 
-        springLayout.putConstraint(SpringLayout.NORTH, lapTextArea, 10, SpringLayout.SOUTH, buttonsPanel);
-        springLayout.putConstraint(SpringLayout.WEST, lapTextArea, 10, SpringLayout.WEST, this);
+        springLayout.putConstraint(SpringLayout.NORTH, lapStatisticsLabel, 5, SpringLayout.SOUTH, lapScrollPane);
+        springLayout.putConstraint(SpringLayout.WEST, lapStatisticsLabel, 10, SpringLayout.WEST, this);
 
         this.setLayout(springLayout);
-        this.add(stopwatchTextField);
+        this.add(stopwatchDisplay);
         this.add(buttonsPanel);
-        this.add(lapTextArea);
+        this.add(resolutionPanel);
+        this.add(lapScrollPane);
+        this.add(lapStatisticsLabel);
     }
 }
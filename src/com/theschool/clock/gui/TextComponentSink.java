@@ -0,0 +1,93 @@
+package com.theschool.clock.gui;
+
+import com.theschool.clock.model.TimeSink;
+import com.theschool.clock.util.TimeFormatter;
+
+import javax.swing.text.JTextComponent;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link TimeSink} that displays the time of a Timeable in a text component.
+ * <p>
+ * The sink keeps the time it receives in a lock-free slot that only holds the latest value. The
+ * {@link RenderPipeline} drains that slot into the component once per frame, on the event
+ * dispatch thread, so a Timeable ticking several times between two frames is rendered once.
+ * The time is formatted into a buffer owned by the sink, and the component is only updated when
+ * the text changes.
+ *
+ * @author Thomas Munguya
+ */
+public class TextComponentSink implements TimeSink, RenderPipeline.View {
+
+    /**
+     * Defines the value of the slot when the latest time has already been rendered.
+     */
+    private static final long RENDERED = -1;
+
+    /**
+     * Defines the component.
+     */
+    private final JTextComponent component;
+
+    /**
+     * Defines the latest time received, or {@link #RENDERED} once it has been rendered.
+     */
+    private final AtomicLong latest = new AtomicLong(RENDERED);
+
+    /**
+     * Defines the buffer the time is formatted into. It is only used on the event dispatch thread.
+     */
+    private final char[] buffer = new char[TimeFormatter.MAX_LENGTH];
+
+    /**
+     * Defines the buffer holding the text last set on the component.
+     */
+    private final char[] displayed = new char[TimeFormatter.MAX_LENGTH];
+
+    /**
+     * Defines the length of the text last set on the component, or -1 if none was set.
+     */
+    private int displayedLength = -1;
+
+    /**
+     * Constructs a {@code TextComponentSink}.
+     * @param component the component.
+     * @throws IllegalArgumentException if {@code component} is {@code null}.
+     */
+    public TextComponentSink(JTextComponent component) {
+        if(component == null) {
+            throw new IllegalArgumentException("Component argument cannot be null.");
+        }
+        this.component = component;
+    }
+
+    /**
+     * Returns the component.
+     * @return the component.
+     */
+    public JTextComponent getComponent() {
+        return component;
+    }
+
+    @Override
+    public void onTick(long nanos) {
+        latest.set(nanos);
+    }
+
+    @Override
+    public boolean render() {
+        long nanos = latest.getAndSet(RENDERED);
+        if(nanos == RENDERED) {
+            return false;
+        }
+        int length = TimeFormatter.format(nanos, 0, buffer, 0);
+        if(length == displayedLength && Arrays.equals(buffer, 0, length, displayed, 0, length)) {
+            return false;
+        }
+        System.arraycopy(buffer, 0, displayed, 0, length);
+        displayedLength = length;
+        component.setText(new String(buffer, 0, length));
+        return true;
+    }
+}
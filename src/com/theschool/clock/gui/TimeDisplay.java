@@ -0,0 +1,317 @@
+package com.theschool.clock.gui;
+
+import com.theschool.clock.model.TimeSink;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.util.TimeFormatter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lightweight component displaying the time of a Timeable, and the {@link TimeSink} feeding it.
+ * <p>
+ * Like {@link TextComponentSink}, the display keeps the latest time it receives in a lock-free
+ * slot, which the {@link RenderPipeline} drains once per frame on the event dispatch thread. The
+ * time is formatted into a row of character cells, and only the cells that changed since the
+ * previous frame are repainted: a running stopwatch repaints a single digit per second. Cells are
+ * painted by copying their glyph from a shared {@link GlyphAtlas}, so a frame involves no
+ * document, no text layout and no glyph rasterization.
+ * <p>
+ * Instead of being fed, the display can {@link #follow(Timeable) follow} a Timeable: it then reads
+ * its time once per frame, so it shows fractions of a second at the frame rate without the
+ * Timeable being ticked at all, and costs nothing unless it is attached to the pipeline, that is,
+ * shown.
+ * <p>
+ * The text is centered in the component. All methods other than {@link #onTick(long)} must be
+ * called on the event dispatch thread.
+ *
+ * @see GlyphAtlas
+ * @see RenderPipeline
+ *
+ * @author Thomas Munguya
+ */
+public class TimeDisplay extends JComponent implements TimeSink, RenderPipeline.View {
+
+    /**
+     * Defines the value of the slot when the latest time has already been rendered.
+     */
+    private static final long RENDERED = -1;
+
+    /**
+     * Defines the default font of the display.
+     */
+    private static final Font DEFAULT_FONT = new Font(Font.MONOSPACED, Font.BOLD, 20);
+
+    /**
+     * Defines the latest time received, or {@link #RENDERED} once it has been rendered.
+     */
+    private final AtomicLong latest = new AtomicLong(RENDERED);
+
+    /**
+     * Defines the buffer the time is formatted into.
+     */
+    private final char[] buffer = new char[TimeFormatter.MAX_LENGTH];
+
+    /**
+     * Defines the characters of the cells.
+     */
+    private final char[] cells = new char[TimeFormatter.MAX_LENGTH];
+
+    /**
+     * Defines the number of cells.
+     */
+    private int length;
+
+    /**
+     * Defines the number of digits of the fraction of a second shown.
+     */
+    private int fractionDigits;
+
+    /**
+     * Defines the time shown, in nanoseconds.
+     */
+    private long shownNanos;
+
+    /**
+     * Defines the Timeable whose time is read once per frame, or {@code null} if the display is fed.
+     */
+    private Timeable source;
+
+    /**
+     * Defines the size of a cell, in user space, or {@code null} until it is measured for the font.
+     */
+    private Dimension cellSize;
+
+    /**
+     * Defines the atlas the cells are painted from, or {@code null} until it is looked up for the
+     * font, colors and scale.
+     */
+    private GlyphAtlas atlas;
+
+    /**
+     * Constructs a {@code TimeDisplay} showing 00:00:00.
+     */
+    public TimeDisplay() {
+        setOpaque(true);
+        setFont(DEFAULT_FONT);
+        Color background = UIManager.getColor("TextField.inactiveBackground");
+        Color foreground = UIManager.getColor("TextField.foreground");
+        setBackground(background != null ? background : Color.WHITE);
+        setForeground(foreground != null ? foreground : Color.BLACK);
+        setBorder(UIManager.getBorder("TextField.border"));
+        length = TimeFormatter.format(0, 0, cells, 0);
+    }
+
+    @Override
+    public void onTick(long nanos) {
+        latest.set(nanos);
+    }
+
+    /**
+     * Reads the time of the Timeable followed, or takes the latest time received, and repaints the
+     * cells whose character changed since the last frame.
+     */
+    @Override
+    public boolean render() {
+        long nanos = latest.getAndSet(RENDERED);
+        if(source != null) {
+            nanos = source.getNanos();
+        }
+        else if(nanos == RENDERED) {
+            return false;
+        }
+        return show(nanos);
+    }
+
+    /**
+     * Starts reading the time of a Timeable once per frame, instead of showing the times received.
+     * <p>
+     * The Timeable does not need to be ticked for the display, so it may have a sink that ignores everything.
+     * @param timeable the Timeable, or {@code null} to show the times received again.
+     */
+    public void follow(Timeable timeable) {
+        source = timeable;
+        if(timeable != null) {
+            show(timeable.getNanos());
+        }
+    }
+
+    /**
+     * Returns the number of digits of the fraction of a second shown.
+     * @return the number of digits, zero if only whole seconds are shown.
+     */
+    public int getFractionDigits() {
+        return fractionDigits;
+    }
+
+    /**
+     * Sets the number of digits of the fraction of a second shown: 2 for hundredths, 3 for milliseconds.
+     * @param fractionDigits the number of digits, zero to show only whole seconds.
+     * @throws IllegalArgumentException if {@code fractionDigits} is not between zero and
+     * {@link TimeFormatter#MAX_FRACTION_DIGITS}.
+     */
+    public void setFractionDigits(int fractionDigits) {
+        if(fractionDigits < 0 || fractionDigits > TimeFormatter.MAX_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("Invalid value provided for fraction digits.");
+        }
+        this.fractionDigits = fractionDigits;
+        show(shownNanos);
+    }
+
+    /**
+     * Formats a time into the cells, and repaints the cells whose character changed.
+     * @param nanos the time, in nanoseconds.
+     * @return {@code true} if a cell changed, and {@code false} otherwise.
+     */
+    private boolean show(long nanos) {
+        shownNanos = nanos;
+        int newLength = TimeFormatter.format(nanos, fractionDigits, buffer, 0);
+        if(newLength != length) {
+            // the text moves when its length changes, so every cell is repainted.
+            System.arraycopy(buffer, 0, cells, 0, newLength);
+            length = newLength;
+            revalidate();
+            repaint();
+            return true;
+        }
+        int first = 0;
+        while(first < length && buffer[first] == cells[first]) {
+            first++;
+        }
+        if(first == length) {
+            return false;
+        }
+        int last = length - 1;
+        while(buffer[last] == cells[last]) {
+            last--;
+        }
+        System.arraycopy(buffer, first, cells, first, last - first + 1);
+        Rectangle dirty = getCellBounds(first);
+        dirty.width *= last - first + 1;
+        repaint(dirty);
+        return true;
+    }
+
+    /**
+     * Returns the text displayed.
+     * @return the text.
+     */
+    public String getText() {
+        return new String(cells, 0, length);
+    }
+
+    /**
+     * Returns the bounds of a cell.
+     * @param index the index of the cell.
+     * @return the bounds, relative to the component.
+     * @throws IndexOutOfBoundsException if {@code index} is not the index of a cell.
+     */
+    public Rectangle getCellBounds(int index) {
+        if(index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Invalid value provided for index.");
+        }
+        Dimension cell = getCellSize();
+        return new Rectangle(textX() + index * cell.width, textY(), cell.width, cell.height);
+    }
+
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        cellSize = null;
+        atlas = null;
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public void setForeground(Color foreground) {
+        super.setForeground(foreground);
+        atlas = null;
+        repaint();
+    }
+
+    @Override
+    public void setBackground(Color background) {
+        super.setBackground(background);
+        atlas = null;
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if(isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        Dimension cell = getCellSize();
+        Insets insets = getInsets();
+        return new Dimension(cell.width * length + insets.left + insets.right, cell.height + insets.top + insets.bottom);
+    }
+
+    /**
+     * Paints the cells within the clip, and the background around them.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if(clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        Dimension cell = getCellSize();
+        int x = textX();
+        int y = textY();
+        if(isOpaque() && !new Rectangle(x, y, cell.width * length, cell.height).contains(clip)) {
+            g.setColor(getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        }
+        int first = Math.max(0, Math.floorDiv(clip.x - x, cell.width));
+        int last = Math.min(length, Math.floorDiv(clip.x + clip.width - 1 - x, cell.width) + 1);
+        if(first < last) {
+            atlasFor(g).draw(g, cells, first, last, x + first * cell.width, y);
+        }
+    }
+
+    /**
+     * Returns the atlas the cells are painted from, looking it up if the font, colors or scale changed.
+     * @param g the graphics the cells are painted with.
+     * @return the atlas.
+     */
+    private GlyphAtlas atlasFor(Graphics g) {
+        double scale = g instanceof Graphics2D ? ((Graphics2D) g).getTransform().getScaleX() : 1;
+        if(atlas == null || !atlas.hasScale(scale)) {
+            atlas = GlyphAtlas.of(getFont(), getForeground(), getBackground(), scale, getGraphicsConfiguration());
+        }
+        return atlas;
+    }
+
+    /**
+     * Returns the size of a cell, measuring it if the font changed.
+     * @return the size, in user space.
+     */
+    private Dimension getCellSize() {
+        if(cellSize == null) {
+            cellSize = GlyphAtlas.cellSize(getFont());
+        }
+        return cellSize;
+    }
+
+    /**
+     * Returns the left of the first cell, which centers the text horizontally.
+     * @return the left, relative to the component.
+     */
+    private int textX() {
+        Insets insets = getInsets();
+        int width = getWidth() - insets.left - insets.right;
+        return insets.left + (width - getCellSize().width * length) / 2;
+    }
+
+    /**
+     * Returns the top of the cells, which centers the text vertically.
+     * @return the top, relative to the component.
+     */
+    private int textY() {
+        Insets insets = getInsets();
+        int height = getHeight() - insets.top - insets.bottom;
+        return insets.top + (height - getCellSize().height) / 2;
+    }
+}
@@ -0,0 +1,558 @@
+package com.theschool.clock.gui;
+
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.TimeableRegistry;
+import com.theschool.clock.model.Timer;
+import com.theschool.clock.util.TimeFormatter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A grid showing the id, state and time of every Timeable of a {@link TimeableRegistry}.
+ * <p>
+ * The grid is virtualized: it has no component per Timeable, and only looks at the Timeables of
+ * the rows in view. Once per frame of the {@link RenderPipeline}, it reads their time, formats it
+ * into the text cached for their cell, and repaints the union of the cells whose text or state
+ * changed as a single region. Cells are painted from {@link GlyphAtlas}es, one per state color,
+ * so painting a cell is copying a few glyphs.
+ * <p>
+ * The Timeables are ordered by id. The ids of the registry are collected every {@value #REFRESH_MILLIS}
+ * ms, and only sorted when their count or fingerprint changed, so a dashboard over a steady
+ * population does not sort it again. The time spent on the event dispatch thread per frame,
+ * rendering and painting, is measured.
+ * <p>
+ * All methods must be called on the event dispatch thread.
+ *
+ * @see DashboardGUI
+ *
+ * @author Thomas Munguya
+ */
+final class TimeableGrid extends JComponent implements Scrollable, RenderPipeline.View {
+
+    /**
+     * Defines the width of a cell, including the gap around it.
+     */
+    static final int CELL_WIDTH = 160;
+
+    /**
+     * Defines the height of a cell, including the gap around it.
+     */
+    static final int CELL_HEIGHT = 52;
+
+    /**
+     * Defines the gap between two cells.
+     */
+    private static final int GAP = 2;
+
+    /**
+     * Defines the maximum interval between two copies of the registry, in milliseconds.
+     */
+    private static final long REFRESH_MILLIS = 250;
+
+    /**
+     * Defines the number of nanoseconds in a second.
+     */
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Defines the font of the times.
+     */
+    private static final Font TIME_FONT = new Font(Font.MONOSPACED, Font.BOLD, 18);
+
+    /**
+     * Defines the font of the ids.
+     */
+    private static final Font ID_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+
+    /**
+     * Defines the colors of the cells, indexed by the ordinal of the state of their Timeable.
+     */
+    private static final Color[] STATE_COLORS = {
+            new Color(0xF2F2F2), new Color(0xDDF2DA), new Color(0xFFF1CF), new Color(0xF7D4D4)
+    };
+
+    /**
+     * Defines the maximum number of digits of an id.
+     */
+    private static final int MAX_ID_LENGTH = 19;
+
+    /**
+     * Defines the registry.
+     */
+    private final TimeableRegistry registry;
+
+    /**
+     * Defines the Timeables shown, ordered by id.
+     */
+    private Timeable[] timeables = new Timeable[0];
+
+    /**
+     * Defines the fingerprint of the ids of the Timeables shown.
+     */
+    private long fingerprint;
+
+    /**
+     * Defines the array the ids of the registry are collected into.
+     */
+    private long[] collectedIds = new long[0];
+
+    /**
+     * Defines the number of ids collected.
+     */
+    private int collectedCount;
+
+    /**
+     * Defines the {@link System#nanoTime()} mark at which the ids of the registry were last collected.
+     */
+    private long refreshedAt;
+
+    /**
+     * Defines the index of the first Timeable of the cached cells.
+     */
+    private int firstCached;
+
+    /**
+     * Defines the number of cached cells.
+     */
+    private int cachedCount;
+
+    /**
+     * Defines the Timeables of the cached cells, {@code null} when a cell has not been rendered.
+     */
+    private Timeable[] cachedTimeables = new Timeable[0];
+
+    /**
+     * Defines the ordinals of the states of the cached cells.
+     */
+    private byte[] cachedStates = new byte[0];
+
+    /**
+     * Defines the texts of the times of the cached cells, {@link TimeFormatter#MAX_LENGTH} characters per cell.
+     */
+    private char[] cachedTexts = new char[0];
+
+    /**
+     * Defines the lengths of the texts of the cached cells.
+     */
+    private int[] cachedLengths = new int[0];
+
+    /**
+     * Defines the buffer a time is formatted into, followed by an id.
+     */
+    private final char[] buffer = new char[TimeFormatter.MAX_LENGTH + MAX_ID_LENGTH];
+
+    /**
+     * Defines the atlases of the times, indexed by the ordinal of the state.
+     */
+    private final GlyphAtlas[] timeAtlases = new GlyphAtlas[STATE_COLORS.length];
+
+    /**
+     * Defines the atlases of the ids, indexed by the ordinal of the state.
+     */
+    private final GlyphAtlas[] idAtlases = new GlyphAtlas[STATE_COLORS.length];
+
+    /**
+     * Defines the scale the atlases are rendered at.
+     */
+    private double atlasScale;
+
+    /**
+     * Defines the time spent on the event dispatch thread by the current frame, in nanoseconds.
+     */
+    private long frameNanos = -1;
+
+    /**
+     * Defines the number of frames measured since the statistics were reset.
+     */
+    private long frames;
+
+    /**
+     * Defines the total time spent on the event dispatch thread by the frames measured, in nanoseconds.
+     */
+    private long totalFrameNanos;
+
+    /**
+     * Defines the longest time spent on the event dispatch thread by a frame measured, in nanoseconds.
+     */
+    private long maxFrameNanos;
+
+    /**
+     * Constructs a {@code TimeableGrid}.
+     * @param registry the registry whose Timeables are shown.
+     * @throws IllegalArgumentException if {@code registry} is {@code null}.
+     */
+    TimeableGrid(TimeableRegistry registry) {
+        if(registry == null) {
+            throw new IllegalArgumentException("Registry argument cannot be null.");
+        }
+        this.registry = registry;
+        setOpaque(true);
+        setBackground(Color.WHITE);
+    }
+
+    /**
+     * Returns the number of Timeables shown.
+     * @return the number of Timeables.
+     */
+    int getTimeableCount() {
+        return timeables.length;
+    }
+
+    /**
+     * Returns the mean time spent on the event dispatch thread per frame since the statistics were reset.
+     * @return the time, in nanoseconds.
+     */
+    long getMeanFrameNanos() {
+        return frames == 0 ? 0 : totalFrameNanos / frames;
+    }
+
+    /**
+     * Returns the longest time spent on the event dispatch thread by a frame since the statistics were reset.
+     * @return the time, in nanoseconds.
+     */
+    long getMaxFrameNanos() {
+        return maxFrameNanos;
+    }
+
+    /**
+     * Resets the statistics of the frames.
+     */
+    void resetFrameStatistics() {
+        frames = 0;
+        totalFrameNanos = 0;
+        maxFrameNanos = 0;
+    }
+
+    /**
+     * Copies the registry if it changed, reads the time of the Timeables in view, and repaints the
+     * cells whose text or state changed.
+     */
+    @Override
+    public boolean render() {
+        long start = System.nanoTime();
+        endFrame();
+        if(start - refreshedAt >= TimeUnit.MILLISECONDS.toNanos(REFRESH_MILLIS)) {
+            refresh(start);
+        }
+
+        int columns = getColumns();
+        Rectangle visible = getVisibleRect();
+        int first = Math.min(timeables.length, visible.y / CELL_HEIGHT * columns);
+        int last = Math.min(timeables.length, ((visible.y + visible.height - 1) / CELL_HEIGHT + 1) * columns);
+        if(first != firstCached || last - first != cachedCount) {
+            cache(first, last - first);
+        }
+
+        int dirtyFirst = -1;
+        int dirtyLast = -1;
+        for(int i = 0; i < cachedCount; i++) {
+            if(renderCell(i)) {
+                if(dirtyFirst < 0) {
+                    dirtyFirst = i;
+                }
+                dirtyLast = i;
+            }
+        }
+        if(dirtyFirst >= 0) {
+            repaintCells(firstCached + dirtyFirst, firstCached + dirtyLast);
+        }
+        frameNanos = System.nanoTime() - start;
+        return dirtyFirst >= 0;
+    }
+
+    /**
+     * Paints the cells within the clip.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        Rectangle clip = g.getClipBounds();
+        if(clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        lookUpAtlases(g);
+
+        int columns = getColumns();
+        int firstRow = clip.y / CELL_HEIGHT;
+        int lastRow = (clip.y + clip.height - 1) / CELL_HEIGHT;
+        int firstColumn = Math.min(columns - 1, clip.x / CELL_WIDTH);
+        int lastColumn = Math.min(columns - 1, (clip.x + clip.width - 1) / CELL_WIDTH);
+        for(int row = firstRow; row <= lastRow; row++) {
+            for(int column = firstColumn; column <= lastColumn; column++) {
+                int index = row * columns + column;
+                if(index >= timeables.length) {
+                    break;
+                }
+                paintCell(g, index, column * CELL_WIDTH, row * CELL_HEIGHT);
+            }
+        }
+        if(frameNanos >= 0) {
+            frameNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int columns = getColumns();
+        int rows = (timeables.length + columns - 1) / columns;
+        return new Dimension(columns * CELL_WIDTH, Math.max(rows, 1) * CELL_HEIGHT);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(6 * CELL_WIDTH, 12 * CELL_HEIGHT);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? CELL_HEIGHT : CELL_WIDTH;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL
+                ? Math.max(CELL_HEIGHT, visibleRect.height / CELL_HEIGHT * CELL_HEIGHT)
+                : visibleRect.width;
+    }
+
+    /**
+     * Returns {@code true}: the cells wrap to the width of the viewport.
+     */
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * Returns the number of columns of the grid, which fill the width of the component.
+     * @return the number of columns, at least one.
+     */
+    private int getColumns() {
+        Container parent = getParent();
+        int width = parent instanceof JViewport ? parent.getWidth() : getWidth();
+        return Math.max(1, width / CELL_WIDTH);
+    }
+
+    /**
+     * Collects the ids of the registry, and if they changed, looks up their Timeables ordered by id.
+     * @param now the {@link System#nanoTime()} instant.
+     */
+    private void refresh(long now) {
+        refreshedAt = now;
+        int size = registry.size();
+        if(collectedIds.length < size) {
+            collectedIds = new long[size + (size >> 3)];
+        }
+        collectedCount = 0;
+        registry.forEach(this::collect);
+        long collectedFingerprint = 0;
+        for(int i = 0; i < collectedCount; i++) {
+            collectedFingerprint += mix(collectedIds[i]);
+        }
+        if(collectedCount == timeables.length && collectedFingerprint == fingerprint) {
+            return;
+        }
+
+        // sorting the primitive ids and looking their Timeables up is several times faster than sorting the Timeables.
+        Arrays.sort(collectedIds, 0, collectedCount);
+        Timeable[] refreshed = new Timeable[collectedCount];
+        int count = 0;
+        for(int i = 0; i < collectedCount; i++) {
+            Timeable timeable = registry.get(collectedIds[i]);
+            if(timeable != null) {
+                refreshed[count++] = timeable;
+            }
+        }
+        boolean resized = count != timeables.length;
+        timeables = count == refreshed.length ? refreshed : Arrays.copyOf(refreshed, count);
+        fingerprint = collectedFingerprint;
+        cachedCount = 0;
+        if(resized) {
+            revalidate();
+        }
+        repaint();
+    }
+
+    /**
+     * Collects the id of a Timeable of the registry, unless the registry grew since it was sized.
+     * @param timeable the Timeable.
+     */
+    private void collect(Timeable timeable) {
+        if(collectedCount < collectedIds.length) {
+            collectedIds[collectedCount++] = timeable.getId();
+        }
+    }
+
+    /**
+     * Scrambles an id, so that the sum of the scrambled ids of a set is unlikely to be the sum of another set.
+     * @param id the id.
+     * @return the scrambled id.
+     */
+    private static long mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Starts caching the cells of a range of Timeables, the ones in view.
+     * @param first the index of the first Timeable.
+     * @param count the number of Timeables.
+     */
+    private void cache(int first, int count) {
+        if(cachedTimeables.length < count) {
+            cachedTimeables = new Timeable[count];
+            cachedStates = new byte[count];
+            cachedTexts = new char[count * TimeFormatter.MAX_LENGTH];
+            cachedLengths = new int[count];
+        }
+        Arrays.fill(cachedTimeables, null);
+        firstCached = first;
+        cachedCount = count;
+    }
+
+    /**
+     * Formats the time of a cached cell, and tells whether it changed since it was last rendered.
+     * @param slot the index of the cell among the cached cells.
+     * @return {@code true} if the text or state of the cell changed, and {@code false} otherwise.
+     */
+    private boolean renderCell(int slot) {
+        Timeable timeable = timeables[firstCached + slot];
+        byte state = (byte) timeable.getState().ordinal();
+        int length = TimeFormatter.format(displayedNanos(timeable), 0, buffer, 0);
+        int offset = slot * TimeFormatter.MAX_LENGTH;
+        if(cachedTimeables[slot] == timeable && cachedStates[slot] == state && cachedLengths[slot] == length
+                && Arrays.equals(buffer, 0, length, cachedTexts, offset, offset + length)) {
+            return false;
+        }
+        cachedTimeables[slot] = timeable;
+        cachedStates[slot] = state;
+        cachedLengths[slot] = length;
+        System.arraycopy(buffer, 0, cachedTexts, offset, length);
+        return true;
+    }
+
+    /**
+     * Repaints the cells of a range of Timeables as one region.
+     * @param first the index of the first Timeable.
+     * @param last the index of the last Timeable.
+     */
+    private void repaintCells(int first, int last) {
+        int columns = getColumns();
+        int firstRow = first / columns;
+        int lastRow = last / columns;
+        if(firstRow == lastRow) {
+            repaint((first % columns) * CELL_WIDTH, firstRow * CELL_HEIGHT, (last - first + 1) * CELL_WIDTH, CELL_HEIGHT);
+        }
+        else {
+            repaint(0, firstRow * CELL_HEIGHT, columns * CELL_WIDTH, (lastRow - firstRow + 1) * CELL_HEIGHT);
+        }
+    }
+
+    /**
+     * Paints a cell.
+     * @param g the graphics.
+     * @param index the index of the Timeable of the cell.
+     * @param x the left of the cell.
+     * @param y the top of the cell.
+     */
+    private void paintCell(Graphics g, int index, int x, int y) {
+        int slot = index - firstCached;
+        int state;
+        char[] text;
+        int offset;
+        int length;
+        if(slot >= 0 && slot < cachedCount && cachedTimeables[slot] != null) {
+            state = cachedStates[slot];
+            text = cachedTexts;
+            offset = slot * TimeFormatter.MAX_LENGTH;
+            length = cachedLengths[slot];
+        }
+        else {
+            Timeable timeable = timeables[index];
+            state = timeable.getState().ordinal();
+            text = buffer;
+            offset = 0;
+            length = TimeFormatter.format(displayedNanos(timeable), 0, buffer, 0);
+        }
+        g.setColor(STATE_COLORS[state]);
+        g.fillRect(x + GAP, y + GAP, CELL_WIDTH - 2 * GAP, CELL_HEIGHT - 2 * GAP);
+
+        GlyphAtlas timeAtlas = timeAtlases[state];
+        timeAtlas.draw(g, text, offset, offset + length,
+                x + (CELL_WIDTH - length * timeAtlas.cellWidth) / 2, y + CELL_HEIGHT - GAP - 4 - timeAtlas.cellHeight);
+
+        // the time may have been formatted into the buffer: the id goes after it.
+        int idLength = formatId(timeables[index].getId(), buffer, TimeFormatter.MAX_LENGTH);
+        idAtlases[state].draw(g, buffer, TimeFormatter.MAX_LENGTH, TimeFormatter.MAX_LENGTH + idLength, x + GAP + 4, y + GAP + 2);
+    }
+
+    /**
+     * Returns the time displayed for a Timeable: the elapsed time of a stopwatch, and the remaining
+     * time of a timer rounded up to the whole second, the way a countdown is displayed.
+     * @param timeable the Timeable.
+     * @return the time, in nanoseconds.
+     */
+    private static long displayedNanos(Timeable timeable) {
+        long nanos = timeable.getNanos();
+        return timeable instanceof Timer ? (nanos + SECOND - 1) / SECOND * SECOND : nanos;
+    }
+
+    /**
+     * Formats an id into a char array.
+     * @param id the id, greater than zero.
+     * @param destination the array.
+     * @param offset the index at which the first digit is written.
+     * @return the number of digits written.
+     */
+    private static int formatId(long id, char[] destination, int offset) {
+        int digits = 1;
+        for(long rest = id / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for(int i = offset + digits - 1; i >= offset; i--) {
+            destination[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        return digits;
+    }
+
+    /**
+     * Looks up the atlases the cells are painted from, if the scale changed.
+     * @param g the graphics the cells are painted with.
+     */
+    private void lookUpAtlases(Graphics g) {
+        double scale = g instanceof Graphics2D ? ((Graphics2D) g).getTransform().getScaleX() : 1;
+        if(timeAtlases[0] != null && atlasScale == scale) {
+            return;
+        }
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        for(int i = 0; i < STATE_COLORS.length; i++) {
+            timeAtlases[i] = GlyphAtlas.of(TIME_FONT, Color.BLACK, STATE_COLORS[i], scale, configuration);
+            idAtlases[i] = GlyphAtlas.of(ID_FONT, Color.DARK_GRAY, STATE_COLORS[i], scale, configuration);
+        }
+        atlasScale = scale;
+    }
+
+    /**
+     * Records the time spent on the event dispatch thread by the frame that ended.
+     */
+    private void endFrame() {
+        if(frameNanos < 0) {
+            return;
+        }
+        frames++;
+        totalFrameNanos += frameNanos;
+        maxFrameNanos = Math.max(maxFrameNanos, frameNanos);
+        frameNanos = -1;
+    }
+}
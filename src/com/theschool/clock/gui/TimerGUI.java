@@ -1,7 +1,10 @@
 package com.theschool.clock.gui;
 
 import com.theschool.clock.model.Time;
+import com.theschool.clock.model.TimeSink;
+import com.theschool.clock.model.TimeSinks;
 import com.theschool.clock.model.Timer;
+import com.theschool.clock.model.TimerListener;
 import com.theschool.clock.util.Constants;
 import javax.swing.*;
 import javax.swing.event.*;
@@ -42,30 +45,49 @@ public class TimerGUI extends Container {
     /**
      * Defines underlying timer of the timer user interface.
      */
-    private Timer timer;
+    private volatile Timer timer;
 
     /**
-     * Defines the timer text field.
+     * Defines the display of the time of the timer, which is also the sink that feeds it.
      */
-    private final JTextField timerTextField;
+    private final TimeDisplay timerDisplay;
 
     /**
-     * Defines the timer thread.
+     * Defines the sink that receives the output of the timer besides the display, such as a journal.
      */
-    private static Thread timerThread;
+    private final TimeSink sessionSink;
+
+    /**
+     * Defines the listener that resets the start button when the timer expires.
+     */
+    private final TimerListener expiryListener;
 
     /**
      * Constructs a {@code TimerGUI}.
      */
     public TimerGUI() {
+        this(TimeSinks.noOp());
+    }
+
+    /**
+     * Constructs a {@code TimerGUI} whose timers also hand their output to the provided sink.
+     * @param sessionSink the sink, such as a journal.
+     * @throws IllegalArgumentException if {@code sessionSink} is {@code null}.
+     */
+    public TimerGUI(TimeSink sessionSink) {
+        if(sessionSink == null) {
+            throw new IllegalArgumentException("Session sink argument cannot be null.");
+        }
+        this.sessionSink = sessionSink;
         timer = new Timer();
         this.startButton = new JButton(Constants.START);
         this.startButton.setEnabled(false);
+        this.expiryListener = (t) -> SwingUtilities.invokeLater(() -> startButton.setText(Constants.START));
         this.resetButton = new JButton(Constants.RESET);
         this.hoursTextField = new JTextField();
         this.minutesTextField = new JTextField();
         this.secondsTextField = new JTextField();
-        this.timerTextField = new JTextField();
+        this.timerDisplay = new TimeDisplay();
         
         registerButtonEventListeners();
         registerTimeTextFieldsEventListeners();
@@ -89,7 +111,6 @@ public class TimerGUI extends Container {
 
         resetButton.addActionListener((e) -> {
             timer.reset();
-            timer.setRunning(false);
             startButton.setText(Constants.START);
         });
     }
@@ -108,10 +129,7 @@ public class TimerGUI extends Container {
      * Sets up the GUI.
      */
     private void setupGui() {
-        timerTextField.setPreferredSize(new Dimension(310, 40));
-        timerTextField.setFont(new Font(Font.MONOSPACED, Font.BOLD, 20));
-        timerTextField.setHorizontalAlignment(JTextField.CENTER);
-        timerTextField.setEditable(false);
+        timerDisplay.setPreferredSize(new Dimension(310, 40));
 
         hoursTextField.setText("0");
         hoursTextField.setFont(new Font(Font.MONOSPACED, Font.BOLD, 20));
@@ -157,17 +175,35 @@ public class TimerGUI extends Container {
 
         springLayout.putConstraint(SpringLayout.WEST, mainJPanel, 10, SpringLayout.WEST, this);
         springLayout.putConstraint(SpringLayout.NORTH, mainJPanel, 10, SpringLayout.NORTH, this);
-        springLayout.putConstraint(SpringLayout.NORTH, timerTextField, 10, SpringLayout.SOUTH, mainJPanel);
-        springLayout.putConstraint(SpringLayout.WEST, timerTextField, 10, SpringLayout.WEST, this);
+        springLayout.putConstraint(SpringLayout.NORTH, timerDisplay, 10, SpringLayout.SOUTH, mainJPanel);
+        springLayout.putConstraint(SpringLayout.WEST, timerDisplay, 10, SpringLayout.WEST, this);
 
-        springLayout.putConstraint(SpringLayout.NORTH, buttonsPanel, 10, SpringLayout.SOUTH, timerTextField);
+        springLayout.putConstraint(SpringLayout.NORTH, buttonsPanel, 10, SpringLayout.SOUTH, timerDisplay);
         springLayout.putConstraint(SpringLayout.WEST, buttonsPanel, 90, SpringLayout.WEST, this);
 
         this.add(mainJPanel);
-        this.add(timerTextField);
+        this.add(timerDisplay);
         this.add(buttonsPanel);
     }
 
+    /**
+     * Starts rendering the timer once the GUI is added to a window.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        RenderPipeline.getShared().attach(timerDisplay);
+    }
+
+    /**
+     * Stops rendering the timer once the GUI is removed from its window.
+     */
+    @Override
+    public void removeNotify() {
+        RenderPipeline.getShared().detach(timerDisplay);
+        super.removeNotify();
+    }
+
     /**
      * Starts the timer.
      */
@@ -180,35 +216,54 @@ public class TimerGUI extends Container {
             startButton.setText(Constants.PAUSE);
         }
 
-        timer = new Timer(new Time(hours, minutes, seconds), true, timerTextField);
+        timer.removeTimerListener(expiryListener);
+        timer = new Timer(new Time(hours, minutes, seconds), false, TimeSinks.compose(timerDisplay, sessionSink));
+        timer.addTimerListener(expiryListener);
+        timer.start();
+    }
 
-        // if the thread has not been initialized or its in a terminated state...
-        if(timerThread == null || timerThread.getState().equals(Thread.State.TERMINATED)) {
-            // then create a new thread.
-            timerThread = new Thread(timer);
-        }
+    /**
+     * Returns the underlying timer of the user interface.
+     * @return the timer.
+     */
+    public Timer getTimer() {
+        return timer;
+    }
 
-        timerThread.start();
+    /**
+     * Shows a timer that already exists, such as one restored from a journal, in whatever state it is.
+     * @param restored the timer.
+     * @throws IllegalArgumentException if {@code restored} is {@code null}.
+     */
+    public void restore(Timer restored) {
+        if(restored == null) {
+            throw new IllegalArgumentException("Timer argument cannot be null.");
+        }
+        timer.removeTimerListener(expiryListener);
+        timer = restored;
+        timer.setTimeSink(TimeSinks.compose(timerDisplay, sessionSink));
+        timer.addTimerListener(expiryListener);
+        timerDisplay.onTick(timer.getRemainingNanos());
+        switch(timer.getState()) {
+            case RUNNING -> startButton.setText(Constants.PAUSE);
+            case PAUSED -> startButton.setText(Constants.RESUME);
+            default -> startButton.setText(Constants.START);
+        }
+        startButton.setEnabled(true);
     }
 
     /**
      * Pauses the timer.
      */
     private void pauseTimer() {
-        startButton.setText(Constants.RESUME);
-        timer.setRunning(false);
+        startButton.setText(timer.pause() ? Constants.RESUME : Constants.START);
     }
 
     /**
      * Resumes the timer.
      */
     private void resumeTimer() {
-        startButton.setText(Constants.PAUSE);
-        timer.setRunning(true);
-        if(timerThread.getState().equals(Thread.State.TERMINATED)) {
-            timerThread = new Thread(timer);
-            timerThread.start();
-        }
+        startButton.setText(timer.resume() ? Constants.PAUSE : Constants.START);
     }
 
     /**
@@ -0,0 +1,63 @@
+package com.theschool.clock.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event recording a frame of a render pipeline: the views it visited, the
+ * ones it updated, and the time it took on the event dispatch thread.
+ * <p>
+ * The event is enabled by default, with a threshold of {@value #DEFAULT_THRESHOLD}, half a frame:
+ * a recording only keeps the frames slow enough to make the user interface stutter. The paint of
+ * the regions the views asked to repaint follows the frame on the event dispatch thread, and is
+ * not part of it.
+ *
+ * @author Thomas Munguya
+ */
+@Name(RenderFrameEvent.NAME)
+@Label("Render Frame")
+@Description("A frame of a render pipeline, which updated the views that changed on the event dispatch thread")
+@Category({"Clock", "Rendering"})
+@Enabled(true)
+@Threshold(RenderFrameEvent.DEFAULT_THRESHOLD)
+@StackTrace(false)
+public final class RenderFrameEvent extends Event {
+
+    /**
+     * Defines the name of the event.
+     */
+    public static final String NAME = "com.theschool.clock.RenderFrame";
+
+    /**
+     * Defines the default threshold of the event.
+     */
+    public static final String DEFAULT_THRESHOLD = "8 ms";
+
+    /**
+     * Defines the number of views visited.
+     */
+    @Label("Views Visited")
+    private int visited;
+
+    /**
+     * Defines the number of views updated, which asked to be repainted.
+     */
+    @Label("Views Repainted")
+    private int repainted;
+
+    /**
+     * Sets what the frame did, before the event is committed.
+     * @param visited the number of views visited.
+     * @param repainted the number of views updated, which asked to be repainted.
+     */
+    public void set(int visited, int repainted) {
+        this.visited = visited;
+        this.repainted = repainted;
+    }
+}
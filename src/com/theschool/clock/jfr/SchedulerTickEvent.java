@@ -0,0 +1,78 @@
+package com.theschool.clock.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event recording a tick of the wheel of a scheduler: the Timeables it
+ * ticked, the timers that expired, and how long it took.
+ * <p>
+ * The event is enabled by default, with a threshold of {@value #DEFAULT_THRESHOLD}: a recording
+ * only keeps the ticks slow enough to delay the next ones, which are the ones to line up with
+ * garbage collections and safepoints.
+ *
+ * @author Thomas Munguya
+ */
+@Name(SchedulerTickEvent.NAME)
+@Label("Scheduler Tick")
+@Description("A tick of the wheel of a tick scheduler, which ticked a batch of stopwatches and timers")
+@Category({"Clock", "Scheduler"})
+@Enabled(true)
+@Threshold(SchedulerTickEvent.DEFAULT_THRESHOLD)
+@StackTrace(false)
+public final class SchedulerTickEvent extends Event {
+
+    /**
+     * Defines the name of the event.
+     */
+    public static final String NAME = "com.theschool.clock.SchedulerTick";
+
+    /**
+     * Defines the default threshold of the event.
+     */
+    public static final String DEFAULT_THRESHOLD = "1 ms";
+
+    /**
+     * Defines the tick of the wheel.
+     */
+    @Label("Tick")
+    private long tick;
+
+    /**
+     * Defines the number of Timeables ticked.
+     */
+    @Label("Timeables Ticked")
+    private int ticked;
+
+    /**
+     * Defines the number of timers that expired.
+     */
+    @Label("Timers Expired")
+    private int expired;
+
+    /**
+     * Defines the number of registrations, pauses and cancellations applied before the tick.
+     */
+    @Label("Operations Applied")
+    private int operations;
+
+    /**
+     * Sets what the tick did, before the event is committed.
+     * @param tick the tick of the wheel.
+     * @param ticked the number of Timeables ticked.
+     * @param expired the number of timers that expired.
+     * @param operations the number of registrations, pauses and cancellations applied before the tick.
+     */
+    public void set(long tick, int ticked, int expired, int operations) {
+        this.tick = tick;
+        this.ticked = ticked;
+        this.expired = expired;
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,74 @@
+package com.theschool.clock.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event recording a change of state of a Timeable: a start, pause, resume,
+ * reset or expiry.
+ * <p>
+ * The event is instant and enabled by default. Nothing is allocated or read unless a recording
+ * takes it, so a change of state costs a single check while no recording is running.
+ *
+ * @author Thomas Munguya
+ */
+@Name(TransitionEvent.NAME)
+@Label("Timeable Transition")
+@Description("A stopwatch or timer changed state")
+@Category({"Clock", "Timeable"})
+@Enabled(true)
+@StackTrace(false)
+public final class TransitionEvent extends Event {
+
+    /**
+     * Defines the name of the event.
+     */
+    public static final String NAME = "com.theschool.clock.Transition";
+
+    /**
+     * Defines the id of the Timeable.
+     */
+    @Label("Id")
+    private long id;
+
+    /**
+     * Defines the class of the Timeable.
+     */
+    @Label("Type")
+    private Class<?> type;
+
+    /**
+     * Defines the state before the change.
+     */
+    @Label("Previous State")
+    private String previousState;
+
+    /**
+     * Defines the state after the change.
+     */
+    @Label("State")
+    private String state;
+
+    /**
+     * Records a change of state, if a recording takes this event.
+     * @param id the id of the Timeable.
+     * @param type the class of the Timeable.
+     * @param previousState the name of the state before the change.
+     * @param state the name of the state after the change.
+     */
+    public static void emit(long id, Class<?> type, String previousState, String state) {
+        TransitionEvent event = new TransitionEvent();
+        if(event.shouldCommit()) {
+            event.id = id;
+            event.type = type;
+            event.previousState = previousState;
+            event.state = state;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.theschool.clock.model;
+
+import com.theschool.clock.util.TimeFormatter;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link TimeSink} that logs what it receives in batches.
+ * <p>
+ * Ticks are buffered in a primitive array and written to the logger as a single record once the
+ * batch is full, or when a change of state is received. The buffer is only formatted when it is
+ * flushed, so a tick costs an array store.
+ *
+ * @author Thomas Munguya
+ */
+public class BatchingLogTimeSink implements TimeSink {
+
+    /**
+     * Defines the logger.
+     */
+    private final Logger logger;
+
+    /**
+     * Defines the level at which records are logged.
+     */
+    private final Level level;
+
+    /**
+     * Defines the buffered ticks, in nanoseconds.
+     */
+    private final long[] batch;
+
+    /**
+     * Defines the number of buffered ticks.
+     */
+    private int size;
+
+    /**
+     * Constructs a {@code BatchingLogTimeSink}.
+     * @param logger the logger.
+     * @param level the level at which records are logged.
+     * @param batchSize the number of ticks logged per record.
+     * @throws IllegalArgumentException if {@code logger} or {@code level} is {@code null}, or if
+     * {@code batchSize} is not greater than zero.
+     */
+    public BatchingLogTimeSink(Logger logger, Level level, int batchSize) {
+        if(logger == null || level == null) {
+            throw new IllegalArgumentException("Logger and level arguments cannot be null.");
+        }
+        if(batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than zero.");
+        }
+        this.logger = logger;
+        this.level = level;
+        this.batch = new long[batchSize];
+    }
+
+    @Override
+    public synchronized void onTick(long nanos) {
+        batch[size++] = nanos;
+        if(size == batch.length) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void onStateChanged(Timeable source, Timeable.State previous, Timeable.State current) {
+        flush();
+        if(logger.isLoggable(level)) {
+            logger.log(level, source.getClass().getSimpleName() + " " + previous + " -> " + current);
+        }
+    }
+
+    /**
+     * Logs the buffered ticks, if any.
+     */
+    public synchronized void flush() {
+        if(size == 0) {
+            return;
+        }
+        if(logger.isLoggable(level)) {
+            StringBuilder record = new StringBuilder("ticks:");
+            for(int i = 0; i < size; i++) {
+                TimeFormatter.append(batch[i], 0, record.append(' '));
+            }
+            logger.log(level, record.toString());
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.theschool.clock.model;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Helper class containing the executors that {@link ExpiryBatchListener}s are commonly called on.
+ *
+ * @see TickScheduler#addExpiryBatchListener(ExpiryBatchListener, Executor)
+ *
+ * @author Thomas Munguya
+ */
+public final class DispatchExecutors {
+    private DispatchExecutors() {}
+
+    /**
+     * Defines the executor that runs tasks on the thread that submits them.
+     */
+    private static final Executor SAME_THREAD = Runnable::run;
+
+    /**
+     * Returns an executor that runs tasks on the thread that submits them.
+     * <p>
+     * A listener called on this executor runs on the scheduler thread, so it delays the ticks of
+     * every Timeable of the scheduler for as long as it runs. It must be quick.
+     * @return the executor.
+     */
+    public static Executor sameThread() {
+        return SAME_THREAD;
+    }
+
+    /**
+     * Returns an executor that runs tasks on the common fork-join pool.
+     * @return the executor.
+     */
+    public static Executor forkJoinPool() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread.
+     * @return the executor.
+     * @throws UnsupportedOperationException if the runtime does not support virtual threads.
+     * @see ExecutionStrategy#isVirtualThreadSupported()
+     */
+    public static Executor virtualThreads() {
+        Executor executor = VirtualHolder.VIRTUAL;
+        if(executor == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this runtime.");
+        }
+        return executor;
+    }
+
+    /**
+     * Lazily looks up the virtual thread executor of the runtime.
+     * <p>
+     * Virtual threads are looked up reflectively so that the application still builds and runs on
+     * runtimes without them.
+     */
+    private static final class VirtualHolder {
+        /**
+         * The executor that uses virtual threads, or {@code null} if they are not supported.
+         */
+        static final ExecutorService VIRTUAL = lookUp();
+
+        /**
+         * Looks up the virtual thread executor.
+         * @return the executor that uses virtual threads, or {@code null} if they are not supported.
+         */
+        private static ExecutorService lookUp() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
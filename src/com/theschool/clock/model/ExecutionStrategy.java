@@ -0,0 +1,90 @@
+package com.theschool.clock.model;
+
+import com.theschool.clock.util.LatencyHistogram;
+
+/**
+ * Defines how the ticks of a {@link Timeable} are driven.
+ * <p>
+ * A Timeable can be driven by a platform thread of its own, by a virtual thread of its own, or by
+ * a {@link TickScheduler} shared with other Timeables. Callers choose a strategy with
+ * {@link Timeable#setExecutionStrategy(ExecutionStrategy)} and then use {@link Timeable#start()}
+ * and {@link Timeable#pause()}, whatever the strategy.
+ *
+ * @see Timeable
+ * @see TickScheduler
+ *
+ * @author Thomas Munguya
+ */
+public interface ExecutionStrategy {
+
+    /**
+     * Starts driving the ticks of a running Timeable.
+     * @param timeable the Timeable.
+     */
+    void start(Timeable timeable);
+
+    /**
+     * Stops driving the ticks of a Timeable.
+     * @param timeable the Timeable.
+     */
+    void stop(Timeable timeable);
+
+    /**
+     * Returns the histogram of how late the ticks driven by this strategy run after they are due.
+     * @return the histogram, in nanoseconds.
+     */
+    LatencyHistogram getTickLag();
+
+    /**
+     * Returns the histogram of how late the timers driven by this strategy expire after their deadline.
+     * @return the histogram, in nanoseconds.
+     */
+    LatencyHistogram getExpiryLatency();
+
+    /**
+     * Returns a strategy that drives each Timeable with a platform thread of its own.
+     * @return the strategy.
+     */
+    static ExecutionStrategy platformThreads() {
+        return ThreadExecutionStrategy.PLATFORM;
+    }
+
+    /**
+     * Returns a strategy that drives each Timeable with a virtual thread of its own.
+     * @return the strategy.
+     * @throws UnsupportedOperationException if the runtime does not support virtual threads.
+     */
+    static ExecutionStrategy virtualThreads() {
+        return ThreadExecutionStrategy.virtual();
+    }
+
+    /**
+     * Returns whether the runtime supports virtual threads.
+     * @return {@code true} if {@link #virtualThreads()} can be used, and {@code false} otherwise.
+     */
+    static boolean isVirtualThreadSupported() {
+        return ThreadExecutionStrategy.isVirtualSupported();
+    }
+
+    /**
+     * Returns a strategy that drives Timeables with the provided scheduler.
+     * @param scheduler the scheduler.
+     * @return the strategy.
+     * @throws IllegalArgumentException if {@code scheduler} is {@code null}.
+     */
+    static ExecutionStrategy scheduler(TickScheduler scheduler) {
+        if(scheduler == null) {
+            throw new IllegalArgumentException("Scheduler argument cannot be null.");
+        }
+        return new SchedulerExecutionStrategy(scheduler);
+    }
+
+    /**
+     * Returns a strategy that drives Timeables with the shared scheduler. This is the default strategy.
+     * @return the strategy.
+     * @see TickScheduler#getShared()
+     */
+    static ExecutionStrategy sharedScheduler() {
+        return SchedulerExecutionStrategy.SHARED;
+    }
+}
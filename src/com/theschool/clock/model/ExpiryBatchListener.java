@@ -0,0 +1,25 @@
+package com.theschool.clock.model;
+
+import java.util.EventListener;
+
+/**
+ * The listener interface for receiving the timers that expire on a {@link TickScheduler}, in batches.
+ * <p>
+ * Rather than being called once per timer, the listener is called once per tick of the scheduler
+ * with the ids of all the timers that expired during that tick, on the executor it was added with.
+ *
+ * @see TickScheduler#addExpiryBatchListener(ExpiryBatchListener, java.util.concurrent.Executor)
+ * @see DispatchExecutors
+ *
+ * @author Thomas Munguya
+ */
+@FunctionalInterface
+public interface ExpiryBatchListener extends EventListener {
+
+    /**
+     * Invoked with the timers that expired during a tick of the scheduler.
+     * @param ids the ids of the timers, in the order they expired. The array is shared by all the
+     * listeners of the scheduler, so it must not be modified.
+     */
+    void timersExpired(long[] ids);
+}
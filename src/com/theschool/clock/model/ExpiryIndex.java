@@ -0,0 +1,469 @@
+package com.theschool.clock.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Orders running {@link Timer}s by deadline, so that the next ones to expire can be found without
+ * looking at all of them.
+ * <p>
+ * The index is a 4-ary min-heap of deadlines, kept in a {@code long[]} parallel to the array of
+ * timers, with a map from the id of each timer to its position in the heap. Adding, rescheduling
+ * and removing a timer take O(log n) time. Looking at the next {@code n} timers takes
+ * O(n log n) time, and counting the timers that expire within a window takes time proportional
+ * to their number, whatever the size of the index.
+ * <p>
+ * The index is kept up to date by {@link #update(Timer)}, which reads the current state of the
+ * timer, so it can be called in any order from any thread. The sink returned by {@link #sink()}
+ * calls it on every change of state of a timer: composed into the sink of a timer, it keeps the
+ * timer in the index while it runs. Changing the time of a running timer does not change its
+ * state, so the index must be told about it explicitly.
+ *
+ * @see Timer#getDeadline()
+ *
+ * @author Thomas Munguya
+ */
+public final class ExpiryIndex {
+
+    /**
+     * Defines the number of children of a node of the heap.
+     */
+    private static final int ARITY = 4;
+
+    /**
+     * Defines the initial capacity of the heap.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Defines the timers of the heap.
+     */
+    private Timer[] timers = new Timer[INITIAL_CAPACITY];
+
+    /**
+     * Defines the deadlines of the timers of the heap, at the same positions.
+     */
+    private long[] deadlines = new long[INITIAL_CAPACITY];
+
+    /**
+     * Defines the number of timers in the heap.
+     */
+    private int size;
+
+    /**
+     * Defines the positions of the timers in the heap, by id.
+     */
+    private final Positions positions = new Positions();
+
+    /**
+     * Defines the sink that updates this index on every change of state of a timer.
+     */
+    private final TimeSink sink = new TimeSink() {
+        @Override
+        public void onTick(long nanos) {
+        }
+
+        @Override
+        public boolean wantsTicks() {
+            return false;
+        }
+
+        @Override
+        public void onStateChanged(Timeable source, Timeable.State previous, Timeable.State current) {
+            if(source instanceof Timer) {
+                update((Timer) source);
+            }
+        }
+    };
+
+    /**
+     * Returns the sink that updates this index on every change of state of a timer, to be composed
+     * into the sinks of the timers.
+     * @return the sink.
+     * @see TimeSinks#compose(TimeSink...)
+     */
+    public TimeSink sink() {
+        return sink;
+    }
+
+    /**
+     * Adds a timer to the index, moves it to its current deadline, or removes it, depending on
+     * whether it is running.
+     * @param timer the timer.
+     * @throws IllegalArgumentException if {@code timer} is {@code null}.
+     */
+    public synchronized void update(Timer timer) {
+        if(timer == null) {
+            throw new IllegalArgumentException("Timer argument cannot be null.");
+        }
+        // the deadline is read under the lock, so the last update applies the latest state.
+        long deadline = timer.getDeadline();
+        int index = positions.get(timer.getId());
+        if(deadline == Timer.NO_DEADLINE) {
+            if(index >= 0) {
+                removeAt(index);
+            }
+            return;
+        }
+        if(index < 0) {
+            if(size == timers.length) {
+                timers = Arrays.copyOf(timers, size << 1);
+                deadlines = Arrays.copyOf(deadlines, size << 1);
+            }
+            index = size++;
+            timers[index] = timer;
+        }
+        deadlines[index] = deadline;
+        siftDown(siftUp(index));
+    }
+
+    /**
+     * Removes a timer from the index.
+     * @param id the id of the timer.
+     * @return {@code true} if the timer was in the index, and {@code false} otherwise.
+     */
+    public synchronized boolean remove(long id) {
+        int index = positions.get(id);
+        if(index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Returns the number of timers in the index.
+     * @return the number of timers.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the deadline of the next timer to expire.
+     * @return the {@link System#nanoTime()} deadline, or {@link Timer#NO_DEADLINE} if the index is empty.
+     */
+    public synchronized long nextDeadline() {
+        return size == 0 ? Timer.NO_DEADLINE : deadlines[0];
+    }
+
+    /**
+     * Returns the next timers to expire.
+     * @param n the maximum number of timers.
+     * @return the timers, ordered by deadline.
+     * @throws IllegalArgumentException if {@code n} is less than zero.
+     */
+    public synchronized List<Timer> peekNext(int n) {
+        if(n < 0) {
+            throw new IllegalArgumentException("Invalid value provided for n.");
+        }
+        int count = Math.min(n, size);
+        List<Timer> next = new ArrayList<>(count);
+        if(count == 0) {
+            return next;
+        }
+        // the next timer is the root, and the one after is the earliest of the children of the
+        // timers taken so far: the candidates are kept in a small heap of positions.
+        int[] candidates = new int[count * (ARITY - 1) + 1];
+        int candidateCount = 0;
+        candidates[candidateCount++] = 0;
+        while(next.size() < count) {
+            int index = candidates[0];
+            candidates[0] = candidates[--candidateCount];
+            siftDownCandidate(candidates, candidateCount);
+            next.add(timers[index]);
+            int child = index * ARITY + 1;
+            for(int end = Math.min(child + ARITY, size); child < end; child++) {
+                candidates[candidateCount] = child;
+                siftUpCandidate(candidates, candidateCount++);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Returns the number of timers that expire within a window from now.
+     * @param windowNanos the window, in nanoseconds.
+     * @return the number of timers whose deadline is at most {@code windowNanos} away, including
+     * those whose deadline has passed.
+     * @throws IllegalArgumentException if {@code windowNanos} is less than zero.
+     */
+    public synchronized int countWithin(long windowNanos) {
+        if(windowNanos < 0) {
+            throw new IllegalArgumentException("Invalid value provided for window.");
+        }
+        if(size == 0) {
+            return 0;
+        }
+        long limit = System.nanoTime() + windowNanos;
+        // the children of a timer expire after it, so only the subtrees of counted timers are visited.
+        int[] stack = new int[INITIAL_CAPACITY];
+        int top = 0;
+        stack[top++] = 0;
+        int count = 0;
+        while(top > 0) {
+            int index = stack[--top];
+            if(deadlines[index] - limit > 0) {
+                continue;
+            }
+            count++;
+            int child = index * ARITY + 1;
+            for(int end = Math.min(child + ARITY, size); child < end; child++) {
+                if(top == stack.length) {
+                    stack = Arrays.copyOf(stack, top << 1);
+                }
+                stack[top++] = child;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes the timer at a position of the heap.
+     * @param index the position.
+     */
+    private void removeAt(int index) {
+        positions.remove(timers[index].getId());
+        int last = --size;
+        if(index != last) {
+            timers[index] = timers[last];
+            deadlines[index] = deadlines[last];
+            timers[last] = null;
+            siftDown(siftUp(index));
+        }
+        else {
+            timers[last] = null;
+        }
+    }
+
+    /**
+     * Moves a timer up the heap until its parent expires before it, and records its position.
+     * @param index the position of the timer.
+     * @return the new position of the timer.
+     */
+    private int siftUp(int index) {
+        Timer timer = timers[index];
+        long deadline = deadlines[index];
+        while(index > 0) {
+            int parent = (index - 1) / ARITY;
+            // deadlines are compared by difference, since System.nanoTime() may overflow.
+            if(deadlines[parent] - deadline <= 0) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        timers[index] = timer;
+        deadlines[index] = deadline;
+        positions.put(timer.getId(), index);
+        return index;
+    }
+
+    /**
+     * Moves a timer down the heap until its children expire after it, and records its position.
+     * @param index the position of the timer.
+     */
+    private void siftDown(int index) {
+        Timer timer = timers[index];
+        long deadline = deadlines[index];
+        while(true) {
+            int first = index * ARITY + 1;
+            if(first >= size) {
+                break;
+            }
+            int earliest = first;
+            for(int child = first + 1, end = Math.min(first + ARITY, size); child < end; child++) {
+                if(deadlines[child] - deadlines[earliest] < 0) {
+                    earliest = child;
+                }
+            }
+            if(deadlines[earliest] - deadline >= 0) {
+                break;
+            }
+            move(earliest, index);
+            index = earliest;
+        }
+        timers[index] = timer;
+        deadlines[index] = deadline;
+        positions.put(timer.getId(), index);
+    }
+
+    /**
+     * Moves a timer to another position of the heap, and records its position.
+     * @param from the position of the timer.
+     * @param to the new position of the timer.
+     */
+    private void move(int from, int to) {
+        timers[to] = timers[from];
+        deadlines[to] = deadlines[from];
+        positions.put(timers[to].getId(), to);
+    }
+
+    /**
+     * Moves the last candidate of {@link #peekNext(int)} up its heap.
+     * @param candidates the positions of the candidates.
+     * @param index the position of the candidate.
+     */
+    private void siftUpCandidate(int[] candidates, int index) {
+        int candidate = candidates[index];
+        while(index > 0) {
+            int parent = (index - 1) >>> 1;
+            if(deadlines[candidates[parent]] - deadlines[candidate] <= 0) {
+                break;
+            }
+            candidates[index] = candidates[parent];
+            index = parent;
+        }
+        candidates[index] = candidate;
+    }
+
+    /**
+     * Moves the first candidate of {@link #peekNext(int)} down its heap.
+     * @param candidates the positions of the candidates.
+     * @param count the number of candidates.
+     */
+    private void siftDownCandidate(int[] candidates, int count) {
+        if(count == 0) {
+            return;
+        }
+        int index = 0;
+        int candidate = candidates[0];
+        while(true) {
+            int child = (index << 1) + 1;
+            if(child >= count) {
+                break;
+            }
+            if(child + 1 < count && deadlines[candidates[child + 1]] - deadlines[candidates[child]] < 0) {
+                child++;
+            }
+            if(deadlines[candidates[child]] - deadlines[candidate] >= 0) {
+                break;
+            }
+            candidates[index] = candidates[child];
+            index = child;
+        }
+        candidates[index] = candidate;
+    }
+
+    /**
+     * Maps the ids of timers to their positions in the heap. It is an open-addressing table with
+     * linear probing, in which a key of zero marks a free slot, since ids are greater than zero.
+     */
+    private static final class Positions {
+        /**
+         * The ids of the slots.
+         */
+        long[] keys = new long[INITIAL_CAPACITY];
+
+        /**
+         * The positions of the slots.
+         */
+        int[] values = new int[INITIAL_CAPACITY];
+
+        /**
+         * The number of ids in the table.
+         */
+        int size;
+
+        /**
+         * Returns the position of an id.
+         * @param key the id.
+         * @return the position, or -1 if the id is not in the table.
+         */
+        int get(long key) {
+            int mask = keys.length - 1;
+            for(int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if(keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Associates a position with an id.
+         * @param key the id.
+         * @param value the position.
+         */
+        void put(long key, int value) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while(keys[i] != 0) {
+                if(keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            if(size + 1 > keys.length >> 1) {
+                grow();
+                mask = keys.length - 1;
+                i = slot(key, mask);
+                while(keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        /**
+         * Removes an id, and shifts back the ids that probed past it.
+         * @param key the id.
+         */
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while(keys[i] != key) {
+                if(keys[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            for(int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if(((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            keys[i] = 0;
+            size--;
+        }
+
+        /**
+         * Doubles the number of slots of the table.
+         */
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length << 1];
+            values = new int[oldKeys.length << 1];
+            int mask = keys.length - 1;
+            for(int i = 0; i < oldKeys.length; i++) {
+                if(oldKeys[i] != 0) {
+                    int j = slot(oldKeys[i], mask);
+                    while(keys[j] != 0) {
+                        j = (j + 1) & mask;
+                    }
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+
+        /**
+         * Returns the home slot of an id.
+         * @param key the id.
+         * @param mask the mask used to map a hash to its slot.
+         * @return the slot.
+         */
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.theschool.clock.model;
+
+import java.util.Arrays;
+
+/**
+ * Records the laps of a stopwatch.
+ * <p>
+ * Each lap is stored as the elapsed time of the stopwatch when it was taken, in a growable
+ * primitive array, so recording a lap is an amortized constant time array store. Since the
+ * elapsed time of a stopwatch never goes backwards, the split of a lap (the time since the
+ * previous lap) is the difference of two consecutive entries, and the statistics of the splits
+ * are maintained as laps are recorded rather than computed over the whole history.
+ * <p>
+ * Laps are numbered from zero. A {@code LapRecorder} has a single writer at a time, but may be
+ * read from any thread: the number of laps is published after the lap it counts, so a reader
+ * never sees a lap before it is written.
+ *
+ * @see Stopwatch
+ *
+ * @author Thomas Munguya
+ */
+public class LapRecorder {
+
+    /**
+     * Defines the initial capacity of the recorder.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Defines the elapsed time at each lap, in nanoseconds.
+     */
+    private long[] cumulative = new long[INITIAL_CAPACITY];
+
+    /**
+     * Defines the number of laps.
+     */
+    private volatile int size;
+
+    /**
+     * Defines the shortest split, in nanoseconds.
+     */
+    private long minSplit;
+
+    /**
+     * Defines the lap with the shortest split, or -1 if there are no laps.
+     */
+    private int minLap = -1;
+
+    /**
+     * Defines the longest split, in nanoseconds.
+     */
+    private long maxSplit;
+
+    /**
+     * Defines the lap with the longest split, or -1 if there are no laps.
+     */
+    private int maxLap = -1;
+
+    /**
+     * Records a lap.
+     * @param elapsedNanos the elapsed time of the stopwatch when the lap was taken, in nanoseconds.
+     * @return the number of the lap.
+     * @throws IllegalArgumentException if {@code elapsedNanos} is less than the elapsed time of the previous lap.
+     */
+    public int record(long elapsedNanos) {
+        int lap = size;
+        long previous = lap == 0 ? 0 : cumulative[lap - 1];
+        if(elapsedNanos < previous) {
+            throw new IllegalArgumentException("Lap cannot be earlier than the previous lap.");
+        }
+        if(lap == cumulative.length) {
+            cumulative = Arrays.copyOf(cumulative, lap << 1);
+        }
+        cumulative[lap] = elapsedNanos;
+
+        long split = elapsedNanos - previous;
+        if(minLap < 0 || split < minSplit) {
+            minSplit = split;
+            minLap = lap;
+        }
+        if(maxLap < 0 || split > maxSplit) {
+            maxSplit = split;
+            maxLap = lap;
+        }
+        size = lap + 1;
+        return lap;
+    }
+
+    /**
+     * Returns the number of laps.
+     * @return the number of laps.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether no lap has been recorded.
+     * @return {@code true} if there are no laps, and {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the elapsed time of the stopwatch when a lap was taken.
+     * @param lap the number of the lap.
+     * @return the cumulative time, in nanoseconds.
+     * @throws IndexOutOfBoundsException if there is no such lap.
+     */
+    public long getCumulative(int lap) {
+        checkLap(lap);
+        return cumulative[lap];
+    }
+
+    /**
+     * Returns the duration of a lap: the time since the previous lap, or since the start for the first.
+     * @param lap the number of the lap.
+     * @return the split, in nanoseconds.
+     * @throws IndexOutOfBoundsException if there is no such lap.
+     */
+    public long getSplit(int lap) {
+        checkLap(lap);
+        return lap == 0 ? cumulative[0] : cumulative[lap] - cumulative[lap - 1];
+    }
+
+    /**
+     * Returns how much longer a lap was than the previous one. The first lap has a delta of zero.
+     * @param lap the number of the lap.
+     * @return the delta, in nanoseconds. It is negative if the lap was shorter than the previous one.
+     * @throws IndexOutOfBoundsException if there is no such lap.
+     */
+    public long getDelta(int lap) {
+        checkLap(lap);
+        return lap == 0 ? 0 : getSplit(lap) - getSplit(lap - 1);
+    }
+
+    /**
+     * Returns the shortest split.
+     * @return the split, in nanoseconds, or zero if there are no laps.
+     */
+    public long getMinSplit() {
+        return size == 0 ? 0 : minSplit;
+    }
+
+    /**
+     * Returns the lap with the shortest split.
+     * @return the number of the lap, or -1 if there are no laps.
+     */
+    public int getMinLap() {
+        return minLap;
+    }
+
+    /**
+     * Returns the longest split.
+     * @return the split, in nanoseconds, or zero if there are no laps.
+     */
+    public long getMaxSplit() {
+        return size == 0 ? 0 : maxSplit;
+    }
+
+    /**
+     * Returns the lap with the longest split.
+     * @return the number of the lap, or -1 if there are no laps.
+     */
+    public int getMaxLap() {
+        return maxLap;
+    }
+
+    /**
+     * Returns the mean split. The splits add up to the elapsed time of the last lap.
+     * @return the mean split, in nanoseconds, or zero if there are no laps.
+     */
+    public long getMeanSplit() {
+        int count = size;
+        return count == 0 ? 0 : cumulative[count - 1] / count;
+    }
+
+    /**
+     * Removes all the laps.
+     */
+    public void clear() {
+        size = 0;
+        minSplit = 0;
+        minLap = -1;
+        maxSplit = 0;
+        maxLap = -1;
+    }
+
+    /**
+     * Validates the number of a lap.
+     * @param lap the number of the lap.
+     * @throws IndexOutOfBoundsException if there is no such lap.
+     */
+    private void checkLap(int lap) {
+        if(lap < 0 || lap >= size) {
+            throw new IndexOutOfBoundsException("Lap " + lap + " does not exist.");
+        }
+    }
+}
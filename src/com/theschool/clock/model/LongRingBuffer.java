@@ -0,0 +1,126 @@
+package com.theschool.clock.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded, lock-free ring buffer of {@code long} values, for many producers and a single consumer.
+ * <p>
+ * A producer claims a slot by advancing the tail with a compare-and-set, writes its value, and
+ * publishes the slot by storing the sequence number of the next turn of the ring in it. The
+ * consumer reads published slots in order, and frees them by advancing the head. Neither side
+ * blocks or allocates: when the buffer is full, {@link #offer(LongSupplier)} fails.
+ * <p>
+ * The value of a slot is computed by the producer after it last observed the tail and before it
+ * claims the slot, so values that increase with time, such as {@link System#nanoTime()} readings,
+ * come out of the buffer in increasing order.
+ *
+ * @author Thomas Munguya
+ */
+final class LongRingBuffer {
+
+    /**
+     * Defines the values of the slots.
+     */
+    private final long[] values;
+
+    /**
+     * Defines, for each slot, the sequence number of the value it holds plus one once it is published.
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * Defines the mask used to map a sequence number to its slot.
+     */
+    private final int mask;
+
+    /**
+     * Defines the sequence number of the next slot to claim.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Defines the sequence number of the next slot to consume. It is only written by the consumer.
+     */
+    private volatile long head;
+
+    /**
+     * Constructs a {@code LongRingBuffer}.
+     * @param capacity the number of slots. It is rounded up to a power of two.
+     * @throws IllegalArgumentException if {@code capacity} is not greater than zero.
+     */
+    LongRingBuffer(int capacity) {
+        if(capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid value provided for capacity.");
+        }
+        int slots = 1;
+        while(slots < capacity) {
+            slots <<= 1;
+        }
+        this.values = new long[slots];
+        this.published = new AtomicLongArray(slots);
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Adds a value to the buffer. The value is computed once a slot is about to be claimed.
+     * @param value the supplier of the value. It may be called more than once.
+     * @return the value added, or -1 if the buffer was full.
+     */
+    long offer(LongSupplier value) {
+        long sequence;
+        long next;
+        do {
+            sequence = tail.get();
+            if(sequence - head >= values.length) {
+                return -1;
+            }
+            next = value.getAsLong();
+        } while(!tail.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        values[index] = next;
+        published.lazySet(index, sequence + 1);
+        return next;
+    }
+
+    /**
+     * Hands the published values to a consumer, in order. Only one thread may drain at a time.
+     * @param consumer the consumer.
+     * @return the number of values drained.
+     */
+    int drain(LongConsumer consumer) {
+        long sequence = head;
+        int drained = 0;
+        while(true) {
+            int index = (int) (sequence & mask);
+            if(published.get(index) != sequence + 1) {
+                break;
+            }
+            consumer.accept(values[index]);
+            sequence++;
+            drained++;
+            // free the slot only once its value has been read.
+            head = sequence;
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of values waiting in the buffer, including those being published.
+     * @return the number of values.
+     */
+    int size() {
+        return (int) (tail.get() - head);
+    }
+
+    /**
+     * Returns the number of slots.
+     * @return the capacity.
+     */
+    int capacity() {
+        return values.length;
+    }
+}
@@ -0,0 +1,66 @@
+package com.theschool.clock.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link TimeSink} that counts what it receives.
+ * <p>
+ * The counters are updated without locks or allocation, so one sink can be shared by many Timeables.
+ *
+ * @author Thomas Munguya
+ */
+public class MetricsTimeSink implements TimeSink {
+
+    /**
+     * Defines the number of ticks received.
+     */
+    private final LongAdder ticks = new LongAdder();
+
+    /**
+     * Defines the last time received, in nanoseconds.
+     */
+    private final AtomicLong lastNanos = new AtomicLong();
+
+    /**
+     * Defines the number of transitions received into each state, indexed by ordinal.
+     */
+    private final AtomicLongArray transitions = new AtomicLongArray(Timeable.State.values().length);
+
+    @Override
+    public void onTick(long nanos) {
+        ticks.increment();
+        lastNanos.lazySet(nanos);
+    }
+
+    @Override
+    public void onStateChanged(Timeable source, Timeable.State previous, Timeable.State current) {
+        transitions.incrementAndGet(current.ordinal());
+    }
+
+    /**
+     * Returns the number of ticks received.
+     * @return the number of ticks.
+     */
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    /**
+     * Returns the last time received.
+     * @return the time, in nanoseconds.
+     */
+    public long getLastNanos() {
+        return lastNanos.get();
+    }
+
+    /**
+     * Returns the number of transitions received into a state.
+     * @param state the state.
+     * @return the number of transitions.
+     */
+    public long getTransitions(Timeable.State state) {
+        return transitions.get(state.ordinal());
+    }
+}
@@ -0,0 +1,64 @@
+package com.theschool.clock.model;
+
+import com.theschool.clock.util.LatencyHistogram;
+
+/**
+ * An {@link ExecutionStrategy} that drives Timeables with a {@link TickScheduler}.
+ *
+ * @author Thomas Munguya
+ */
+final class SchedulerExecutionStrategy implements ExecutionStrategy {
+
+    /**
+     * The strategy that uses the shared scheduler.
+     */
+    static final ExecutionStrategy SHARED = new SchedulerExecutionStrategy(null);
+
+    /**
+     * The scheduler, or {@code null} to use the shared scheduler. The shared scheduler is looked
+     * up lazily so that its thread is only started once it is needed.
+     */
+    private final TickScheduler scheduler;
+
+    /**
+     * Constructs a {@code SchedulerExecutionStrategy}.
+     * @param scheduler the scheduler, or {@code null} to use the shared scheduler.
+     */
+    SchedulerExecutionStrategy(TickScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void start(Timeable timeable) {
+        getScheduler().register(timeable);
+    }
+
+    @Override
+    public void stop(Timeable timeable) {
+        getScheduler().cancel(timeable);
+    }
+
+    /**
+     * Returns the histogram of the scheduler, shared by every strategy using it.
+     */
+    @Override
+    public LatencyHistogram getTickLag() {
+        return getScheduler().getTickLag();
+    }
+
+    /**
+     * Returns the histogram of the scheduler, shared by every strategy using it.
+     */
+    @Override
+    public LatencyHistogram getExpiryLatency() {
+        return getScheduler().getExpiryLatency();
+    }
+
+    /**
+     * Returns the scheduler.
+     * @return the scheduler.
+     */
+    private TickScheduler getScheduler() {
+        return scheduler != null ? scheduler : TickScheduler.getShared();
+    }
+}
@@ -1,64 +1,274 @@
 package com.theschool.clock.model;
 
-import javax.swing.text.JTextComponent;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
 
 /**
  * Represents a stopwatch.
  * <p>
  * A stopwatch is characterized by its ability to count time up.
+ * <p>
+ * The elapsed time is not counted by a thread. Instead, the stopwatch records a
+ * {@link System#nanoTime()} mark when it starts, accumulates the intervals during which it ran,
+ * and computes the elapsed time on demand. Its ticks only hand the time to its sink, so the
+ * refresh rate has no effect on the accuracy of the time.
+ * <p>
+ * The laps of the stopwatch are kept in a {@link LapRecorder}, and cleared when it is reset.
+ * {@link #lap()} may be called from any number of threads at once: it captures the elapsed time
+ * into a lock-free ring buffer, without blocking or allocating, and a single thread at a time
+ * moves the captured laps into the recorder, on each tick and whenever the laps are read. A lap
+ * captured while the buffer is full is dropped and counted, so the buffer of a stopwatch fed laps
+ * at a high rate is sized for the laps of a refresh interval, or emptied by a thread of its own
+ * calling {@link #drainLaps()}.
  *
+ * @see LapRecorder
  * @see Time
  * @see Timeable
+ * @see TimeSpan
  *
  * @author Thomas Munguya
  */
 public class Stopwatch extends Timeable implements Runnable {
 
+    /**
+     * Defines the interval at which the time is handed to the sink, in nanoseconds.
+     */
+    private volatile long refreshIntervalNanos = TimeSpan.NANOS_PER_SECOND;
+
+    /**
+     * Defines the laps of this stopwatch.
+     */
+    private final LapRecorder laps = new LapRecorder();
+
+    /**
+     * Defines the default number of laps that can wait to be moved into the recorder.
+     */
+    public static final int DEFAULT_LAP_BUFFER_CAPACITY = 16;
+
+    /**
+     * Defines the consumer that discards laps.
+     */
+    private static final LongConsumer DISCARD = elapsed -> {};
+
+    /**
+     * Defines the laps waiting to be moved into the recorder.
+     */
+    private final LongRingBuffer pendingLaps;
+
+    /**
+     * Defines whether a thread is moving laps into the recorder.
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * Defines whether the laps are to be cleared by the next thread moving laps into the recorder.
+     */
+    private final AtomicBoolean clearPending = new AtomicBoolean();
+
+    /**
+     * Defines the number of laps dropped because the buffer was full.
+     */
+    private final AtomicLong droppedLaps = new AtomicLong();
+
+    /**
+     * Defines the supplier of the elapsed time, captured when a lap claims its slot.
+     */
+    private final LongSupplier elapsedNow = this::getElapsedNanos;
+
+    /**
+     * Defines the consumer that moves a lap into the recorder.
+     */
+    private final LongConsumer lapRecorder = this::recordLap;
+
     /**
      * Constructs a {@code Stopwatch}.
      **/
     public Stopwatch() {
         super();
+        this.pendingLaps = new LongRingBuffer(DEFAULT_LAP_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Constructs a {@code Stopwatch} with the provided arguments.
+     * @param running the running state of this stopwatch.
+     * @param sink the sink that receives the output of this stopwatch.
+     * @throws IllegalArgumentException if {@code sink} is {@code null}.
+     */
+    public Stopwatch(boolean running, TimeSink sink) {
+        this(running, sink, DEFAULT_LAP_BUFFER_CAPACITY);
     }
 
     /**
      * Constructs a {@code Stopwatch} with the provided arguments.
      * @param running the running state of this stopwatch.
-     * @param component the component to write the time to.
-     * @throws IllegalArgumentException if {@code component} is {@code null}.
+     * @param sink the sink that receives the output of this stopwatch.
+     * @param lapBufferCapacity the number of laps that can wait to be moved into the recorder.
+     * @throws IllegalArgumentException if {@code sink} is {@code null}, or {@code lapBufferCapacity}
+     * is not greater than zero.
+     */
+    public Stopwatch(boolean running, TimeSink sink, int lapBufferCapacity) {
+        super(running, sink);
+        this.pendingLaps = new LongRingBuffer(lapBufferCapacity);
+    }
+
+    /**
+     * Returns the time elapsed while this stopwatch was running.
+     * @return the elapsed time, in nanoseconds.
      */
-    public Stopwatch(boolean running, JTextComponent component) {
-        super(running, component);
+    public long getElapsedNanos() {
+        return getNanos();
     }
 
     /**
-     * Counts the time up.
+     * Records a lap at the current elapsed time. This method may be called from any thread.
+     * <p>
+     * The lap is captured into a buffer, and moved into the recorder later by the thread ticking
+     * the stopwatch or reading its laps. If the buffer is full, the lap is dropped and counted in
+     * {@link #getDroppedLaps()}.
+     * @return the elapsed time at the lap, in nanoseconds, or -1 if the lap was dropped.
      */
-    private void countUp() {
-        time = time.add(new Time(0, 0, 1));
-        component.setText(time.toString());
+    public long lap() {
+        long elapsed = pendingLaps.offer(elapsedNow);
+        if(elapsed < 0) {
+            droppedLaps.incrementAndGet();
+        }
+        return elapsed;
+    }
 
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    /**
+     * Moves the captured laps into the recorder, unless another thread is doing so.
+     * <p>
+     * If the stopwatch was reset since the laps were last moved, the recorder and the captured
+     * laps are cleared first.
+     * @return the number of laps moved.
+     */
+    public int drainLaps() {
+        int moved = 0;
+        while(draining.compareAndSet(false, true)) {
+            try {
+                if(clearPending.getAndSet(false)) {
+                    pendingLaps.drain(DISCARD);
+                    laps.clear();
+                    droppedLaps.set(0);
+                    moved = 0;
+                }
+                moved += pendingLaps.drain(lapRecorder);
+            } finally {
+                draining.set(false);
+            }
+            // a reset that found this thread moving laps left the clearing to it.
+            if(!clearPending.get()) {
+                break;
+            }
         }
+        return moved;
     }
 
     /**
-     * Resets the stopwatch.
+     * Returns the laps of this stopwatch, after moving the captured laps into them.
+     * <p>
+     * The recorder is written by one thread at a time, and can be read from any thread.
+     * @return the laps.
+     */
+    public LapRecorder getLaps() {
+        drainLaps();
+        return laps;
+    }
+
+    /**
+     * Returns the number of laps dropped because they were captured faster than they were recorded.
+     * @return the number of dropped laps.
+     */
+    public long getDroppedLaps() {
+        return droppedLaps.get();
+    }
+
+    /**
+     * Resets the stopwatch to zero and clears its laps, including those not recorded yet.
+     * <p>
+     * The laps are cleared without waiting: if another thread is moving laps into the recorder,
+     * that thread clears them once it is done.
      */
     @Override
     public void reset() {
-        time = new Time();
-        component.setText(time.toString());
-        setRunning(false);
+        super.reset();
+        clearPending.set(true);
+        drainLaps();
+    }
+
+    /**
+     * Moves a captured lap into the recorder, and hands it to the sink.
+     * <p>
+     * A lap captured just before the stopwatch paused may be ahead of one captured just after, so
+     * a lap is never recorded earlier than the previous one.
+     * @param elapsed the elapsed time at the lap, in nanoseconds.
+     */
+    private void recordLap(long elapsed) {
+        int size = laps.size();
+        long recorded = size == 0 ? elapsed : Math.max(elapsed, laps.getCumulative(size - 1));
+        laps.record(recorded);
+        getTimeSink().onLap(this, recorded);
+    }
+
+    /**
+     * Returns the interval at which the time is handed to the sink.
+     * @return the refresh interval, in nanoseconds.
+     */
+    public long getRefreshIntervalNanos() {
+        return refreshIntervalNanos;
     }
 
+    /**
+     * Sets the interval at which the time is handed to the sink.
+     * @param refreshIntervalNanos the refresh interval, in nanoseconds.
+     * @throws IllegalArgumentException if {@code refreshIntervalNanos} is not greater than zero.
+     */
+    public void setRefreshIntervalNanos(long refreshIntervalNanos) {
+        if(refreshIntervalNanos <= 0) {
+            throw new IllegalArgumentException("Refresh interval must be greater than zero.");
+        }
+        this.refreshIntervalNanos = refreshIntervalNanos;
+    }
+
+    @Override
+    protected long getInitialNanos() {
+        return 0;
+    }
+
+    /**
+     * Returns the elapsed time: the accumulated time, plus the time since the mark while running.
+     */
+    @Override
+    protected long valueAt(Snapshot snapshot, long now) {
+        return snapshot.state == State.RUNNING ? TimeSpan.addNanos(snapshot.nanos, now - snapshot.mark) : snapshot.nanos;
+    }
+
+    /**
+     * Returns the instant at which the stopwatch starts running.
+     */
+    @Override
+    protected long markAt(long value, long now) {
+        return now;
+    }
+
+    /**
+     * Hands the elapsed time to the sink.
+     * <p>
+     * The next tick is due on the next multiple of the refresh interval, so that the displayed
+     * time changes on its boundaries rather than drifting away from them.
+     */
     @Override
-    public void run() {
-        while(isRunning()) {
-            countUp();
+    protected long tick() {
+        drainLaps();
+        Snapshot snapshot = snapshot();
+        long elapsed = valueAt(snapshot, System.nanoTime());
+        publish(elapsed);
+        if(snapshot.state != State.RUNNING) {
+            return -1;
         }
+        long interval = refreshIntervalNanos;
+        return interval - elapsed % interval;
     }
 }
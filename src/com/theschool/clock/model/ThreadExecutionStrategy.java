@@ -0,0 +1,178 @@
+package com.theschool.clock.model;
+
+import com.theschool.clock.util.LatencyHistogram;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link ExecutionStrategy} that drives each Timeable with a thread of its own.
+ * <p>
+ * The thread sleeps between ticks. Only the thread most recently started for a Timeable drives it,
+ * so a thread that is still sleeping when its Timeable is paused and resumed exits on waking
+ * instead of ticking alongside its replacement.
+ * <p>
+ * Each thread measures how late it wakes up for the ticks after the first, into the histograms
+ * of the strategy.
+ *
+ * @author Thomas Munguya
+ */
+final class ThreadExecutionStrategy implements ExecutionStrategy {
+
+    /**
+     * The strategy that uses platform threads.
+     */
+    static final ThreadExecutionStrategy PLATFORM = new ThreadExecutionStrategy(new PlatformThreadFactory());
+
+    /**
+     * The factory of the threads.
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * The histogram of how late the ticks run after they are due.
+     */
+    private final LatencyHistogram tickLag = new LatencyHistogram();
+
+    /**
+     * The histogram of how late the timers expire after their deadline.
+     */
+    private final LatencyHistogram expiryLatency = new LatencyHistogram();
+
+    /**
+     * Constructs a {@code ThreadExecutionStrategy}.
+     * @param threadFactory the factory of the threads.
+     */
+    private ThreadExecutionStrategy(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Returns the strategy that uses virtual threads.
+     * @return the strategy.
+     * @throws UnsupportedOperationException if the runtime does not support virtual threads.
+     */
+    static ThreadExecutionStrategy virtual() {
+        ThreadExecutionStrategy strategy = VirtualHolder.VIRTUAL;
+        if(strategy == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this runtime.");
+        }
+        return strategy;
+    }
+
+    /**
+     * Returns whether the runtime supports virtual threads.
+     * @return {@code true} if virtual threads are supported, and {@code false} otherwise.
+     */
+    static boolean isVirtualSupported() {
+        return VirtualHolder.VIRTUAL != null;
+    }
+
+    @Override
+    public void start(Timeable timeable) {
+        Thread thread = threadFactory.newThread(() -> drive(timeable));
+        Thread previous = timeable.driver;
+        timeable.driver = thread;
+        if(previous != null) {
+            LockSupport.unpark(previous);
+        }
+        thread.start();
+    }
+
+    @Override
+    public void stop(Timeable timeable) {
+        Thread previous = timeable.driver;
+        timeable.driver = null;
+        if(previous != null) {
+            LockSupport.unpark(previous);
+        }
+    }
+
+    @Override
+    public LatencyHistogram getTickLag() {
+        return tickLag;
+    }
+
+    @Override
+    public LatencyHistogram getExpiryLatency() {
+        return expiryLatency;
+    }
+
+    /**
+     * Ticks a Timeable from the current thread for as long as the thread is its driver.
+     * @param timeable the Timeable.
+     */
+    private void drive(Timeable timeable) {
+        Thread self = Thread.currentThread();
+        long deadline = 0;
+        boolean scheduled = false;
+        while(timeable.driver == self) {
+            long lag = scheduled ? System.nanoTime() - deadline : 0;
+            long delay = timeable.tickSafely();
+            if(scheduled) {
+                tickLag.record(lag);
+                if(delay == Timer.EXPIRED_TICK) {
+                    expiryLatency.record(lag);
+                }
+            }
+            if(delay < 0) {
+                break;
+            }
+            // an unpark from start() or stop() ends the wait early, and the loop then re-checks the driver.
+            deadline = System.nanoTime() + delay;
+            scheduled = true;
+            long remaining = delay;
+            while(remaining > 0 && timeable.driver == self) {
+                LockSupport.parkNanos(timeable, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Creates platform threads for Timeables.
+     */
+    private static final class PlatformThreadFactory implements ThreadFactory {
+        /**
+         * The number of threads created, used to name them.
+         */
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "timeable-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Lazily looks up the virtual thread factory of the runtime.
+     * <p>
+     * Virtual threads are looked up reflectively so that the application still builds and runs on
+     * runtimes without them.
+     */
+    private static final class VirtualHolder {
+        /**
+         * The strategy that uses virtual threads, or {@code null} if they are not supported.
+         */
+        static final ThreadExecutionStrategy VIRTUAL = lookUp();
+
+        /**
+         * Looks up the virtual thread factory.
+         * @return the strategy that uses virtual threads, or {@code null} if they are not supported.
+         */
+        private static ThreadExecutionStrategy lookUp() {
+            try {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "timeable-", 0L);
+                ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+                return new ThreadExecutionStrategy(factory);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,592 @@
+package com.theschool.clock.model;
+
+import com.theschool.clock.jfr.SchedulerTickEvent;
+import com.theschool.clock.util.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drives the ticks of many {@link Timeable}s from a single thread.
+ * <p>
+ * The scheduler is a hashed timing wheel: a ring of buckets, each covering one tick of the wheel.
+ * A Timeable whose next tick is due further away than one turn of the wheel waits in its bucket
+ * for the corresponding number of rounds. Registering, pausing and cancelling a Timeable are
+ * queued and applied by the scheduler thread, which owns the wheel, so the wheel needs no locks.
+ * Each Timeable holds a single entry that is reused for all its ticks, so ticking does not allocate.
+ * <p>
+ * A tick runs at most one tick duration after it is due. How late each tick actually runs is
+ * recorded in {@link #getTickLag()}, and how late each timer expires in {@link #getExpiryLatency()}.
+ * A tick that fails, such as when a sink throws, is logged, and a Timeable still running is
+ * ticked again, so that a timer still expires.
+ * <p>
+ * The timers that expire during a tick of the wheel are collected, and handed in a single batch
+ * to each {@link ExpiryBatchListener} once the tick is done, on the executor of the listener.
+ * Timers that expire together, such as a batch created at once, therefore cost one call per
+ * listener rather than one per timer.
+ * <p>
+ * Each tick of the wheel that takes longer than the threshold of {@link SchedulerTickEvent} is
+ * recorded by Java Flight Recorder, when it is recording.
+ *
+ * @see Timeable
+ * @see ExpiryBatchListener
+ *
+ * @author Thomas Munguya
+ */
+public final class TickScheduler {
+
+    /**
+     * Defines the logger of the failures to hand expired timers to their listeners.
+     */
+    private static final Logger LOGGER = Logger.getLogger(TickScheduler.class.getName());
+
+    /**
+     * Defines the default duration of a tick of the wheel, in nanoseconds.
+     */
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Defines the default number of buckets in the wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Defines the duration of a tick of the wheel, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * Defines the buckets of the wheel. Each bucket is the head of a doubly linked list of entries.
+     */
+    private final Entry[] wheel;
+
+    /**
+     * Defines the mask used to map a tick to its bucket.
+     */
+    private final int mask;
+
+    /**
+     * Defines the operations waiting to be applied by the scheduler thread.
+     */
+    private final Queue<Operation> operations = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Defines the listeners receiving the timers that expire, with their executors.
+     */
+    private final List<ExpiryDispatch> expiryDispatches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Defines the ids of the timers that expired during the current tick. It is only accessed by the scheduler thread.
+     */
+    private long[] expired = new long[64];
+
+    /**
+     * Defines the number of timers that expired during the current tick.
+     */
+    private int expiredCount;
+
+    /**
+     * Defines the number of timers that expired during the current tick, whether or not there are listeners.
+     */
+    private int tickExpiries;
+
+    /**
+     * Defines the histogram of how late the ticks run after they are due.
+     */
+    private final LatencyHistogram tickLag = new LatencyHistogram();
+
+    /**
+     * Defines the histogram of how late the timers expire after their deadline.
+     */
+    private final LatencyHistogram expiryLatency = new LatencyHistogram();
+
+    /**
+     * Defines the scheduler thread.
+     */
+    private final Thread worker;
+
+    /**
+     * Defines the {@link System#nanoTime()} mark of the moment the scheduler thread started.
+     */
+    private long startTime;
+
+    /**
+     * Defines the tick of the wheel being processed.
+     */
+    private long tick;
+
+    /**
+     * Defines the number of Timeables in the wheel.
+     */
+    private volatile int size;
+
+    /**
+     * Defines whether the scheduler has been shut down.
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * Constructs a {@code TickScheduler} with the default tick duration and wheel size.
+     */
+    public TickScheduler() {
+        this(DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Constructs a {@code TickScheduler} with the provided arguments.
+     * @param tickNanos the duration of a tick of the wheel, in nanoseconds.
+     * @param wheelSize the number of buckets in the wheel. It is rounded up to a power of two.
+     * @throws IllegalArgumentException if {@code tickNanos} or {@code wheelSize} is not greater than zero.
+     */
+    public TickScheduler(long tickNanos, int wheelSize) {
+        if(tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be greater than zero.");
+        }
+        if(wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Invalid value provided for wheel size.");
+        }
+        this.tickNanos = tickNanos;
+        int buckets = 1;
+        while(buckets < wheelSize) {
+            buckets <<= 1;
+        }
+        this.wheel = new Entry[buckets];
+        this.mask = wheel.length - 1;
+        this.worker = new Thread(this::work, "tick-scheduler");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Returns the scheduler shared by the application.
+     * @return the shared scheduler.
+     */
+    public static TickScheduler getShared() {
+        return SharedHolder.SHARED;
+    }
+
+    /**
+     * Registers a Timeable so that this scheduler drives its ticks, starting it if it is not running.
+     * <p>
+     * Registering a Timeable that is already registered ticks it again immediately.
+     * @param timeable the Timeable.
+     * @throws IllegalArgumentException if {@code timeable} is {@code null}.
+     * @throws IllegalStateException if this scheduler has been shut down.
+     */
+    public void register(Timeable timeable) {
+        validate(timeable);
+        timeable.setRunning(true);
+        operations.add(new Operation(timeable, true));
+    }
+
+    /**
+     * Pauses a Timeable and stops driving its ticks.
+     * @param timeable the Timeable.
+     * @throws IllegalArgumentException if {@code timeable} is {@code null}.
+     * @throws IllegalStateException if this scheduler has been shut down.
+     */
+    public void pause(Timeable timeable) {
+        validate(timeable);
+        timeable.setRunning(false);
+        operations.add(new Operation(timeable, false));
+    }
+
+    /**
+     * Stops driving the ticks of a Timeable, without changing its running state.
+     * @param timeable the Timeable.
+     * @throws IllegalArgumentException if {@code timeable} is {@code null}.
+     * @throws IllegalStateException if this scheduler has been shut down.
+     */
+    public void cancel(Timeable timeable) {
+        validate(timeable);
+        operations.add(new Operation(timeable, false));
+    }
+
+    /**
+     * Adds a listener to be handed the ids of the timers that expire during each tick of the wheel.
+     * @param listener the listener.
+     * @param executor the executor the listener is called on.
+     * @throws IllegalArgumentException if {@code listener} or {@code executor} is {@code null}.
+     * @see DispatchExecutors
+     */
+    public void addExpiryBatchListener(ExpiryBatchListener listener, Executor executor) {
+        if(listener == null) {
+            throw new IllegalArgumentException("Listener argument cannot be null.");
+        }
+        if(executor == null) {
+            throw new IllegalArgumentException("Executor argument cannot be null.");
+        }
+        expiryDispatches.add(new ExpiryDispatch(listener, executor));
+    }
+
+    /**
+     * Removes a listener previously added to this scheduler. Batches already handed to its executor are still delivered.
+     * @param listener the listener.
+     */
+    public void removeExpiryBatchListener(ExpiryBatchListener listener) {
+        expiryDispatches.removeIf((dispatch) -> dispatch.listener == listener);
+    }
+
+    /**
+     * Returns the number of Timeables whose ticks this scheduler drives.
+     * @return the number of Timeables.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the duration of a tick of the wheel.
+     * @return the tick duration, in nanoseconds.
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Returns the histogram of how late the ticks driven by this scheduler run after they are due.
+     * <p>
+     * The lag of a tick is measured from the instant its Timeable asked to be ticked, so it includes
+     * the rounding to the tick of the wheel, the wake-up of the scheduler thread, and the ticks that
+     * ran before it in the same bucket.
+     * @return the histogram, in nanoseconds.
+     */
+    public LatencyHistogram getTickLag() {
+        return tickLag;
+    }
+
+    /**
+     * Returns the histogram of how late the timers driven by this scheduler expire after their deadline.
+     * @return the histogram, in nanoseconds.
+     */
+    public LatencyHistogram getExpiryLatency() {
+        return expiryLatency;
+    }
+
+    /**
+     * Stops the scheduler thread. Timeables that were registered stop being ticked.
+     */
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Validates the state of the scheduler and a Timeable passed to it.
+     * @param timeable the Timeable.
+     * @throws IllegalArgumentException if {@code timeable} is {@code null}.
+     * @throws IllegalStateException if this scheduler has been shut down.
+     */
+    private void validate(Timeable timeable) {
+        if(timeable == null) {
+            throw new IllegalArgumentException("Timeable argument cannot be null.");
+        }
+        if(shutdown) {
+            throw new IllegalStateException("Tick scheduler has been shut down.");
+        }
+    }
+
+    /**
+     * Runs the scheduler thread.
+     */
+    private void work() {
+        startTime = System.nanoTime();
+        while(!shutdown) {
+            if(!waitForNextTick()) {
+                break;
+            }
+            SchedulerTickEvent event = new SchedulerTickEvent();
+            event.begin();
+            int operations = applyOperations();
+            int ticked = expire(tick);
+            dispatchExpired();
+            event.end();
+            if(event.shouldCommit()) {
+                event.set(tick, ticked, tickExpiries, operations);
+                event.commit();
+            }
+            tick++;
+        }
+    }
+
+    /**
+     * Waits until the current tick of the wheel is due.
+     * @return {@code true} if the tick is due, and {@code false} if the scheduler was shut down.
+     */
+    private boolean waitForNextTick() {
+        long tickDeadline = (tick + 1) * tickNanos;
+        while(!shutdown) {
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if(sleepNanos <= 0) {
+                return true;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+        }
+        return false;
+    }
+
+    /**
+     * Applies the queued operations.
+     * @return the number of operations applied.
+     */
+    private int applyOperations() {
+        int applied = 0;
+        Operation operation;
+        while((operation = operations.poll()) != null) {
+            applied++;
+            Entry entry = operation.timeable.schedulerEntry;
+            if(entry == null) {
+                if(!operation.register) {
+                    continue;
+                }
+                entry = new Entry(operation.timeable);
+                operation.timeable.schedulerEntry = entry;
+            }
+            if(entry.bucket >= 0) {
+                unlink(entry);
+            }
+            if(operation.register) {
+                // tick the Timeable right away.
+                insert(entry, System.nanoTime() - startTime, tick);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Ticks the due entries of the bucket of the provided tick, and reinserts those that are due again.
+     * @param currentTick the tick of the wheel.
+     * @return the number of entries ticked.
+     */
+    private int expire(long currentTick) {
+        int ticked = 0;
+        tickExpiries = 0;
+        int index = (int) (currentTick & mask);
+        Entry rescheduled = null;
+        Entry entry = wheel[index];
+        // the end of a tick is the start of the next one, so a single clock read per tick measures both.
+        long now = System.nanoTime() - startTime;
+        while(entry != null) {
+            Entry next = entry.next;
+            if(entry.rounds <= 0) {
+                unlink(entry);
+                ticked++;
+                long lag = now - entry.deadline;
+                long delay = entry.timeable.tickSafely();
+                now = System.nanoTime() - startTime;
+                tickLag.record(lag);
+                if(delay == Timer.EXPIRED_TICK) {
+                    tickExpiries++;
+                    expiryLatency.record(lag);
+                    if(!expiryDispatches.isEmpty()) {
+                        if(expiredCount == expired.length) {
+                            expired = Arrays.copyOf(expired, expiredCount << 1);
+                        }
+                        expired[expiredCount++] = entry.timeable.getId();
+                    }
+                }
+                if(delay >= 0) {
+                    entry.deadline = now + delay;
+                    // the entry is out of the wheel, so its link is free to chain it for reinsertion.
+                    entry.next = rescheduled;
+                    rescheduled = entry;
+                }
+            }
+            else {
+                entry.rounds--;
+            }
+            entry = next;
+        }
+        while(rescheduled != null) {
+            Entry next = rescheduled.next;
+            insert(rescheduled, rescheduled.deadline, currentTick + 1);
+            rescheduled = next;
+        }
+        return ticked;
+    }
+
+    /**
+     * Hands the ids of the timers that expired during the tick to the listeners, on their executors.
+     */
+    private void dispatchExpired() {
+        if(expiredCount == 0) {
+            return;
+        }
+        long[] ids = Arrays.copyOf(expired, expiredCount);
+        expiredCount = 0;
+        for(ExpiryDispatch dispatch : expiryDispatches) {
+            try {
+                dispatch.executor.execute(() -> dispatch.deliver(ids));
+            } catch (RejectedExecutionException e) {
+                LOGGER.log(Level.WARNING, "Expired timers could not be handed to " + dispatch.listener + ".", e);
+            }
+        }
+    }
+
+    /**
+     * Inserts an entry into the bucket of the tick at which it is due.
+     * @param entry the entry.
+     * @param deadline the time at which the entry is due, relative to the start of the scheduler thread.
+     * @param earliestTick the earliest tick of the wheel the entry can be inserted at.
+     */
+    private void insert(Entry entry, long deadline, long earliestTick) {
+        entry.deadline = deadline;
+        long dueTick = Math.max((deadline + tickNanos - 1) / tickNanos - 1, earliestTick);
+        // the bucket is next visited on the earliest tick, so the rounds are counted from there.
+        entry.rounds = (dueTick - earliestTick) / wheel.length;
+        int index = (int) (dueTick & mask);
+
+        entry.bucket = index;
+        entry.prev = null;
+        entry.next = wheel[index];
+        if(wheel[index] != null) {
+            wheel[index].prev = entry;
+        }
+        wheel[index] = entry;
+        size++;
+    }
+
+    /**
+     * Removes an entry from its bucket.
+     * @param entry the entry.
+     */
+    private void unlink(Entry entry) {
+        if(entry.prev != null) {
+            entry.prev.next = entry.next;
+        }
+        else {
+            wheel[entry.bucket] = entry.next;
+        }
+        if(entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.bucket = -1;
+        size--;
+    }
+
+    /**
+     * The entry of a Timeable in the wheel.
+     */
+    static final class Entry {
+        /**
+         * The Timeable.
+         */
+        final Timeable timeable;
+
+        /**
+         * The time at which the next tick is due, relative to the start of the scheduler thread.
+         */
+        long deadline;
+
+        /**
+         * The number of turns of the wheel left before the entry is due.
+         */
+        long rounds;
+
+        /**
+         * The bucket holding the entry, or -1 if the entry is not in the wheel.
+         */
+        int bucket = -1;
+
+        /**
+         * The previous entry in the bucket.
+         */
+        Entry prev;
+
+        /**
+         * The next entry in the bucket.
+         */
+        Entry next;
+
+        /**
+         * Constructs an {@code Entry}.
+         * @param timeable the Timeable.
+         */
+        Entry(Timeable timeable) {
+            this.timeable = timeable;
+        }
+    }
+
+    /**
+     * An operation waiting to be applied by the scheduler thread.
+     */
+    private static final class Operation {
+        /**
+         * The Timeable the operation applies to.
+         */
+        final Timeable timeable;
+
+        /**
+         * {@code true} to drive the ticks of the Timeable, and {@code false} to stop driving them.
+         */
+        final boolean register;
+
+        /**
+         * Constructs an {@code Operation}.
+         * @param timeable the Timeable.
+         * @param register whether to drive the ticks of the Timeable.
+         */
+        Operation(Timeable timeable, boolean register) {
+            this.timeable = timeable;
+            this.register = register;
+        }
+    }
+
+    /**
+     * A listener receiving the timers that expire, with its executor.
+     */
+    private static final class ExpiryDispatch {
+        /**
+         * The listener.
+         */
+        final ExpiryBatchListener listener;
+
+        /**
+         * The executor the listener is called on.
+         */
+        final Executor executor;
+
+        /**
+         * Constructs an {@code ExpiryDispatch}.
+         * @param listener the listener.
+         * @param executor the executor the listener is called on.
+         */
+        ExpiryDispatch(ExpiryBatchListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        /**
+         * Calls the listener. A failing listener does not stop the thread it runs on, which may be the scheduler thread.
+         * @param ids the ids of the timers that expired.
+         */
+        void deliver(long[] ids) {
+            try {
+                listener.timersExpired(ids);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Expiry batch listener " + listener + " failed.", e);
+            }
+        }
+    }
+
+    /**
+     * Lazily holds the shared scheduler.
+     */
+    private static final class SharedHolder {
+        /**
+         * The shared scheduler.
+         */
+        static final TickScheduler SHARED = new TickScheduler();
+    }
+}
@@ -1,32 +1,24 @@
 package com.theschool.clock.model;
 
-import java.util.Objects;
-
 /**
  * Represents a time.
+ * <p>
+ * A {@code Time} is a mutable facade over a single {@code long} of nanoseconds. New code should
+ * prefer the immutable {@link TimeSpan}.
  *
  * @see Timeable
  * @see Stopwatch
  * @see Timer
+ * @see TimeSpan
  *
  * @author Thomas Munguya.
  */
 public class Time {
 
     /**
-     * The hour of the time.
-     */
-    private int hour;
-
-    /**
-     * The minute of the time.
-     */
-    private int minute;
-
-    /**
-     * The second of the time.
+     * The value of the time, in nanoseconds.
      */
-    private int second;
+    private long nanos;
 
     /**
      * Constructs a new {@code Time}.
@@ -36,6 +28,8 @@ public class Time {
 
     /**
      * Constructs a new {@code Time} with the provided arguments.
+     * <p>
+     * The value saturates at {@link Long#MAX_VALUE} nanoseconds, about 2,562,047 hours.
      * @param hour the hour.
      * @param minute the minute.
      * @param second the second.
@@ -45,7 +39,32 @@ public class Time {
         validateEntry(hour, "hour");
         validateEntry(minute, "minute");
         validateEntry(second, "second");
-        adjustTime(hour, minute, second);
+        this.nanos = TimeSpan.toNanos(hour, minute, second);
+    }
+
+    /**
+     * Constructs a new {@code Time} with the value of the provided span.
+     * @param span the span.
+     * @throws IllegalArgumentException if {@code span} is {@code null}.
+     */
+    public Time(TimeSpan span) {
+        if(span == null) {
+            throw new IllegalArgumentException("Time span argument cannot be null.");
+        }
+        this.nanos = span.toNanos();
+    }
+
+    /**
+     * Returns a {@code Time} with the provided value.
+     * @param nanos the value, in nanoseconds.
+     * @return the time.
+     * @throws IllegalArgumentException if {@code nanos} is less than zero.
+     */
+    public static Time ofNanos(long nanos) {
+        validateEntry(nanos, "nanos");
+        Time time = new Time();
+        time.nanos = nanos;
+        return time;
     }
 
     /**
@@ -53,7 +72,7 @@ public class Time {
      * @return the hour.
      */
     public int getHour() {
-        return hour;
+        return TimeSpan.hoursOf(nanos);
     }
 
     /**
@@ -63,7 +82,7 @@ public class Time {
      */
     public void setHour(int hour) {
         validateEntry(hour, "hour");
-        this.hour = hour;
+        nanos = TimeSpan.addNanos(TimeSpan.toNanos(hour, getMinute(), getSecond()), nanos % TimeSpan.NANOS_PER_SECOND);
     }
 
     /**
@@ -71,7 +90,7 @@ public class Time {
      * @return the minute.
      */
     public int getMinute() {
-        return minute;
+        return TimeSpan.minutesOf(nanos);
     }
 
     /**
@@ -81,7 +100,7 @@ public class Time {
      */
     public void setMinute(int minute) {
         validateEntry(minute, "minute");
-        this.minute = minute;
+        nanos = TimeSpan.addNanos(TimeSpan.toNanos(getHour(), minute, getSecond()), nanos % TimeSpan.NANOS_PER_SECOND);
     }
 
     /**
@@ -89,7 +108,7 @@ public class Time {
      * @return the second.
      */
     public int getSecond() {
-        return second;
+        return TimeSpan.secondsOf(nanos);
     }
 
     /**
@@ -99,7 +118,23 @@ public class Time {
      */
     public void setSecond(int second) {
         validateEntry(second, "second");
-        this.second = second;
+        nanos = TimeSpan.addNanos(TimeSpan.toNanos(getHour(), getMinute(), second), nanos % TimeSpan.NANOS_PER_SECOND);
+    }
+
+    /**
+     * Returns the value of this time, in nanoseconds.
+     * @return the value in nanoseconds.
+     */
+    public long toNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the value of this time as an immutable span.
+     * @return the span.
+     */
+    public TimeSpan toTimeSpan() {
+        return TimeSpan.ofNanos(nanos);
     }
 
     /**
@@ -112,80 +147,20 @@ public class Time {
         if(t == null) {
             throw new IllegalArgumentException("Time argument cannot be null.");
         }
-
-        // add the hours
-        int resultHour = getHour() + t.getHour();
-
-        // add the minutes
-        int resultMinute = getMinute() + t.getMinute();
-        // if the minutes are 60 or more,
-        if(resultMinute >= 60) {
-            // subtract 60 from the minutes
-            resultMinute -= 60;
-            // add 1 to the hours
-            resultHour++;
-        }
-
-        // add the seconds
-        int resultSecond = getSecond() + t.getSecond();
-        // if the seconds are 60 or more,
-        if(resultSecond >= 60) {
-            // subtract 60 from the seconds
-            resultSecond -= 60;
-            // add 1 to the minutes
-            resultMinute++;
-        }
-
-        return new Time(resultHour, resultMinute, resultSecond);
+        return ofNanos(TimeSpan.addNanos(nanos, t.nanos));
     }
 
     /**
-     * Subtracts {@code t} from this time.
-     * @param t the time to add to this time.
-     * @return the result of adding {@code t} to this time.
+     * Subtracts {@code t} from this time. The result is never less than 00:00:00.
+     * @param t the time to subtract from this time.
+     * @return the result of subtracting {@code t} from this time.
      * @throws IllegalArgumentException if {@code t} is {@code null}.
      */
     public Time subtract(Time t) {
         if(t == null) {
             throw new IllegalArgumentException("Time argument cannot be null.");
         }
-
-        // subtract the hours
-        int resultHour = getHour() - t.getHour();
-
-        // subtract the minutes
-        int resultMinute = getMinute() - t.getMinute();
-        // if the minutes are less than 0
-        if(resultMinute < 0) {
-            // add 60 to the minutes
-            resultMinute += 60;
-            // subtract 1 from the hours
-            resultHour--;
-        }
-
-        // subtract the seconds
-        int resultSecond = getSecond() - t.getSecond();
-        // if the seconds are less than 0
-        if(resultSecond < 0) {
-            // check if the minutes are greater than 0. If so...
-            if(resultMinute > 0) {
-                // subtract 1 from the minutes.
-                resultMinute--;
-                // and add 60 to the seconds.
-                resultSecond += 60;
-            }
-            // otherwise
-            else if(resultHour > 0) {
-                // subtract 1 from the hours.
-                resultHour--;
-                // add 59 to the minutes.
-                resultMinute += 59;
-                // and add 60 to the seconds.
-                resultSecond += 60;
-            }
-        }
-
-        return new Time(resultHour, resultMinute, resultSecond);
+        return ofNanos(TimeSpan.subtractNanos(nanos, t.nanos));
     }
 
     /**
@@ -194,33 +169,7 @@ public class Time {
      */
     @Override
     public String toString() {
-        return String.format("%s:%s:%s",
-                getHour() > 9 ? getHour() : "0" + getHour(),
-                getMinute() > 9 ? getMinute() : "0" + getMinute(),
-                getSecond() > 9 ? getSecond() : "0" + getSecond());
-    }
-
-    /**
-     * Helper method for adjusting the time.
-     * @param hours the hours of the time to adjust.
-     * @param minutes the minutes of the time to adjust.
-     * @param seconds the seconds of the time to adjust.
-     */
-    private void adjustTime(int hours, int minutes, int seconds) {
-
-        if(minutes >= 60) {
-            hours = minutes / 60;
-            minutes %= 60;
-        }
-
-        if(seconds >= 60) {
-            minutes = seconds / 60;
-            seconds %= 60;
-        }
-
-        this.hour = hours;
-        this.minute = minutes;
-        this.second = seconds;
+        return TimeSpan.format(nanos);
     }
 
     /**
@@ -230,8 +179,7 @@ public class Time {
     public boolean equals(Object otherTime) {
         if (this == otherTime) return true;
         if (otherTime == null || getClass() != otherTime.getClass()) return false;
-        Time time = (Time) otherTime;
-        return hour == time.hour && minute == time.minute && second == time.second;
+        return nanos == ((Time) otherTime).nanos;
     }
 
     /**
@@ -239,7 +187,7 @@ public class Time {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(hour, minute, second);
+        return Long.hashCode(nanos);
     }
 
     /**
@@ -248,7 +196,7 @@ public class Time {
      * @param entry the name of the entry, e.g hour.
      * @throws IllegalArgumentException if {@code value} is less than zero.
      */
-    private void validateEntry(int value, String entry) {
+    private static void validateEntry(long value, String entry) {
         if(value < 0) {
             throw new IllegalArgumentException("Invalid value provided for " + entry + ".");
         }
@@ -0,0 +1,53 @@
+package com.theschool.clock.model;
+
+/**
+ * Receives the output of a {@link Timeable}.
+ * <p>
+ * A Timeable hands its time to its sink on every tick, as a primitive number of nanoseconds, and
+ * tells it about every change of state. What the sink does with them is up to it: display them,
+ * count them, log them, or nothing at all. Sinks are called from the thread that drives the
+ * Timeable or changes its state, so they must be quick and thread-safe.
+ *
+ * @see Timeable#setTimeSink(TimeSink)
+ * @see TimeSinks
+ *
+ * @author Thomas Munguya
+ */
+@FunctionalInterface
+public interface TimeSink {
+
+    /**
+     * Receives the time of a Timeable: the elapsed time of a stopwatch, or the remaining time of a timer.
+     * @param nanos the time, in nanoseconds.
+     */
+    void onTick(long nanos);
+
+    /**
+     * Returns whether this sink does anything with the ticks of a Timeable. Returns {@code true} by default.
+     * <p>
+     * A sink that only follows changes of state returns {@code false}, so that a stopwatch whose
+     * sinks all ignore its ticks is not ticked at all.
+     * @return {@code true} if {@link #onTick(long)} is to be called, and {@code false} otherwise.
+     * @see TimeSinks#compose(TimeSink...)
+     */
+    default boolean wantsTicks() {
+        return true;
+    }
+
+    /**
+     * Receives a change of state of a Timeable. Does nothing by default.
+     * @param source the Timeable.
+     * @param previous the state before the change.
+     * @param current the state after the change.
+     */
+    default void onStateChanged(Timeable source, Timeable.State previous, Timeable.State current) {
+    }
+
+    /**
+     * Receives a lap of a stopwatch, once it is recorded. Does nothing by default.
+     * @param source the stopwatch.
+     * @param elapsedNanos the elapsed time of the stopwatch at the lap, in nanoseconds.
+     */
+    default void onLap(Stopwatch source, long elapsedNanos) {
+    }
+}
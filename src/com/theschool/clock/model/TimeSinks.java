@@ -0,0 +1,95 @@
+package com.theschool.clock.model;
+
+import java.util.Arrays;
+
+/**
+ * Helper class containing common {@link TimeSink}s.
+ *
+ * @author Thomas Munguya
+ */
+public final class TimeSinks {
+    private TimeSinks() {}
+
+    /**
+     * Defines the sink that ignores everything.
+     */
+    private static final TimeSink NO_OP = new TimeSink() {
+        @Override
+        public void onTick(long nanos) {
+        }
+
+        @Override
+        public boolean wantsTicks() {
+            return false;
+        }
+    };
+
+    /**
+     * Returns a sink that ignores everything.
+     * <p>
+     * A stopwatch with this sink is not ticked at all, since nothing would receive its ticks.
+     * @return the sink.
+     */
+    public static TimeSink noOp() {
+        return NO_OP;
+    }
+
+    /**
+     * Returns whether a sink is the sink that ignores everything.
+     * @param sink the sink.
+     * @return {@code true} if {@code sink} is {@link #noOp()}, and {@code false} otherwise.
+     */
+    public static boolean isNoOp(TimeSink sink) {
+        return sink == NO_OP;
+    }
+
+    /**
+     * Returns a sink that forwards everything to each of the provided sinks, in order.
+     * <p>
+     * Ticks are only forwarded to the sinks that want them, and the sink only wants ticks if one
+     * of them does.
+     * @param sinks the sinks.
+     * @return the sink.
+     * @throws IllegalArgumentException if {@code sinks} or any of its elements is {@code null}.
+     */
+    public static TimeSink compose(TimeSink... sinks) {
+        if(sinks == null || Arrays.asList(sinks).contains(null)) {
+            throw new IllegalArgumentException("Sinks argument cannot contain null.");
+        }
+        TimeSink[] targets = Arrays.stream(sinks).filter((sink) -> sink != NO_OP).toArray(TimeSink[]::new);
+        if(targets.length == 0) {
+            return NO_OP;
+        }
+        if(targets.length == 1) {
+            return targets[0];
+        }
+        TimeSink[] tickTargets = Arrays.stream(targets).filter(TimeSink::wantsTicks).toArray(TimeSink[]::new);
+        return new TimeSink() {
+            @Override
+            public void onTick(long nanos) {
+                for(TimeSink sink : tickTargets) {
+                    sink.onTick(nanos);
+                }
+            }
+
+            @Override
+            public boolean wantsTicks() {
+                return tickTargets.length > 0;
+            }
+
+            @Override
+            public void onStateChanged(Timeable source, Timeable.State previous, Timeable.State current) {
+                for(TimeSink sink : targets) {
+                    sink.onStateChanged(source, previous, current);
+                }
+            }
+
+            @Override
+            public void onLap(Stopwatch source, long elapsedNanos) {
+                for(TimeSink sink : targets) {
+                    sink.onLap(source, elapsedNanos);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,322 @@
+package com.theschool.clock.model;
+
+import com.theschool.clock.util.TimeFormatter;
+
+/**
+ * Represents an immutable span of time.
+ * <p>
+ * A {@code TimeSpan} is backed by a single {@code long} of nanoseconds. The primitive
+ * {@link #addNanos(long, long)} and {@link #subtractNanos(long, long)} helpers let the tick
+ * loops work on plain {@code long} values, so that counting time does not allocate.
+ *
+ * @see Time
+ * @see Timeable
+ *
+ * @author Thomas Munguya
+ */
+public final class TimeSpan implements Comparable<TimeSpan> {
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * The number of nanoseconds in a minute.
+     */
+    public static final long NANOS_PER_MINUTE = 60 * NANOS_PER_SECOND;
+
+    /**
+     * The number of nanoseconds in an hour.
+     */
+    public static final long NANOS_PER_HOUR = 60 * NANOS_PER_MINUTE;
+
+    /**
+     * A span of zero length. It has a value of 00:00:00.
+     */
+    public static final TimeSpan ZERO = new TimeSpan(0);
+
+    /**
+     * A span of one second.
+     */
+    public static final TimeSpan ONE_SECOND = new TimeSpan(NANOS_PER_SECOND);
+
+    /**
+     * The length of this span, in nanoseconds.
+     */
+    private final long nanos;
+
+    /**
+     * Constructs a new {@code TimeSpan}.
+     * @param nanos the length of the span, in nanoseconds.
+     */
+    private TimeSpan(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns a span of the provided length.
+     * @param nanos the length of the span, in nanoseconds.
+     * @return the span.
+     * @throws IllegalArgumentException if {@code nanos} is less than zero.
+     */
+    public static TimeSpan ofNanos(long nanos) {
+        if(nanos < 0) {
+            throw new IllegalArgumentException("Invalid value provided for nanos.");
+        }
+        if(nanos == 0) {
+            return ZERO;
+        }
+        if(nanos == NANOS_PER_SECOND) {
+            return ONE_SECOND;
+        }
+        return new TimeSpan(nanos);
+    }
+
+    /**
+     * Returns a span of the provided length.
+     * @param seconds the length of the span, in seconds.
+     * @return the span.
+     * @throws IllegalArgumentException if {@code seconds} is less than zero.
+     */
+    public static TimeSpan ofSeconds(long seconds) {
+        if(seconds < 0) {
+            throw new IllegalArgumentException("Invalid value provided for seconds.");
+        }
+        return ofNanos(saturatedMultiply(seconds, NANOS_PER_SECOND));
+    }
+
+    /**
+     * Returns a span of the provided hours, minutes and seconds.
+     * @param hours the hours.
+     * @param minutes the minutes.
+     * @param seconds the seconds.
+     * @return the span, saturating at {@link Long#MAX_VALUE} nanoseconds.
+     * @throws IllegalArgumentException if any of the provided arguments is less than zero.
+     */
+    public static TimeSpan of(int hours, int minutes, int seconds) {
+        if(hours < 0 || minutes < 0 || seconds < 0) {
+            throw new IllegalArgumentException("Invalid value provided for time span.");
+        }
+        return ofNanos(toNanos(hours, minutes, seconds));
+    }
+
+    /**
+     * Returns the length of this span, in nanoseconds.
+     * @return the length in nanoseconds.
+     */
+    public long toNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the number of whole seconds in this span.
+     * @return the length in whole seconds.
+     */
+    public long toSeconds() {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Returns the hours part of this span.
+     * @return the hours.
+     */
+    public int getHours() {
+        return hoursOf(nanos);
+    }
+
+    /**
+     * Returns the minutes part of this span.
+     * @return the minutes, from 0 to 59.
+     */
+    public int getMinutes() {
+        return minutesOf(nanos);
+    }
+
+    /**
+     * Returns the seconds part of this span.
+     * @return the seconds, from 0 to 59.
+     */
+    public int getSeconds() {
+        return secondsOf(nanos);
+    }
+
+    /**
+     * Adds {@code span} to this span.
+     * @param span the span to add.
+     * @return the result of adding {@code span} to this span.
+     * @throws IllegalArgumentException if {@code span} is {@code null}.
+     */
+    public TimeSpan plus(TimeSpan span) {
+        if(span == null) {
+            throw new IllegalArgumentException("Time span argument cannot be null.");
+        }
+        return plusNanos(span.nanos);
+    }
+
+    /**
+     * Subtracts {@code span} from this span. The result is never less than {@link #ZERO}.
+     * @param span the span to subtract.
+     * @return the result of subtracting {@code span} from this span.
+     * @throws IllegalArgumentException if {@code span} is {@code null}.
+     */
+    public TimeSpan minus(TimeSpan span) {
+        if(span == null) {
+            throw new IllegalArgumentException("Time span argument cannot be null.");
+        }
+        return minusNanos(span.nanos);
+    }
+
+    /**
+     * Adds {@code delta} nanoseconds to this span.
+     * @param delta the nanoseconds to add, which must not be negative.
+     * @return the resulting span, or this span if {@code delta} is zero.
+     * @throws IllegalArgumentException if {@code delta} is less than zero.
+     */
+    public TimeSpan plusNanos(long delta) {
+        validateDelta(delta);
+        return delta == 0 ? this : ofNanos(addNanos(nanos, delta));
+    }
+
+    /**
+     * Subtracts {@code delta} nanoseconds from this span. The result is never less than {@link #ZERO}.
+     * @param delta the nanoseconds to subtract, which must not be negative.
+     * @return the resulting span, or this span if {@code delta} is zero.
+     * @throws IllegalArgumentException if {@code delta} is less than zero.
+     */
+    public TimeSpan minusNanos(long delta) {
+        validateDelta(delta);
+        return delta == 0 ? this : ofNanos(subtractNanos(nanos, delta));
+    }
+
+    /**
+     * Adds two non-negative nanosecond values without allocating.
+     * <p>
+     * The result saturates at {@link Long#MAX_VALUE}.
+     * @param nanos the value to add to.
+     * @param delta the value to add.
+     * @return the sum.
+     */
+    public static long addNanos(long nanos, long delta) {
+        long result = nanos + delta;
+        return result < 0 ? Long.MAX_VALUE : result;
+    }
+
+    /**
+     * Subtracts a non-negative nanosecond value from another without allocating.
+     * <p>
+     * The result is never less than zero.
+     * @param nanos the value to subtract from.
+     * @param delta the value to subtract.
+     * @return the difference.
+     */
+    public static long subtractNanos(long nanos, long delta) {
+        return Math.max(nanos - delta, 0);
+    }
+
+    /**
+     * Converts non-negative hours, minutes and seconds to nanoseconds.
+     * <p>
+     * The result saturates at {@link Long#MAX_VALUE}, like {@link #ofSeconds(long)}.
+     * @param hours the hours.
+     * @param minutes the minutes.
+     * @param seconds the seconds.
+     * @return the total, in nanoseconds.
+     */
+    static long toNanos(long hours, long minutes, long seconds) {
+        return addNanos(addNanos(saturatedMultiply(hours, NANOS_PER_HOUR), saturatedMultiply(minutes, NANOS_PER_MINUTE)),
+                saturatedMultiply(seconds, NANOS_PER_SECOND));
+    }
+
+    /**
+     * Returns the hours part of a nanosecond value.
+     * @param nanos the value.
+     * @return the hours.
+     */
+    static int hoursOf(long nanos) {
+        return (int) (nanos / NANOS_PER_HOUR);
+    }
+
+    /**
+     * Returns the minutes part of a nanosecond value.
+     * @param nanos the value.
+     * @return the minutes, from 0 to 59.
+     */
+    static int minutesOf(long nanos) {
+        return (int) (nanos % NANOS_PER_HOUR / NANOS_PER_MINUTE);
+    }
+
+    /**
+     * Returns the seconds part of a nanosecond value.
+     * @param nanos the value.
+     * @return the seconds, from 0 to 59.
+     */
+    static int secondsOf(long nanos) {
+        return (int) (nanos % NANOS_PER_MINUTE / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Formats a nanosecond value as {@code HH:MM:SS}.
+     * @param nanos the value.
+     * @return the formatted value.
+     * @see TimeFormatter
+     */
+    public static String format(long nanos) {
+        return TimeFormatter.toString(nanos, 0);
+    }
+
+    /**
+     * Validates a nanosecond delta.
+     * @param delta the delta.
+     * @throws IllegalArgumentException if {@code delta} is less than zero.
+     */
+    private static void validateDelta(long delta) {
+        if(delta < 0) {
+            throw new IllegalArgumentException("Invalid value provided for delta.");
+        }
+    }
+
+    /**
+     * Multiplies two non-negative values, saturating at {@link Long#MAX_VALUE}.
+     * @param a the first value.
+     * @param b the second value.
+     * @return the product.
+     */
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return high != 0 || low < 0 ? Long.MAX_VALUE : low;
+    }
+
+    @Override
+    public int compareTo(TimeSpan other) {
+        return Long.compare(nanos, other.nanos);
+    }
+
+    /**
+     * Returns {@code true} if this span is equal to {@code other}.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (other == null || getClass() != other.getClass()) return false;
+        return nanos == ((TimeSpan) other).nanos;
+    }
+
+    /**
+     * Returns a suitable hash code for this span.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(nanos);
+    }
+
+    /**
+     * Returns a string representation of this span.
+     * @return the string representation of this span.
+     */
+    @Override
+    public String toString() {
+        return format(nanos);
+    }
+}
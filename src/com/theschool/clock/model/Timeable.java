@@ -1,33 +1,111 @@
 package com.theschool.clock.model;
 
-import javax.swing.text.JTextComponent;
+import com.theschool.clock.jfr.TransitionEvent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * The {@code Timeable} class is the superclass of all entities that are timeable.
+ * <p>
+ * A Timeable does its periodic work in {@link #tick()}. How its ticks are driven is decided by its
+ * {@link ExecutionStrategy}, which defaults to the shared {@link TickScheduler}. It can also be
+ * driven by running it as a {@link Runnable}.
+ * <p>
+ * The state and time of a Timeable are held together in an immutable {@link Snapshot}, which is
+ * replaced atomically on every transition. Reading the time is a single volatile read, and the
+ * control methods may be called from any thread: a transition either applies to the snapshot it
+ * read or retries on the newer one, so concurrent calls can never leave a torn state behind.
+ * <p>
+ * A Timeable knows nothing about how it is displayed. It hands its time and its changes of state
+ * to a {@link TimeSink}, which may display them, count them, log them, or ignore them.
+ *
+ * @see TimeSink
+ * @see ExecutionStrategy
+ * @see TickScheduler
  *
  * @author Thomas Munguya
  */
-public abstract class Timeable {
+public abstract class Timeable implements Runnable {
+
+    /**
+     * The states of a Timeable.
+     */
+    public enum State {
+        /**
+         * The Timeable has not started, or has been reset.
+         */
+        IDLE,
+
+        /**
+         * The Timeable is counting time.
+         */
+        RUNNING,
+
+        /**
+         * The Timeable has been paused.
+         */
+        PAUSED,
+
+        /**
+         * The Timeable has run out of time. Only timers expire.
+         */
+        EXPIRED
+    }
+
+    /**
+     * Defines the delay before a Timeable whose tick failed is ticked again, in nanoseconds.
+     */
+    static final long RETRY_NANOS = TimeSpan.NANOS_PER_SECOND;
+
+    /**
+     * Defines the logger of the ticks that fail.
+     */
+    private static final Logger LOGGER = Logger.getLogger(Timeable.class.getName());
+
+    /**
+     * Defines the sequence from which Timeables take their ids.
+     */
+    private static final AtomicLong ids = new AtomicLong();
+
     /**
-     * Defines the underlying time of this Timeable.
+     * Defines the id of this Timeable, unique within the application.
      */
-    protected Time time;
+    private final long id = ids.incrementAndGet();
 
     /**
-     * Defines the running state of this Timeable.
+     * Defines the state and time of this Timeable.
      */
-    protected boolean running;
+    private final AtomicReference<Snapshot> snapshot;
 
     /**
-     * Defines the component to which this Timeable will write its time.
+     * Defines the sink that receives the output of this Timeable.
      */
-    protected JTextComponent component;
+    private volatile TimeSink sink = TimeSinks.noOp();
+
+    /**
+     * Defines the entry of this Timeable in a {@link TickScheduler}. It is only accessed by the scheduler thread.
+     */
+    TickScheduler.Entry schedulerEntry;
+
+    /**
+     * Defines the thread driving this Timeable when it has a thread of its own.
+     */
+    volatile Thread driver;
+
+    /**
+     * Defines how the ticks of this Timeable are driven.
+     */
+    private volatile ExecutionStrategy executionStrategy = ExecutionStrategy.sharedScheduler();
 
     /**
      * Constructs a new {@code Timeable}.
      */
     public Timeable() {
-        this.time = new Time();
+        this.snapshot = new AtomicReference<>(new Snapshot(State.IDLE, 0, 0));
     }
 
     /**
@@ -39,42 +117,79 @@ public abstract class Timeable {
         if(time == null) {
             throw new IllegalArgumentException("Time argument cannot be null.");
         }
-        this.time = time;
+        this.snapshot = new AtomicReference<>(new Snapshot(State.IDLE, time.toNanos(), 0));
     }
 
     /**
      * Constructs a {@code Timeable} with the provided arguments.
+     * <p>
+     * A Timeable constructed in the running state is not driven until it is run as a {@link Runnable}.
      * @param running the running state of this Timeable.
-     * @param component the component to write the time to.
-     * @throws IllegalArgumentException if {@code component} is {@code null}.
+     * @param sink the sink that receives the output of this Timeable.
+     * @throws IllegalArgumentException if {@code sink} is {@code null}.
      */
-    public Timeable(boolean running, JTextComponent component) {
-        if(component == null) {
-            throw new IllegalArgumentException("Component argument cannot be null.");
+    public Timeable(boolean running, TimeSink sink) {
+        if(sink == null) {
+            throw new IllegalArgumentException("Sink argument cannot be null.");
         }
-        this.running = running;
-        this.component = component;
-        this.time = new Time();
+        this.snapshot = new AtomicReference<>(initialSnapshot(0, running));
+        this.sink = sink;
     }
 
 
     /**
      * Constructs a {@code Timeable} with the provided arguments.
+     * <p>
+     * A Timeable constructed in the running state is not driven until it is run as a {@link Runnable}.
      * @param time the time associated with this Timeable.
      * @param running the running state of this Timeable.
-     * @param component the component to write the time to.
-     * @throws IllegalArgumentException if {@code component} or {@code time} is {@code null}.
+     * @param sink the sink that receives the output of this Timeable.
+     * @throws IllegalArgumentException if {@code sink} or {@code time} is {@code null}.
      */
-    public Timeable(Time time, boolean running, JTextComponent component) {
-        if(component == null) {
-            throw new IllegalArgumentException("Component argument cannot be null.");
+    public Timeable(Time time, boolean running, TimeSink sink) {
+        if(sink == null) {
+            throw new IllegalArgumentException("Sink argument cannot be null.");
         }
         if(time == null) {
             throw new IllegalArgumentException("Time argument cannot be null.");
         }
-        this.time = time;
-        this.running = running;
-        this.component = component;
+        this.snapshot = new AtomicReference<>(initialSnapshot(time.toNanos(), running));
+        this.sink = sink;
+    }
+
+    /**
+     * Returns the id of this Timeable, unique within the application.
+     * @return the id, greater than zero.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the sink that receives the output of this Timeable.
+     * @return the sink.
+     */
+    public TimeSink getTimeSink() {
+        return sink;
+    }
+
+    /**
+     * Sets the sink that receives the output of this Timeable.
+     * <p>
+     * If the Timeable is running and its previous sink did not want its ticks, it is ticked right
+     * away, since it was either not ticked at all or only due to be ticked on a deadline.
+     * @param sink the sink.
+     * @throws IllegalArgumentException if {@code sink} is {@code null}.
+     */
+    public void setTimeSink(TimeSink sink) {
+        if(sink == null) {
+            throw new IllegalArgumentException("Sink argument cannot be null.");
+        }
+        boolean wanted = this.sink.wantsTicks();
+        this.sink = sink;
+        if(!wanted && sink.wantsTicks() && isRunning()) {
+            executionStrategy.start(this);
+        }
     }
 
     /**
@@ -82,11 +197,19 @@ public abstract class Timeable {
      * @return the time.
      */
     public Time getTime() {
-        return time;
+        return Time.ofNanos(getNanos());
+    }
+
+    /**
+     * Returns the time, in nanoseconds.
+     * @return the time in nanoseconds.
+     */
+    public long getNanos() {
+        return valueAt(snapshot.get(), System.nanoTime());
     }
 
     /**
-     * Sets the time.
+     * Sets the time. The state of this Timeable does not change.
      * @param t the new time.
      * @throws IllegalArgumentException if {@code t} is {@code null}.
      */
@@ -94,7 +217,23 @@ public abstract class Timeable {
         if(t == null) {
             throw new IllegalArgumentException("Time argument cannot be null.");
         }
-        time = t;
+        long value = t.toNanos();
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            next = current.state == State.RUNNING
+                    ? new Snapshot(State.RUNNING, value, markAt(value, System.nanoTime()))
+                    : new Snapshot(current.state, value, 0);
+        } while(!snapshot.compareAndSet(current, next));
+    }
+
+    /**
+     * Returns the state of this Timeable.
+     * @return the state.
+     */
+    public State getState() {
+        return snapshot.get().state;
     }
 
     /**
@@ -102,19 +241,311 @@ public abstract class Timeable {
      * @return {@code true} if the Timeable is running, and {@code false} otherwise.
      */
     public boolean isRunning() {
-        return running;
+        return snapshot.get().state == State.RUNNING;
     }
 
     /**
-     * Sets running state of this {@code Timeable}.
+     * Sets running state of this {@code Timeable}, without changing how its ticks are driven.
+     * <p>
+     * Setting it to {@code true} starts or resumes the Timeable, and setting it to {@code false}
+     * pauses it. Prefer {@link #start()}, {@link #resume()} and {@link #pause()}.
      * @param running the new running state.
      */
     public void setRunning(boolean running) {
-        this.running = running;
+        if(running) {
+            if(!transitionToRunning(State.IDLE)) {
+                transitionToRunning(State.PAUSED);
+            }
+        }
+        else {
+            transitionToPaused();
+        }
+    }
+
+    /**
+     * Makes this idle Timeable paused at the provided time, such as when it is restored from a journal.
+     * <p>
+     * Unlike starting then pausing it, the time is exactly the one provided, and no change of state
+     * reaches its sink.
+     * @param t the time.
+     * @return {@code true} if the Timeable was idle and is now paused, and {@code false} otherwise.
+     * @throws IllegalArgumentException if {@code t} is {@code null}.
+     */
+    public boolean restorePaused(Time t) {
+        if(t == null) {
+            throw new IllegalArgumentException("Time argument cannot be null.");
+        }
+        Snapshot current = snapshot.get();
+        return current.state == State.IDLE
+                && snapshot.compareAndSet(current, new Snapshot(State.PAUSED, t.toNanos(), 0));
+    }
+
+    /**
+     * Returns how the ticks of this Timeable are driven.
+     * @return the execution strategy.
+     */
+    public ExecutionStrategy getExecutionStrategy() {
+        return executionStrategy;
+    }
+
+    /**
+     * Sets how the ticks of this Timeable are driven. It takes effect the next time the Timeable starts.
+     * @param executionStrategy the execution strategy.
+     * @throws IllegalArgumentException if {@code executionStrategy} is {@code null}.
+     */
+    public void setExecutionStrategy(ExecutionStrategy executionStrategy) {
+        if(executionStrategy == null) {
+            throw new IllegalArgumentException("Execution strategy argument cannot be null.");
+        }
+        this.executionStrategy = executionStrategy;
+    }
+
+    /**
+     * Starts this Timeable if it is idle, and drives its ticks with its execution strategy.
+     * @return {@code true} if the Timeable started, and {@code false} if it was not idle.
+     */
+    public boolean start() {
+        if(!transitionToRunning(State.IDLE)) {
+            return false;
+        }
+        if(needsTicks()) {
+            executionStrategy.start(this);
+        }
+        return true;
     }
 
     /**
-     * Resets the time for this Timeable.
+     * Resumes this Timeable if it is paused, and drives its ticks with its execution strategy.
+     * @return {@code true} if the Timeable resumed, and {@code false} if it was not paused.
      */
-    public abstract void reset();
+    public boolean resume() {
+        if(!transitionToRunning(State.PAUSED)) {
+            return false;
+        }
+        if(needsTicks()) {
+            executionStrategy.start(this);
+        }
+        return true;
+    }
+
+    /**
+     * Pauses this Timeable if it is running, and stops driving its ticks.
+     * @return {@code true} if the Timeable paused, and {@code false} if it was not running.
+     */
+    public boolean pause() {
+        if(!transitionToPaused()) {
+            return false;
+        }
+        executionStrategy.stop(this);
+        return true;
+    }
+
+    /**
+     * Resets the time for this Timeable, whatever its state, and makes it idle.
+     */
+    public void reset() {
+        long initial = getInitialNanos();
+        Snapshot previous = snapshot.getAndSet(new Snapshot(State.IDLE, initial, 0));
+        fireStateChanged(previous.state, State.IDLE);
+        sink.onTick(initial);
+    }
+
+    /**
+     * Hands a time to the sink of this Timeable.
+     * @param nanos the time, in nanoseconds.
+     */
+    protected final void publish(long nanos) {
+        sink.onTick(nanos);
+    }
+
+    /**
+     * Tells the sink of this Timeable about a change of state.
+     * @param previous the state before the change.
+     * @param current the state after the change.
+     */
+    protected final void fireStateChanged(State previous, State current) {
+        if(previous != current) {
+            TransitionEvent.emit(id, getClass(), previous.name(), current.name());
+            sink.onStateChanged(this, previous, current);
+        }
+    }
+
+    /**
+     * Returns whether the ticks of this Timeable need to be driven while it is running.
+     * <p>
+     * By default, a Timeable is only ticked if its sink wants its ticks.
+     * @return {@code true} if the Timeable needs to be ticked, and {@code false} otherwise.
+     */
+    protected boolean needsTicks() {
+        return sink.wantsTicks();
+    }
+
+    /**
+     * Returns the state and time of this Timeable.
+     * @return the snapshot.
+     */
+    protected final Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Replaces the snapshot of this Timeable if it has not changed since it was read.
+     * @param expected the snapshot that was read.
+     * @param next the new snapshot.
+     * @return {@code true} if the snapshot was replaced, and {@code false} if it had changed.
+     */
+    protected final boolean compareAndSetSnapshot(Snapshot expected, Snapshot next) {
+        return snapshot.compareAndSet(expected, next);
+    }
+
+    /**
+     * Returns the time to which this Timeable is reset.
+     * @return the time, in nanoseconds.
+     */
+    protected abstract long getInitialNanos();
+
+    /**
+     * Returns the time of this Timeable at a given instant.
+     * @param snapshot the state and time of this Timeable.
+     * @param now the {@link System#nanoTime()} instant.
+     * @return the time, in nanoseconds.
+     */
+    protected abstract long valueAt(Snapshot snapshot, long now);
+
+    /**
+     * Returns the mark recorded when this Timeable starts running with a given time.
+     * <p>
+     * This method is called from the constructors, so it must not depend on the state of subclasses.
+     * @param value the time, in nanoseconds.
+     * @param now the {@link System#nanoTime()} instant at which the Timeable starts running.
+     * @return the mark.
+     */
+    protected abstract long markAt(long value, long now);
+
+    /**
+     * Does the periodic work of this Timeable, such as handing its time to its sink.
+     * @return the time until this method should be called again, in nanoseconds, or a negative
+     * value if it should not be called again because the Timeable stopped running.
+     */
+    protected abstract long tick();
+
+    /**
+     * Ticks this Timeable for an execution strategy, which keeps driving it if the tick fails.
+     * <p>
+     * A failing tick, such as one whose sink throws, is logged. If the Timeable is still running,
+     * it is ticked again after {@link #RETRY_NANOS}, or on its deadline if it is a timer due sooner,
+     * so that it still expires. A timer that the failing tick expired is reported as expired.
+     * @return the time until the next tick, in nanoseconds, {@link Timer#EXPIRED_TICK} if the tick
+     * expired the timer, or another negative value if there is no next tick.
+     */
+    final long tickSafely() {
+        State before = snapshot.get().state;
+        try {
+            return tick();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Tick of Timeable " + id + " failed.", e);
+            State after = snapshot.get().state;
+            if(after == State.RUNNING) {
+                return this instanceof Timer ? Math.min(getNanos(), RETRY_NANOS) : RETRY_NANOS;
+            }
+            return before == State.RUNNING && after == State.EXPIRED ? Timer.EXPIRED_TICK : -1;
+        }
+    }
+
+    /**
+     * Drives this Timeable from the current thread until it stops running.
+     */
+    @Override
+    public void run() {
+        long delay;
+        while((delay = tick()) >= 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot this Timeable is constructed with.
+     * @param value the time, in nanoseconds.
+     * @param running the running state.
+     * @return the snapshot.
+     */
+    private Snapshot initialSnapshot(long value, boolean running) {
+        return running
+                ? new Snapshot(State.RUNNING, value, markAt(value, System.nanoTime()))
+                : new Snapshot(State.IDLE, value, 0);
+    }
+
+    /**
+     * Moves this Timeable from the provided state to the running state.
+     * @param from the state.
+     * @return {@code true} if the Timeable was in the provided state, and {@code false} otherwise.
+     */
+    private boolean transitionToRunning(State from) {
+        Snapshot current;
+        do {
+            current = snapshot.get();
+            if(current.state != from) {
+                return false;
+            }
+        } while(!snapshot.compareAndSet(current,
+                new Snapshot(State.RUNNING, current.nanos, markAt(current.nanos, System.nanoTime()))));
+        fireStateChanged(from, State.RUNNING);
+        return true;
+    }
+
+    /**
+     * Moves this Timeable from the running state to the paused state, freezing its time.
+     * @return {@code true} if the Timeable was running, and {@code false} otherwise.
+     */
+    private boolean transitionToPaused() {
+        Snapshot current;
+        do {
+            current = snapshot.get();
+            if(current.state != State.RUNNING) {
+                return false;
+            }
+        } while(!snapshot.compareAndSet(current,
+                new Snapshot(State.PAUSED, valueAt(current, System.nanoTime()), 0)));
+        fireStateChanged(State.RUNNING, State.PAUSED);
+        return true;
+    }
+
+    /**
+     * An immutable snapshot of the state and time of a Timeable.
+     * <p>
+     * While the Timeable is running, its time is computed from {@link #nanos} and {@link #mark}
+     * by {@link Timeable#valueAt(Snapshot, long)}. Otherwise, {@link #nanos} is its time.
+     */
+    protected static final class Snapshot {
+        /**
+         * The state.
+         */
+        public final State state;
+
+        /**
+         * The time when the snapshot was taken, in nanoseconds.
+         */
+        public final long nanos;
+
+        /**
+         * The {@link System#nanoTime()} mark from which the time is computed while running.
+         */
+        public final long mark;
+
+        /**
+         * Constructs a {@code Snapshot}.
+         * @param state the state.
+         * @param nanos the time when the snapshot was taken, in nanoseconds.
+         * @param mark the mark from which the time is computed while running.
+         */
+        public Snapshot(State state, long nanos, long mark) {
+            this.state = state;
+            this.nanos = nanos;
+            this.mark = mark;
+        }
+    }
 }
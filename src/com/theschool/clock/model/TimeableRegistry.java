@@ -0,0 +1,175 @@
+package com.theschool.clock.model;
+
+import com.theschool.clock.util.StripedLongMap;
+
+import java.util.function.Consumer;
+
+/**
+ * Indexes stopwatches and timers by id, so that they can be looked up and controlled from anywhere.
+ * <p>
+ * The registry is meant for large populations. It is sharded by id into stripes that are locked
+ * independently, so lookups and registrations scale with the number of cores, and a lookup takes
+ * no lock unless it races with a change of its stripe. Controlling a Timeable by id is a lookup
+ * followed by one of its lock-free transitions.
+ *
+ * @see StripedLongMap
+ * @see Timeable#getId()
+ *
+ * @author Thomas Munguya
+ */
+public final class TimeableRegistry {
+
+    /**
+     * Defines the Timeables, by id.
+     */
+    private final StripedLongMap<Timeable> timeables;
+
+    /**
+     * Defines the sink that registers a Timeable once it starts and unregisters it once it is reset.
+     */
+    private final TimeSink sink = new TimeSink() {
+        @Override
+        public void onTick(long nanos) {
+        }
+
+        @Override
+        public boolean wantsTicks() {
+            return false;
+        }
+
+        @Override
+        public void onStateChanged(Timeable source, Timeable.State previous, Timeable.State current) {
+            if(current == Timeable.State.IDLE) {
+                timeables.remove(source.getId());
+            }
+            else {
+                timeables.put(source.getId(), source);
+            }
+        }
+    };
+
+    /**
+     * Constructs a {@code TimeableRegistry} with four stripes per available processor.
+     */
+    public TimeableRegistry() {
+        this.timeables = new StripedLongMap<>();
+    }
+
+    /**
+     * Constructs a {@code TimeableRegistry}.
+     * @param stripes the number of stripes. It is rounded up to a power of two.
+     * @throws IllegalArgumentException if {@code stripes} is not greater than zero.
+     */
+    public TimeableRegistry(int stripes) {
+        this.timeables = new StripedLongMap<>(stripes);
+    }
+
+    /**
+     * Returns the sink that registers a Timeable once it starts and unregisters it once it is reset,
+     * to be composed into the sinks of Timeables the registry should follow, such as the ones of a GUI.
+     * @return the sink.
+     * @see TimeSinks#compose(TimeSink...)
+     */
+    public TimeSink sink() {
+        return sink;
+    }
+
+    /**
+     * Adds a Timeable to the registry.
+     * @param timeable the Timeable.
+     * @throws IllegalArgumentException if {@code timeable} is {@code null}.
+     */
+    public void register(Timeable timeable) {
+        if(timeable == null) {
+            throw new IllegalArgumentException("Timeable argument cannot be null.");
+        }
+        timeables.put(timeable.getId(), timeable);
+    }
+
+    /**
+     * Removes a Timeable from the registry, without stopping it.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable unregister(long id) {
+        return timeables.remove(id);
+    }
+
+    /**
+     * Returns a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable get(long id) {
+        return timeables.get(id);
+    }
+
+    /**
+     * Starts a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable start(long id) {
+        Timeable timeable = timeables.get(id);
+        if(timeable != null) {
+            timeable.start();
+        }
+        return timeable;
+    }
+
+    /**
+     * Pauses a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable pause(long id) {
+        Timeable timeable = timeables.get(id);
+        if(timeable != null) {
+            timeable.pause();
+        }
+        return timeable;
+    }
+
+    /**
+     * Resumes a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable resume(long id) {
+        Timeable timeable = timeables.get(id);
+        if(timeable != null) {
+            timeable.resume();
+        }
+        return timeable;
+    }
+
+    /**
+     * Removes a Timeable from the registry, and stops it.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable cancel(long id) {
+        Timeable timeable = timeables.remove(id);
+        if(timeable != null) {
+            timeable.pause();
+        }
+        return timeable;
+    }
+
+    /**
+     * Returns the number of Timeables in the registry.
+     * @return the number of Timeables.
+     */
+    public int size() {
+        return timeables.size();
+    }
+
+    /**
+     * Hands every Timeable of the registry to a consumer, which may change the registry.
+     * @param consumer the consumer.
+     * @throws IllegalArgumentException if {@code consumer} is {@code null}.
+     */
+    public void forEach(Consumer<? super Timeable> consumer) {
+        timeables.forEachValue(consumer);
+    }
+}
@@ -1,27 +1,47 @@
 package com.theschool.clock.model;
 
-import javax.swing.text.JTextComponent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a timer.
  * <p>
  * A timer is characterized by its ability to count down time.
+ * <p>
+ * When the timer starts or resumes, it works out an absolute {@link System#nanoTime()} deadline,
+ * and when it pauses, it stores the time that remained. Once the deadline is reached, the timer
+ * is {@link State#EXPIRED} until it is reset. The remaining time is computed from the
+ * deadline on demand, so it does not drift however late the timer is ticked. Registered
+ * {@link TimerListener}s are notified when the deadline is reached.
  *
  *  @see Time
  *  @see Timeable
+ *  @see TimeSpan
+ *  @see TimerListener
  *
  * @author Thomas Munguya
  */
 public class Timer extends Timeable implements Runnable {
     /**
-     * Represents the default time. The default time has a value of 00:00:00.
+     * Defines the value returned by {@link #getDeadline()} when the timer is not running.
+     */
+    public static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    /**
+     * Defines the value returned by {@link #tick()} when the tick expired the timer, so that the
+     * thread driving it can tell an expiry from a pause.
+     */
+    static final long EXPIRED_TICK = -2;
+
+    /**
+     * Represents the time that this timer is initialized with, in nanoseconds.
      */
-    private static final Time DEFAULT_TIME = new Time();
+    private long originalNanos;
 
     /**
-     * Represents the time that this timer is initialized with.
+     * Represents the listeners notified when this timer expires.
      */
-    private Time originalTime;
+    private final List<TimerListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a {@code Timer}.
@@ -37,57 +57,150 @@ public class Timer extends Timeable implements Runnable {
      */
     public Timer(Time time) {
         super(time);
-        this.originalTime = time;
+        this.originalNanos = time.toNanos();
     }
 
     /**
      * Constructs a {@code Timer} with the provided arguments.
      * @param time the time associated with this time.
      * @param running the running state of the timer.
-     * @param component the component to write the time to.
-     * @throws IllegalArgumentException if {@code component} or {@code time} is {@code null}.
+     * @param sink the sink that receives the output of this timer.
+     * @throws IllegalArgumentException if {@code sink} or {@code time} is {@code null}.
      */
-    public Timer(Time time, boolean running, JTextComponent component) {
-        super(time, running, component);
-        this.originalTime = time;
+    public Timer(Time time, boolean running, TimeSink sink) {
+        super(time, running, sink);
+        this.originalNanos = time.toNanos();
     }
 
     /**
-     * Counts down the time.
+     * Adds a listener to be notified when this timer expires.
+     * @param listener the listener.
+     * @throws IllegalArgumentException if {@code listener} is {@code null}.
      */
-    private void countDown() {
-        time = time.subtract(new Time(0, 0, 1));
-        component.setText(time.toString());
+    public void addTimerListener(TimerListener listener) {
+        if(listener == null) {
+            throw new IllegalArgumentException("Listener argument cannot be null.");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener previously added to this timer.
+     * @param listener the listener.
+     */
+    public void removeTimerListener(TimerListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the time this timer is initialized with, and reset to.
+     * @return the original time, in nanoseconds.
+     */
+    public long getOriginalNanos() {
+        return originalNanos;
+    }
+
+    /**
+     * Returns the time remaining before this timer expires.
+     * @return the remaining time, in nanoseconds.
+     */
+    public long getRemainingNanos() {
+        return getNanos();
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} instant at which this timer expires, if it is running.
+     * @return the deadline, or {@link #NO_DEADLINE} if the timer is not running.
+     */
+    public long getDeadline() {
+        Snapshot snapshot = snapshot();
+        return snapshot.state == State.RUNNING ? snapshot.mark : NO_DEADLINE;
+    }
 
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    /**
+     * Rounds a remaining time up to the whole second, the way a countdown is displayed.
+     * @param remaining the remaining time, in nanoseconds.
+     * @return the rounded time, in nanoseconds.
+     */
+    private static long roundUpToSecond(long remaining) {
+        long seconds = (remaining + TimeSpan.NANOS_PER_SECOND - 1) / TimeSpan.NANOS_PER_SECOND;
+        return seconds * TimeSpan.NANOS_PER_SECOND;
+    }
+
+    /**
+     * Stops the timer at 00:00:00 and notifies the listeners, unless the timer changed state since
+     * the provided snapshot was taken. This guarantees the listeners are notified once per run.
+     * @param snapshot the snapshot in which the timer reached its deadline.
+     * @return {@code true} if the timer expired, and {@code false} if it had changed state.
+     */
+    private boolean expire(Snapshot snapshot) {
+        if(!compareAndSetSnapshot(snapshot, new Snapshot(State.EXPIRED, 0, 0))) {
+            return false;
         }
+        fireStateChanged(State.RUNNING, State.EXPIRED);
+        publish(0);
+        for(TimerListener listener : listeners) {
+            listener.timerExpired(this);
+        }
+        return true;
+    }
+
+    @Override
+    protected long getInitialNanos() {
+        return originalNanos;
+    }
+
+    /**
+     * Returns {@code true}: a timer is ticked to expire on its deadline even if nothing receives its
+     * ticks. If its sink does not want ticks, its only tick is on the deadline.
+     */
+    @Override
+    protected boolean needsTicks() {
+        return true;
+    }
+
+    /**
+     * Returns the remaining time: the time left before the deadline while running.
+     */
+    @Override
+    protected long valueAt(Snapshot snapshot, long now) {
+        return snapshot.state == State.RUNNING ? Math.max(snapshot.mark - now, 0) : snapshot.nanos;
     }
 
     /**
-     * Resets the timer.
+     * Returns the deadline of the timer when it starts running with the provided remaining time.
      */
     @Override
-    public void reset() {
-        time = originalTime;
-        component.setText(time.toString());
+    protected long markAt(long value, long now) {
+        return now + value;
     }
 
+    /**
+     * Hands the remaining time to the sink, and expires the timer on its deadline.
+     * <p>
+     * The remaining time is shown rounded up to the whole second, so the next tick is due exactly
+     * when the displayed value changes, and the last one is due exactly on the deadline. If the sink
+     * does not want ticks, nothing is handed to it, and the next tick is due on the deadline. The
+     * tick that expires the timer returns {@value #EXPIRED_TICK}.
+     */
     @Override
-    public void run() {
-        while(isRunning()) {
-            // if the timer reaches the default time (00:00:00), the stop it.
-            if(time.equals(DEFAULT_TIME)) {
-                setRunning(false);
-                component.setText(DEFAULT_TIME.toString());
-                return;
-            }
-            countDown();
+    protected long tick() {
+        Snapshot snapshot = snapshot();
+        long remaining = valueAt(snapshot, System.nanoTime());
+        if(snapshot.state != State.RUNNING) {
+            publish(roundUpToSecond(remaining));
+            return -1;
+        }
+        // if the timer reaches the deadline (00:00:00), then expire it.
+        if(remaining == 0) {
+            return expire(snapshot) ? EXPIRED_TICK : -1;
         }
-        if(!component.getText().equals(time.toString())) {
-            component.setText(time.toString());
+        if(!getTimeSink().wantsTicks()) {
+            return remaining;
         }
+        publish(roundUpToSecond(remaining));
+
+        long untilNextSecond = remaining % TimeSpan.NANOS_PER_SECOND;
+        return untilNextSecond == 0 ? TimeSpan.NANOS_PER_SECOND : untilNextSecond;
     }
 }
@@ -0,0 +1,20 @@
+package com.theschool.clock.model;
+
+import java.util.EventListener;
+
+/**
+ * The listener interface for receiving notifications from a {@link Timer}.
+ *
+ * @see Timer#addTimerListener(TimerListener)
+ *
+ * @author Thomas Munguya
+ */
+@FunctionalInterface
+public interface TimerListener extends EventListener {
+
+    /**
+     * Invoked when a timer reaches 00:00:00.
+     * @param timer the timer that expired.
+     */
+    void timerExpired(Timer timer);
+}
@@ -0,0 +1,784 @@
+package com.theschool.clock.persistence;
+
+import com.theschool.clock.model.LapRecorder;
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.TimeSink;
+import com.theschool.clock.model.TimeSinks;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.Timer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * A journal of the sessions of stopwatches and timers, kept in a memory-mapped file.
+ * <p>
+ * The journal is a {@link TimeSink}: the Timeables whose sink it is, or is composed into, have
+ * their starts, pauses, resumes, laps, resets and expiries appended to the file as fixed-size
+ * binary records. Ticks are not journaled, so the tick path never touches the journal. Appending
+ * a record claims its position with a single atomic add and writes it into the mapped file with
+ * a few memory stores, without locks or system calls. The file grows by mapped segments, and a
+ * background thread forces the written records to the disk at a configurable interval, mapping
+ * and loading the next segment ahead of the writers.
+ * <p>
+ * When a journal is opened, the existing file is replayed to restore the stopwatches and timers
+ * it describes, with their state, their time and their laps. If a {@link TimeableSnapshot} of a
+ * later position of the file exists, it is loaded instead, and only the records appended after
+ * that position are replayed on top of it. A running Timeable is restored with the time that
+ * passed while the application was closed. The file is then compacted: it is replaced by a file of
+ * a new generation, holding only the current state of the restored Timeables.
+ *
+ * @see Timeable
+ * @see TimeSink
+ *
+ * @author Thomas Munguya
+ */
+public final class SessionJournal implements TimeSink, Closeable {
+
+    /**
+     * Defines the default interval at which records are forced to the disk, in nanoseconds.
+     */
+    public static final long DEFAULT_FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Defines the size of a record, in bytes.
+     * <p>
+     * A record holds a header, made of the event in the top byte and the id of the Timeable in the
+     * others, then the time of the Timeable, its original time, and the wall-clock time of the event.
+     */
+    static final int RECORD_SIZE = 32;
+
+    /**
+     * Defines the size of a segment of the file, in bytes, as a power of two.
+     */
+    static final int SEGMENT_SHIFT = 20;
+
+    /**
+     * Defines the size of a segment of the file, in bytes.
+     */
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    /**
+     * Defines the magic number stored in the first record slot of the file, followed by the generation of the file.
+     */
+    private static final long MAGIC = 0x434C4F434B4A4E31L;
+
+    /**
+     * Defines the mask of the id in the header of a record.
+     */
+    private static final long ID_MASK = (1L << 56) - 1;
+
+    /**
+     * Defines the kind of a journaled stopwatch, stored in the top bits of the event.
+     */
+    private static final int STOPWATCH = 1 << 4;
+
+    /**
+     * Defines the kind of a journaled timer, stored in the top bits of the event.
+     */
+    private static final int TIMER = 2 << 4;
+
+    /**
+     * The events of a journal.
+     */
+    public enum Event {
+        /**
+         * The Timeable started.
+         */
+        START,
+
+        /**
+         * The Timeable paused.
+         */
+        PAUSE,
+
+        /**
+         * The Timeable resumed.
+         */
+        RESUME,
+
+        /**
+         * The stopwatch recorded a lap.
+         */
+        LAP,
+
+        /**
+         * The Timeable was reset.
+         */
+        RESET,
+
+        /**
+         * The timer expired.
+         */
+        EXPIRE;
+
+        /**
+         * Defines the events, indexed by code.
+         */
+        private static final Event[] BY_CODE = values();
+
+        /**
+         * Returns the code of this event, as stored in the records. It is never zero.
+         * @return the code.
+         */
+        int code() {
+            return ordinal() + 1;
+        }
+
+        /**
+         * Returns the event of a code.
+         * @param code the code.
+         * @return the event, or {@code null} if the code is not an event.
+         */
+        static Event ofCode(int code) {
+            return code >= 1 && code <= BY_CODE.length ? BY_CODE[code - 1] : null;
+        }
+    }
+
+    /**
+     * Defines the file of the journal.
+     */
+    private final Path file;
+
+    /**
+     * Defines the channel of the file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Defines the mapped segments of the file, indexed by their position in it.
+     */
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    /**
+     * Defines the position of the next record.
+     */
+    private final AtomicLong position = new AtomicLong(RECORD_SIZE);
+
+    /**
+     * Defines the position up to which records have been forced to the disk. It is only accessed by the flusher.
+     */
+    private long forcedPosition = RECORD_SIZE;
+
+    /**
+     * Defines the wall-clock time the journal was opened at, in nanoseconds since the epoch.
+     */
+    private final long wallBase;
+
+    /**
+     * Defines the {@link System#nanoTime()} mark the journal was opened at.
+     */
+    private final long nanoBase;
+
+    /**
+     * Defines the generation of the file, which changes every time the journal is compacted.
+     */
+    private final long generation;
+
+    /**
+     * Defines the thread forcing the records to the disk.
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Defines the Timeables restored when the journal was opened.
+     */
+    private final List<Timeable> restored;
+
+    /**
+     * Defines whether the journal has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Opens a journal, restoring the Timeables of an existing file, and forcing records to the
+     * disk at the default interval.
+     * @param file the file of the journal.
+     * @return the journal.
+     * @throws IllegalArgumentException if {@code file} is {@code null}.
+     * @throws IOException if the file cannot be read or written, or is not a journal.
+     */
+    public static SessionJournal open(Path file) throws IOException {
+        return open(file, DEFAULT_FORCE_INTERVAL_NANOS);
+    }
+
+    /**
+     * Opens a journal, restoring the Timeables of an existing file.
+     * @param file the file of the journal.
+     * @param forceIntervalNanos the interval at which records are forced to the disk, in nanoseconds.
+     * @return the journal.
+     * @throws IllegalArgumentException if {@code file} is {@code null}, or {@code forceIntervalNanos}
+     * is not greater than zero.
+     * @throws IOException if the file cannot be read or written, or is not a journal.
+     */
+    public static SessionJournal open(Path file, long forceIntervalNanos) throws IOException {
+        return open(file, null, forceIntervalNanos);
+    }
+
+    /**
+     * Opens a journal, restoring the Timeables of a snapshot and of the records of an existing file
+     * that follow it.
+     * <p>
+     * The snapshot is ignored if it does not exist, cannot be read or is corrupt, or was taken of
+     * another generation of the file.
+     * @param file the file of the journal.
+     * @param snapshot the snapshot file, or {@code null} to replay the whole journal.
+     * @param forceIntervalNanos the interval at which records are forced to the disk, in nanoseconds.
+     * @return the journal.
+     * @throws IllegalArgumentException if {@code file} is {@code null}, or {@code forceIntervalNanos}
+     * is not greater than zero.
+     * @throws IOException if the journal cannot be read or written, or is not a journal.
+     */
+    public static SessionJournal open(Path file, Path snapshot, long forceIntervalNanos) throws IOException {
+        return open(file, snapshot, forceIntervalNanos, TimeSinks.noOp());
+    }
+
+    /**
+     * Opens a journal, restoring the Timeables of a snapshot and of the records of an existing file
+     * that follow it, with the journal composed with another sink as their sink.
+     * <p>
+     * The restored Timeables have their sink before the running ones are started, so that every
+     * change of state they go through, such as a timer expiring right away, reaches the journal
+     * and the other sink. The snapshot is ignored if it does not exist, cannot be read or is
+     * corrupt, or was taken of another generation of the file.
+     * @param file the file of the journal.
+     * @param snapshot the snapshot file, or {@code null} to replay the whole journal.
+     * @param forceIntervalNanos the interval at which records are forced to the disk, in nanoseconds.
+     * @param sink the sink composed with the journal, such as the one of a registry.
+     * @return the journal.
+     * @throws IllegalArgumentException if {@code file} or {@code sink} is {@code null}, or
+     * {@code forceIntervalNanos} is not greater than zero.
+     * @throws IOException if the journal cannot be read or written, or is not a journal.
+     */
+    public static SessionJournal open(Path file, Path snapshot, long forceIntervalNanos, TimeSink sink) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("File argument cannot be null.");
+        }
+        if(forceIntervalNanos <= 0) {
+            throw new IllegalArgumentException("Force interval must be greater than zero.");
+        }
+        if(sink == null) {
+            throw new IllegalArgumentException("Sink argument cannot be null.");
+        }
+        long wallBase = System.currentTimeMillis() * 1_000_000L;
+        long nanoBase = System.nanoTime();
+        List<Replay> restoring = Collections.emptyList();
+        List<Timeable> restored = Collections.emptyList();
+        if(Files.exists(file)) {
+            Map<Long, Replay> replays = new LinkedHashMap<>();
+            long from = RECORD_SIZE;
+            if(snapshot != null && Files.exists(snapshot)) {
+                TimeableSnapshot contents = null;
+                try {
+                    contents = TimeableSnapshot.read(snapshot);
+                } catch (IOException e) {
+                    // the whole journal is replayed instead.
+                    e.printStackTrace();
+                }
+                if(contents != null && contents.getJournalGeneration() == generationOf(file)) {
+                    for(Replay replay : contents.getReplays()) {
+                        replays.put(replay.id, replay);
+                    }
+                    from = contents.getJournalPosition();
+                }
+            }
+            replay(file, from, replays);
+            restoring = replays.values().stream()
+                    .filter((replay) -> replay.state != Timeable.State.IDLE || replay.laps.size() > 0)
+                    .collect(Collectors.toList());
+            restored = restore(restoring, wallBase);
+        }
+
+        // compact the journal into a new file, and swap it in once it holds the restored state.
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        SessionJournal journal = new SessionJournal(compacted, file, wallBase, nanoBase, forceIntervalNanos, restored);
+        try {
+            TimeSink restoredSink = TimeSinks.compose(journal, sink);
+            for(int i = 0; i < restored.size(); i++) {
+                Timeable timeable = restored.get(i);
+                timeable.setTimeSink(restoredSink);
+                if(restoring.get(i).state == Timeable.State.RUNNING) {
+                    timeable.start();
+                }
+                journal.checkpoint(timeable);
+            }
+            journal.force();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Constructs a {@code SessionJournal} on a new file.
+     * @param path the path the file is created at.
+     * @param file the path the file is known by once it is compacted.
+     * @param wallBase the wall-clock time the journal was opened at, in nanoseconds since the epoch.
+     * @param nanoBase the {@link System#nanoTime()} mark the journal was opened at.
+     * @param forceIntervalNanos the interval at which records are forced to the disk, in nanoseconds.
+     * @param restored the Timeables restored from the previous file.
+     * @throws IOException if the file cannot be created.
+     */
+    private SessionJournal(Path path, Path file, long wallBase, long nanoBase, long forceIntervalNanos,
+                           List<Timeable> restored) throws IOException {
+        this.file = file;
+        this.wallBase = wallBase;
+        this.nanoBase = nanoBase;
+        this.generation = wallBase;
+        this.restored = Collections.unmodifiableList(restored);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment(0).putLong(8, generation).putLong(0, MAGIC);
+        this.flusher = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "session-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // keep flushing: an exception would cancel the next runs.
+                e.printStackTrace();
+            }
+        }, forceIntervalNanos, forceIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the file of the journal.
+     * @return the file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the generation of the file, which changes every time the journal is compacted.
+     * @return the generation.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the Timeables restored from the file when the journal was opened, in the order they
+     * were first journaled. The journal is their sink.
+     * @return the restored Timeables.
+     */
+    public List<Timeable> getRestored() {
+        return restored;
+    }
+
+    /**
+     * Returns the number of bytes of records appended to the journal. It is the position of the next record.
+     * @return the size of the journal, in bytes.
+     */
+    public long size() {
+        return position.get();
+    }
+
+    @Override
+    public void onTick(long nanos) {
+    }
+
+    /**
+     * Returns {@code false}: ticks are not journaled, so a stopwatch whose only sink is the journal is not ticked.
+     */
+    @Override
+    public boolean wantsTicks() {
+        return false;
+    }
+
+    /**
+     * Appends the change of state of a stopwatch or timer to the journal.
+     */
+    @Override
+    public void onStateChanged(Timeable source, Timeable.State previous, Timeable.State current) {
+        Event event = switch(current) {
+            case RUNNING -> previous == Timeable.State.PAUSED ? Event.RESUME : Event.START;
+            case PAUSED -> Event.PAUSE;
+            case IDLE -> Event.RESET;
+            case EXPIRED -> Event.EXPIRE;
+        };
+        append(source, event, source.getNanos());
+    }
+
+    /**
+     * Appends a lap to the journal.
+     */
+    @Override
+    public void onLap(Stopwatch source, long elapsedNanos) {
+        append(source, Event.LAP, elapsedNanos);
+    }
+
+    /**
+     * Appends the current state of a Timeable to the journal, with the laps of a stopwatch.
+     * @param timeable the Timeable.
+     */
+    public void checkpoint(Timeable timeable) {
+        Event event = switch(timeable.getState()) {
+            case RUNNING -> Event.START;
+            case PAUSED -> Event.PAUSE;
+            case EXPIRED -> Event.EXPIRE;
+            case IDLE -> Event.RESET;
+        };
+        append(timeable, event, timeable.getNanos());
+        if(timeable instanceof Stopwatch) {
+            LapRecorder laps = ((Stopwatch) timeable).getLaps();
+            for(int lap = 0, size = laps.size(); lap < size; lap++) {
+                append(timeable, Event.LAP, laps.getCumulative(lap));
+            }
+        }
+    }
+
+    /**
+     * Forces the records appended so far to the disk.
+     */
+    public void force() {
+        long end = position.get();
+        MappedByteBuffer[] mapped = segments;
+        int last = (int) ((end - 1) >>> SEGMENT_SHIFT);
+        for(int i = 0; i <= last && i < mapped.length; i++) {
+            if(mapped[i] != null) {
+                mapped[i].force();
+            }
+        }
+    }
+
+    /**
+     * Forces the records to the disk, and closes the journal. Later events are not journaled.
+     */
+    @Override
+    public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Appends a record to the journal, unless the Timeable is neither a stopwatch nor a timer.
+     * @param timeable the Timeable.
+     * @param event the event.
+     * @param nanos the time of the Timeable, in nanoseconds.
+     */
+    private void append(Timeable timeable, Event event, long nanos) {
+        int kind;
+        long original;
+        if(timeable instanceof Stopwatch) {
+            kind = STOPWATCH;
+            original = 0;
+        }
+        else if(timeable instanceof Timer) {
+            kind = TIMER;
+            original = ((Timer) timeable).getOriginalNanos();
+        }
+        else {
+            return;
+        }
+        if(closed) {
+            return;
+        }
+        long offset = position.getAndAdd(RECORD_SIZE);
+        MappedByteBuffer segment;
+        try {
+            segment = segment((int) (offset >>> SEGMENT_SHIFT));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        int index = (int) (offset & (SEGMENT_SIZE - 1));
+        segment.putLong(index + 8, nanos);
+        segment.putLong(index + 16, original);
+        segment.putLong(index + 24, wallNanos());
+        // the header is written last: a record without one ends the journal.
+        segment.putLong(index, (long) (kind | event.code()) << 56 | timeable.getId() & ID_MASK);
+    }
+
+    /**
+     * Returns the wall-clock time, measured from the time the journal was opened.
+     * @return the time, in nanoseconds since the epoch.
+     */
+    long wallNanos() {
+        return wallBase + (System.nanoTime() - nanoBase);
+    }
+
+    /**
+     * Returns a mapped segment of the file, mapping it if it is not.
+     * @param index the index of the segment.
+     * @return the segment.
+     * @throws IOException if the segment cannot be mapped.
+     */
+    private MappedByteBuffer segment(int index) throws IOException {
+        MappedByteBuffer[] mapped = segments;
+        if(index < mapped.length && mapped[index] != null) {
+            return mapped[index];
+        }
+        return mapSegment(index);
+    }
+
+    /**
+     * Maps a segment of the file, growing the file if needed.
+     * @param index the index of the segment.
+     * @return the segment.
+     * @throws IOException if the segment cannot be mapped.
+     */
+    private synchronized MappedByteBuffer mapSegment(int index) throws IOException {
+        MappedByteBuffer[] mapped = segments;
+        if(index < mapped.length && mapped[index] != null) {
+            return mapped[index];
+        }
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, (long) index << SEGMENT_SHIFT, SEGMENT_SIZE);
+        MappedByteBuffer[] grown = Arrays.copyOf(mapped, Math.max(mapped.length, index + 1));
+        grown[index] = segment;
+        segments = grown;
+        return segment;
+    }
+
+    /**
+     * Forces the new records to the disk, and maps the next segment ahead of the writers.
+     */
+    private void flush() {
+        long end = position.get();
+        try {
+            // fault the pages of the next segment in, so that the writers do not.
+            segment((int) ((end >>> SEGMENT_SHIFT) + 1)).load();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if(end == forcedPosition) {
+            return;
+        }
+        MappedByteBuffer[] mapped = segments;
+        for(int i = (int) (forcedPosition >>> SEGMENT_SHIFT), last = (int) ((end - 1) >>> SEGMENT_SHIFT); i <= last; i++) {
+            if(i >= mapped.length || mapped[i] == null) {
+                // a writer is still mapping this segment: force it on the next flush.
+                forcedPosition = (long) i << SEGMENT_SHIFT;
+                return;
+            }
+            mapped[i].force();
+        }
+        forcedPosition = end;
+    }
+
+    /**
+     * Returns the generation of a journal file.
+     * @param file the file.
+     * @return the generation.
+     * @throws IOException if the file cannot be read, or is not a journal.
+     */
+    static long generationOf(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while(header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read the whole header.
+            }
+            if(header.hasRemaining() || header.getLong(0) != MAGIC) {
+                throw new IOException(file + " is not a session journal.");
+            }
+            return header.getLong(8);
+        }
+    }
+
+    /**
+     * Replays the records of a journal file into the state of the Timeables they describe.
+     * @param file the file.
+     * @param from the position of the first record to replay.
+     * @param replays the state of each Timeable, by id. Timeables seen for the first time are added to it.
+     * @throws IOException if the file cannot be read, or is not a journal.
+     */
+    static void replay(Path file, long from, Map<Long, Replay> replays) throws IOException {
+        generationOf(file);
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            for(long base = from & -SEGMENT_SIZE; base < length; base += SEGMENT_SIZE) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(SEGMENT_SIZE, length - base));
+                int index = (int) (Math.max(from - base, 0));
+                for(; index + RECORD_SIZE <= segment.limit(); index += RECORD_SIZE) {
+                    long header = segment.getLong(index);
+                    if(header == 0) {
+                        return;
+                    }
+                    int type = (int) (header >>> 56);
+                    Event event = Event.ofCode(type & 0x0F);
+                    int kind = type & 0xF0;
+                    if(event == null || (kind != STOPWATCH && kind != TIMER)) {
+                        return;
+                    }
+                    long id = header & ID_MASK;
+                    Replay replay = replays.computeIfAbsent(id, (key) -> new Replay(key, kind == TIMER));
+                    replay.apply(event, segment.getLong(index + 8), segment.getLong(index + 16), segment.getLong(index + 24));
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores Timeables, in parallel. The ones that were running are left to be started.
+     * @param replays the replayed state of the Timeables.
+     * @param wallNow the current wall-clock time, in nanoseconds since the epoch.
+     * @return the restored Timeables, in the order of {@code replays}.
+     * @see Replay#restore(long)
+     */
+    static List<Timeable> restore(List<Replay> replays, long wallNow) {
+        return replays.parallelStream()
+                .map((replay) -> replay.restore(wallNow))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The state of a Timeable, as replayed from a journal.
+     */
+    static final class Replay {
+        /**
+         * The id of the Timeable in the journal.
+         */
+        final long id;
+
+        /**
+         * Whether the Timeable is a timer.
+         */
+        final boolean timer;
+
+        /**
+         * The state.
+         */
+        Timeable.State state = Timeable.State.IDLE;
+
+        /**
+         * The time of the Timeable at the last event, in nanoseconds.
+         */
+        long nanos;
+
+        /**
+         * The original time of a timer, in nanoseconds.
+         */
+        long original;
+
+        /**
+         * The wall-clock time of the last event, in nanoseconds since the epoch.
+         */
+        long wall;
+
+        /**
+         * The laps of a stopwatch.
+         */
+        final LapRecorder laps = new LapRecorder();
+
+        /**
+         * Constructs a {@code Replay}.
+         * @param id the id of the Timeable in the journal.
+         * @param timer whether the Timeable is a timer.
+         */
+        Replay(long id, boolean timer) {
+            this.id = id;
+            this.timer = timer;
+        }
+
+        /**
+         * Applies a record.
+         * <p>
+         * A lap is only recorded if it is later than the previous one, so that a lap already
+         * replayed from a snapshot is not recorded twice.
+         * @param event the event.
+         * @param nanos the time of the Timeable, in nanoseconds.
+         * @param original the original time of the Timeable, in nanoseconds.
+         * @param wall the wall-clock time of the event, in nanoseconds since the epoch.
+         */
+        void apply(Event event, long nanos, long original, long wall) {
+            this.original = original;
+            switch(event) {
+                case LAP -> {
+                    if(laps.size() == 0 || nanos > laps.getCumulative(laps.size() - 1)) {
+                        laps.record(nanos);
+                    }
+                    return;
+                }
+                case START, RESUME -> state = Timeable.State.RUNNING;
+                case PAUSE -> state = Timeable.State.PAUSED;
+                case RESET -> {
+                    state = Timeable.State.IDLE;
+                    laps.clear();
+                }
+                case EXPIRE -> state = Timeable.State.EXPIRED;
+            }
+            this.nanos = nanos;
+            this.wall = wall;
+        }
+
+        /**
+         * Returns the time of the Timeable at a given wall-clock time.
+         * @param wallNow the wall-clock time, in nanoseconds since the epoch.
+         * @return the time, in nanoseconds.
+         */
+        long nanosAt(long wallNow) {
+            if(state != Timeable.State.RUNNING) {
+                return nanos;
+            }
+            long passed = Math.max(wallNow - wall, 0);
+            return timer ? Math.max(nanos - passed, 0) : nanos + passed;
+        }
+
+        /**
+         * Restores the Timeable, without starting it.
+         * <p>
+         * A running Timeable is restored idle at its current time, to be started once it has its
+         * sink, and a paused one is paused at its journaled time without firing any change of
+         * state. A timer that expired is restored idle at zero, and one whose deadline passed while
+         * the application was closed is restored at zero, so that it expires once started.
+         * @param wallNow the current wall-clock time, in nanoseconds since the epoch.
+         * @return the Timeable.
+         */
+        Timeable restore(long wallNow) {
+            Timeable timeable;
+            if(timer) {
+                timeable = new Timer(Time.ofNanos(original));
+            }
+            else {
+                Stopwatch stopwatch = new Stopwatch();
+                for(int lap = 0; lap < laps.size(); lap++) {
+                    stopwatch.getLaps().record(laps.getCumulative(lap));
+                }
+                timeable = stopwatch;
+            }
+            if(state == Timeable.State.PAUSED) {
+                timeable.restorePaused(Time.ofNanos(nanos));
+                return timeable;
+            }
+            timeable.setTime(Time.ofNanos(nanosAt(wallNow)));
+            return timeable;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.theschool.clock.persistence;
+
+import com.theschool.clock.model.Timeable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Takes a {@link TimeableSnapshot} of a population of stopwatches and timers at a fixed interval,
+ * on a background thread.
+ * <p>
+ * The snapshots bound the part of the {@link SessionJournal} that has to be replayed when it is
+ * opened: only the records appended after the last snapshot are. The Timeables are read without
+ * locks, so a snapshot never holds up their ticks, and a snapshot is only taken if records were
+ * appended to the journal since the previous one.
+ *
+ * @see TimeableSnapshot
+ * @see SessionJournal
+ *
+ * @author Thomas Munguya
+ */
+public final class Snapshotter implements Closeable {
+
+    /**
+     * Defines the default interval at which snapshots are taken, in nanoseconds.
+     */
+    public static final long DEFAULT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * Defines the snapshot file.
+     */
+    private final Path file;
+
+    /**
+     * Defines the supplier of the Timeables to snapshot.
+     */
+    private final Supplier<? extends Collection<? extends Timeable>> population;
+
+    /**
+     * Defines the journal of the Timeables.
+     */
+    private final SessionJournal journal;
+
+    /**
+     * Defines the thread taking the snapshots.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Defines the size of the journal at the last snapshot, or -1 if none was taken.
+     */
+    private long snapshotPosition = -1;
+
+    /**
+     * Constructs a {@code Snapshotter} that takes snapshots at the default interval.
+     * @param file the snapshot file.
+     * @param population the supplier of the Timeables to snapshot.
+     * @param journal the journal of the Timeables.
+     * @throws IllegalArgumentException if any argument is {@code null}.
+     */
+    public Snapshotter(Path file, Supplier<? extends Collection<? extends Timeable>> population, SessionJournal journal) {
+        this(file, population, journal, DEFAULT_INTERVAL_NANOS);
+    }
+
+    /**
+     * Constructs a {@code Snapshotter}.
+     * @param file the snapshot file.
+     * @param population the supplier of the Timeables to snapshot.
+     * @param journal the journal of the Timeables.
+     * @param intervalNanos the interval at which snapshots are taken, in nanoseconds.
+     * @throws IllegalArgumentException if any argument is {@code null}, or {@code intervalNanos}
+     * is not greater than zero.
+     */
+    public Snapshotter(Path file, Supplier<? extends Collection<? extends Timeable>> population,
+                       SessionJournal journal, long intervalNanos) {
+        if(file == null) {
+            throw new IllegalArgumentException("File argument cannot be null.");
+        }
+        if(population == null) {
+            throw new IllegalArgumentException("Population argument cannot be null.");
+        }
+        if(journal == null) {
+            throw new IllegalArgumentException("Journal argument cannot be null.");
+        }
+        if(intervalNanos <= 0) {
+            throw new IllegalArgumentException("Interval must be greater than zero.");
+        }
+        this.file = file;
+        this.population = population;
+        this.journal = journal;
+        this.executor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "timeable-snapshotter");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                snapshotIfChanged();
+            } catch (IOException | RuntimeException e) {
+                // keep snapshotting: an exception would cancel the next runs.
+                e.printStackTrace();
+            }
+        }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the snapshot file.
+     * @return the file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Takes a snapshot now, on the calling thread.
+     * @return the number of Timeables in the snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public synchronized int snapshotNow() throws IOException {
+        long position = journal.size();
+        int count = TimeableSnapshot.write(file, population.get(), journal);
+        snapshotPosition = position;
+        return count;
+    }
+
+    /**
+     * Takes a snapshot, unless nothing was appended to the journal since the previous one.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    private synchronized void snapshotIfChanged() throws IOException {
+        if(journal.size() != snapshotPosition) {
+            snapshotNow();
+        }
+    }
+
+    /**
+     * Stops taking snapshots.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
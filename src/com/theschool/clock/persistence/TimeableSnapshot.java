@@ -0,0 +1,327 @@
+package com.theschool.clock.persistence;
+
+import com.theschool.clock.model.LapRecorder;
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.Timer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A binary snapshot of the state of a population of stopwatches and timers.
+ * <p>
+ * The file starts with a header, holding the generation and position of the {@link SessionJournal}
+ * the snapshot was taken against. It is followed by one fixed-size entry per Timeable, holding its
+ * id, kind, state, time, original time, the wall-clock time it was read at, and the number and
+ * position of its laps, then by the laps themselves. Since the entries have a fixed size, they are
+ * decoded in parallel.
+ * <p>
+ * A snapshot is written to a temporary file, forced to the disk, and moved over the previous one
+ * atomically, so a crash leaves either the previous snapshot or the new one. The journal position
+ * is read before the Timeables, so every change a snapshot may have missed is in the journal after
+ * that position.
+ *
+ * @see SessionJournal
+ * @see Snapshotter
+ *
+ * @author Thomas Munguya
+ */
+public final class TimeableSnapshot {
+
+    /**
+     * Defines the magic number at the start of a snapshot file.
+     */
+    private static final long MAGIC = 0x434C4F434B534E31L;
+
+    /**
+     * Defines the size of the header, in bytes.
+     */
+    static final int HEADER_SIZE = 48;
+
+    /**
+     * Defines the size of an entry, in bytes.
+     */
+    static final int ENTRY_SIZE = 48;
+
+    /**
+     * Defines the kind of a stopwatch entry.
+     */
+    private static final int STOPWATCH = 1;
+
+    /**
+     * Defines the kind of a timer entry.
+     */
+    private static final int TIMER = 2;
+
+    /**
+     * Defines the number of entries decoded by each task of a parallel load.
+     */
+    private static final int ENTRIES_PER_TASK = 4096;
+
+    /**
+     * Defines the generation of the journal the snapshot was taken against.
+     */
+    private final long journalGeneration;
+
+    /**
+     * Defines the position of the journal the snapshot was taken at.
+     */
+    private final long journalPosition;
+
+    /**
+     * Defines the state of the Timeables of the snapshot.
+     */
+    private final List<SessionJournal.Replay> replays;
+
+    /**
+     * Constructs a {@code TimeableSnapshot}.
+     * @param journalGeneration the generation of the journal the snapshot was taken against.
+     * @param journalPosition the position of the journal the snapshot was taken at.
+     * @param replays the state of the Timeables of the snapshot.
+     */
+    private TimeableSnapshot(long journalGeneration, long journalPosition, List<SessionJournal.Replay> replays) {
+        this.journalGeneration = journalGeneration;
+        this.journalPosition = journalPosition;
+        this.replays = replays;
+    }
+
+    /**
+     * Returns the generation of the journal the snapshot was taken against.
+     * @return the generation.
+     */
+    public long getJournalGeneration() {
+        return journalGeneration;
+    }
+
+    /**
+     * Returns the position of the journal the snapshot was taken at. The records from that position on follow the snapshot.
+     * @return the position, in bytes.
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    /**
+     * Returns the number of Timeables in the snapshot.
+     * @return the number of Timeables.
+     */
+    public int size() {
+        return replays.size();
+    }
+
+    /**
+     * Returns the state of the Timeables of the snapshot, in the order they were written.
+     * @return the state of the Timeables.
+     */
+    List<SessionJournal.Replay> getReplays() {
+        return replays;
+    }
+
+    /**
+     * Writes a snapshot of the stopwatches and timers of a population. Other Timeables are skipped.
+     * <p>
+     * The Timeables are only read, with the same lock-free reads as any other reader, so taking a
+     * snapshot does not hold up their ticks.
+     * @param file the snapshot file.
+     * @param population the Timeables.
+     * @param journal the journal of the Timeables, or {@code null} if they are not journaled.
+     * @return the number of Timeables written.
+     * @throws IllegalArgumentException if {@code file} or {@code population} is {@code null}.
+     * @throws IOException if the file cannot be written.
+     */
+    public static int write(Path file, Collection<? extends Timeable> population, SessionJournal journal) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("File argument cannot be null.");
+        }
+        if(population == null) {
+            throw new IllegalArgumentException("Population argument cannot be null.");
+        }
+        // read the position first: whatever changes while the Timeables are read is after it.
+        long journalGeneration = journal != null ? journal.getGeneration() : 0;
+        long journalPosition = journal != null ? journal.size() : 0;
+
+        Timeable[] timeables = population.toArray(new Timeable[0]);
+        ByteBuffer entries = ByteBuffer.allocate(timeables.length * ENTRY_SIZE);
+        long[] laps = new long[64];
+        int lapCount = 0;
+        int count = 0;
+        for(Timeable timeable : timeables) {
+            int kind;
+            long original = 0;
+            if(timeable instanceof Stopwatch) {
+                kind = STOPWATCH;
+            }
+            else if(timeable instanceof Timer) {
+                kind = TIMER;
+                original = ((Timer) timeable).getOriginalNanos();
+            }
+            else {
+                continue;
+            }
+            Timeable.State state = timeable.getState();
+            long nanos = timeable.getNanos();
+            long wall = journal != null ? journal.wallNanos() : System.currentTimeMillis() * 1_000_000L;
+
+            int firstLap = lapCount;
+            if(timeable instanceof Stopwatch) {
+                LapRecorder recorder = ((Stopwatch) timeable).getLaps();
+                int size = recorder.size();
+                if(lapCount + size > laps.length) {
+                    laps = Arrays.copyOf(laps, Math.max(laps.length << 1, lapCount + size));
+                }
+                try {
+                    for(int lap = 0; lap < size; lap++) {
+                        laps[lapCount] = recorder.getCumulative(lap);
+                        lapCount++;
+                    }
+                } catch (IndexOutOfBoundsException e) {
+                    // the laps were cleared while they were read: the journal has the reset.
+                }
+            }
+            entries.putLong(timeable.getId())
+                    .putLong(nanos)
+                    .putLong(original)
+                    .putLong(wall)
+                    .putShort((short) kind)
+                    .putShort((short) state.ordinal())
+                    .putInt(lapCount - firstLap)
+                    .putLong(firstLap);
+            count++;
+        }
+        entries.flip();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putLong(MAGIC)
+                .putLong(journalGeneration)
+                .putLong(journalPosition)
+                .putInt(count)
+                .putInt(0)
+                .putLong(lapCount)
+                .putLong(0);
+        header.flip();
+        ByteBuffer lapBuffer = ByteBuffer.allocate(lapCount * Long.BYTES);
+        lapBuffer.asLongBuffer().put(laps, 0, lapCount);
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer[] buffers = {header, entries, lapBuffer};
+            long remaining = HEADER_SIZE + (long) entries.remaining() + lapBuffer.remaining();
+            while(remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Reads a snapshot, decoding its entries in parallel.
+     * @param file the snapshot file.
+     * @return the snapshot.
+     * @throws IllegalArgumentException if {@code file} is {@code null}.
+     * @throws IOException if the file cannot be read, or is not a snapshot.
+     */
+    public static TimeableSnapshot read(Path file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("File argument cannot be null.");
+        }
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if(length < HEADER_SIZE) {
+                throw new IOException(file + " is not a snapshot.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if(buffer.getLong(0) != MAGIC) {
+                throw new IOException(file + " is not a snapshot.");
+            }
+            long journalGeneration = buffer.getLong(8);
+            long journalPosition = buffer.getLong(16);
+            int count = buffer.getInt(24);
+            long lapTotal = buffer.getLong(32);
+            long lapsOffset = HEADER_SIZE + (long) count * ENTRY_SIZE;
+            if(count < 0 || lapTotal < 0 || lapsOffset + lapTotal * Long.BYTES != length) {
+                throw new IOException(file + " is truncated.");
+            }
+
+            SessionJournal.Replay[] replays = new SessionJournal.Replay[count];
+            int tasks = (count + ENTRIES_PER_TASK - 1) / ENTRIES_PER_TASK;
+            try {
+                IntStream.range(0, tasks).parallel().forEach((task) -> {
+                    int last = Math.min(count, (task + 1) * ENTRIES_PER_TASK);
+                    for(int i = task * ENTRIES_PER_TASK; i < last; i++) {
+                        try {
+                            replays[i] = decode(buffer, HEADER_SIZE + i * ENTRY_SIZE, (int) lapsOffset, lapTotal);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw new IOException(file + " is corrupt.", e.getCause());
+            }
+            return new TimeableSnapshot(journalGeneration, journalPosition,
+                    Collections.unmodifiableList(Arrays.asList(replays)));
+        }
+    }
+
+    /**
+     * Decodes an entry of a snapshot.
+     * @param buffer the snapshot file.
+     * @param offset the offset of the entry.
+     * @param lapsOffset the offset of the laps.
+     * @param lapTotal the number of laps in the snapshot.
+     * @return the state of the Timeable of the entry.
+     * @throws IOException if the entry is not valid.
+     */
+    private static SessionJournal.Replay decode(ByteBuffer buffer, int offset, int lapsOffset, long lapTotal) throws IOException {
+        long id = buffer.getLong(offset);
+        int kind = buffer.getShort(offset + 32);
+        if(kind != STOPWATCH && kind != TIMER) {
+            throw new IOException("Invalid kind at offset " + offset + ".");
+        }
+        SessionJournal.Replay replay = new SessionJournal.Replay(id, kind == TIMER);
+        replay.nanos = buffer.getLong(offset + 8);
+        replay.original = buffer.getLong(offset + 16);
+        replay.wall = buffer.getLong(offset + 24);
+        if(replay.nanos < 0 || replay.original < 0) {
+            throw new IOException("Invalid time at offset " + offset + ".");
+        }
+        int state = buffer.getShort(offset + 34);
+        Timeable.State[] states = Timeable.State.values();
+        if(state < 0 || state >= states.length) {
+            throw new IOException("Invalid state at offset " + offset + ".");
+        }
+        replay.state = states[state];
+        int lapCount = buffer.getInt(offset + 36);
+        long firstLap = buffer.getLong(offset + 40);
+        if(lapCount < 0 || firstLap < 0 || firstLap > lapTotal - lapCount) {
+            throw new IOException("Invalid laps at offset " + offset + ".");
+        }
+        int lapIndex = lapsOffset + (int) firstLap * Long.BYTES;
+        long previous = 0;
+        for(int lap = 0; lap < lapCount; lap++) {
+            long cumulative = buffer.getLong(lapIndex + lap * Long.BYTES);
+            if(cumulative < previous) {
+                throw new IOException("Invalid lap at offset " + offset + ".");
+            }
+            replay.laps.record(cumulative);
+            previous = cumulative;
+        }
+        return replay;
+    }
+}
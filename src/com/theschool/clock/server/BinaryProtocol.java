@@ -0,0 +1,85 @@
+package com.theschool.clock.server;
+
+/**
+ * Defines the binary protocol of the {@link BinaryServer}.
+ * <p>
+ * Every request and response is a frame: a big-endian {@code int} holding the number of bytes
+ * that follow it, an opcode byte, and a payload. A response has the opcode of its request, then a
+ * status byte, then the payload of the response. Requests may be pipelined: the server answers
+ * them in order, without waiting for the client to read the previous responses. The frames are:
+ * <table>
+ *     <caption>Frames</caption>
+ *     <tr><th>Opcode</th><th>Request payload</th><th>Response payload</th></tr>
+ *     <tr><td>{@link #CREATE_TIMERS}</td><td>{@code byte start, int count, long nanos[count]}</td>
+ *     <td>{@code int count, long ids[count]}</td></tr>
+ *     <tr><td>{@link #CREATE_STOPWATCHES}</td><td>{@code byte start, int count}</td>
+ *     <td>{@code int count, long ids[count]}</td></tr>
+ *     <tr><td>{@link #CANCEL_RANGE}</td><td>{@code long fromId, long toId}</td>
+ *     <td>{@code int cancelled}</td></tr>
+ *     <tr><td>{@link #QUERY}</td><td>{@code long id}</td>
+ *     <td>{@code byte state, long nanos}</td></tr>
+ * </table>
+ * A batch holds at most {@value #MAX_BATCH} Timeables, so that its response fits in a frame. A
+ * batch of timers with a negative duration is answered with {@link #BAD_REQUEST}, and none of its
+ * timers is created.
+ *
+ * @author Thomas Munguya
+ */
+public final class BinaryProtocol {
+
+    /**
+     * Prevents instantiation.
+     */
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Defines the size of the length of a frame, in bytes.
+     */
+    public static final int LENGTH_SIZE = Integer.BYTES;
+
+    /**
+     * Defines the maximum number of bytes following the length of a frame.
+     */
+    public static final int MAX_FRAME_SIZE = 1 << 20;
+
+    /**
+     * Defines the maximum number of Timeables created by a request.
+     */
+    public static final int MAX_BATCH = (MAX_FRAME_SIZE - 6) / Long.BYTES;
+
+    /**
+     * Defines the opcode creating timers, optionally starting them.
+     */
+    public static final byte CREATE_TIMERS = 1;
+
+    /**
+     * Defines the opcode creating stopwatches, optionally starting them.
+     */
+    public static final byte CREATE_STOPWATCHES = 2;
+
+    /**
+     * Defines the opcode cancelling the Timeables whose ids are in a range, from inclusive to exclusive.
+     */
+    public static final byte CANCEL_RANGE = 3;
+
+    /**
+     * Defines the opcode querying the state and time of a Timeable.
+     */
+    public static final byte QUERY = 4;
+
+    /**
+     * Defines the status of a request that succeeded.
+     */
+    public static final byte OK = 0;
+
+    /**
+     * Defines the status of a request on a Timeable that does not exist.
+     */
+    public static final byte NOT_FOUND = 1;
+
+    /**
+     * Defines the status of a request that is malformed or has an unknown opcode. It has no payload.
+     */
+    public static final byte BAD_REQUEST = 2;
+}
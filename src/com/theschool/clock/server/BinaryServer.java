@@ -0,0 +1,420 @@
+package com.theschool.clock.server;
+
+import com.theschool.clock.model.Timeable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Serves the stopwatches and timers of a {@link TimerService} over the {@link BinaryProtocol}, for
+ * clients that create and cancel them in bulk.
+ * <p>
+ * A single thread multiplexes all the connections with a {@link Selector}. The requests of a
+ * connection are read into a buffer and decoded in place, with absolute reads straight into
+ * primitive fields, and their responses are encoded into a buffer of the connection that is
+ * written when the socket can take it. A connection that does not read its responses stops being
+ * read once {@value #HIGH_WATER_MARK} bytes of them are pending.
+ *
+ * @see BinaryProtocol
+ *
+ * @author Thomas Munguya
+ */
+public final class BinaryServer implements Closeable {
+
+    /**
+     * Defines the initial size of the buffers of a connection, in bytes.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Defines the number of bytes of pending responses above which a connection is no longer read.
+     */
+    private static final int HIGH_WATER_MARK = 4 << 20;
+
+    /**
+     * Defines the channel accepting the connections.
+     */
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * Defines the selector of the channels.
+     */
+    private final Selector selector;
+
+    /**
+     * Defines the service the requests are applied to.
+     */
+    private final TimerService service;
+
+    /**
+     * Defines the thread serving the connections.
+     */
+    private final Thread worker;
+
+    /**
+     * Defines whether the server has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructs a {@code BinaryServer}. It does not accept connections until it is started.
+     * @param address the address to listen on. Its port may be zero, to listen on any free port.
+     * @param service the service the requests are applied to.
+     * @throws IllegalArgumentException if {@code address} or {@code service} is {@code null}.
+     * @throws IOException if the server cannot listen on the address.
+     */
+    public BinaryServer(InetSocketAddress address, TimerService service) throws IOException {
+        if(address == null) {
+            throw new IllegalArgumentException("Address argument cannot be null.");
+        }
+        if(service == null) {
+            throw new IllegalArgumentException("Service argument cannot be null.");
+        }
+        this.service = service;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.worker = new Thread(this::serve, "binary-server");
+        worker.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        worker.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     * @return the port.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops the server, closing its connections.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if(worker.isAlive()) {
+            selector.wakeup();
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        else {
+            release();
+        }
+    }
+
+    /**
+     * Serves the connections until the server is closed.
+     */
+    private void serve() {
+        try {
+            while(!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if(!key.isValid()) {
+                            continue;
+                        }
+                        if(key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        Connection connection = (Connection) key.attachment();
+                        if(key.isWritable()) {
+                            connection.flush();
+                        }
+                        if(key.isValid() && key.isReadable()) {
+                            connection.read();
+                        }
+                    } catch (IOException e) {
+                        // the client disconnected.
+                        closeQuietly(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Closes the connections, the selector and the listening channel.
+     */
+    private void release() {
+        for(SelectionKey key : selector.keys()) {
+            closeQuietly(key);
+        }
+        try {
+            selector.close();
+            serverChannel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Accepts the pending connections.
+     * @throws IOException if a connection cannot be accepted.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    /**
+     * Closes the channel of a key, ignoring errors.
+     * @param key the key.
+     */
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // nothing left to do.
+        }
+    }
+
+    /**
+     * A connection to a client.
+     */
+    private final class Connection {
+        /**
+         * The channel of the connection.
+         */
+        private final SocketChannel channel;
+
+        /**
+         * The key of the channel.
+         */
+        private final SelectionKey key;
+
+        /**
+         * The bytes read and not decoded yet. It is kept ready for reading into.
+         */
+        private ByteBuffer in = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+
+        /**
+         * The responses not written yet. It is kept ready for encoding into.
+         */
+        private ByteBuffer out = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+
+        /**
+         * Constructs a {@code Connection}.
+         * @param channel the channel of the connection.
+         * @param key the key of the channel.
+         */
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        /**
+         * Reads the requests available on the channel, and handles the complete ones.
+         * @throws IOException if the channel cannot be read or written, or a frame is malformed.
+         */
+        void read() throws IOException {
+            if(channel.read(in) < 0) {
+                closeQuietly(key);
+                return;
+            }
+            in.flip();
+            while(in.remaining() >= BinaryProtocol.LENGTH_SIZE) {
+                int start = in.position();
+                int length = in.getInt(start);
+                if(length < 1 || length > BinaryProtocol.MAX_FRAME_SIZE) {
+                    throw new IOException("Invalid frame length " + length + ".");
+                }
+                if(in.remaining() < BinaryProtocol.LENGTH_SIZE + length) {
+                    break;
+                }
+                int payload = start + BinaryProtocol.LENGTH_SIZE;
+                handle(in.get(payload), payload + 1, payload + length);
+                in.position(payload + length);
+            }
+            if(in.remaining() >= BinaryProtocol.LENGTH_SIZE) {
+                // make room for a frame larger than the buffer.
+                int frameSize = BinaryProtocol.LENGTH_SIZE + in.getInt(in.position());
+                if(frameSize > in.capacity()) {
+                    ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(frameSize, in.capacity() << 1));
+                    in = grown.put(in);
+                    flush();
+                    return;
+                }
+            }
+            in.compact();
+            flush();
+        }
+
+        /**
+         * Handles a request, and encodes its response.
+         * @param opcode the opcode of the request.
+         * @param offset the offset of the payload in the input buffer.
+         * @param end the offset of the end of the request in the input buffer.
+         */
+        private void handle(byte opcode, int offset, int end) {
+            int size = end - offset;
+            switch(opcode) {
+                case BinaryProtocol.CREATE_TIMERS -> {
+                    int count = size >= 5 ? in.getInt(offset + 1) : -1;
+                    if(count < 0 || count > BinaryProtocol.MAX_BATCH || size != 5 + count * Long.BYTES) {
+                        status(opcode, BinaryProtocol.BAD_REQUEST);
+                        return;
+                    }
+                    for(int i = 0, nanos = offset + 5; i < count; i++, nanos += Long.BYTES) {
+                        if(in.getLong(nanos) < 0) {
+                            status(opcode, BinaryProtocol.BAD_REQUEST);
+                            return;
+                        }
+                    }
+                    boolean start = in.get(offset) != 0;
+                    int response = begin(opcode, BinaryProtocol.OK, Integer.BYTES + count * Long.BYTES);
+                    out.putInt(count);
+                    for(int i = 0, nanos = offset + 5; i < count; i++, nanos += Long.BYTES) {
+                        out.putLong(create(TimerService.Kind.TIMER, in.getLong(nanos), start));
+                    }
+                    end(response);
+                }
+                case BinaryProtocol.CREATE_STOPWATCHES -> {
+                    int count = size == 5 ? in.getInt(offset + 1) : -1;
+                    if(count < 0 || count > BinaryProtocol.MAX_BATCH) {
+                        status(opcode, BinaryProtocol.BAD_REQUEST);
+                        return;
+                    }
+                    boolean start = in.get(offset) != 0;
+                    int response = begin(opcode, BinaryProtocol.OK, Integer.BYTES + count * Long.BYTES);
+                    out.putInt(count);
+                    for(int i = 0; i < count; i++) {
+                        out.putLong(create(TimerService.Kind.STOPWATCH, 0, start));
+                    }
+                    end(response);
+                }
+                case BinaryProtocol.CANCEL_RANGE -> {
+                    if(size != 2 * Long.BYTES) {
+                        status(opcode, BinaryProtocol.BAD_REQUEST);
+                        return;
+                    }
+                    int cancelled = service.cancelRange(in.getLong(offset), in.getLong(offset + Long.BYTES));
+                    int response = begin(opcode, BinaryProtocol.OK, Integer.BYTES);
+                    out.putInt(cancelled);
+                    end(response);
+                }
+                case BinaryProtocol.QUERY -> {
+                    if(size != Long.BYTES) {
+                        status(opcode, BinaryProtocol.BAD_REQUEST);
+                        return;
+                    }
+                    Timeable timeable = service.get(in.getLong(offset));
+                    if(timeable == null) {
+                        status(opcode, BinaryProtocol.NOT_FOUND);
+                        return;
+                    }
+                    int response = begin(opcode, BinaryProtocol.OK, 1 + Long.BYTES);
+                    out.put((byte) timeable.getState().ordinal());
+                    out.putLong(timeable.getNanos());
+                    end(response);
+                }
+                default -> status(opcode, BinaryProtocol.BAD_REQUEST);
+            }
+        }
+
+        /**
+         * Creates a Timeable.
+         * @param kind the kind of Timeable.
+         * @param nanos the time of a timer, in nanoseconds.
+         * @param start whether to start the Timeable.
+         * @return the id of the Timeable.
+         */
+        private long create(TimerService.Kind kind, long nanos, boolean start) {
+            Timeable timeable = service.create(kind, nanos);
+            if(start) {
+                timeable.start();
+            }
+            return timeable.getId();
+        }
+
+        /**
+         * Encodes a response without a payload.
+         * @param opcode the opcode of the request.
+         * @param status the status of the response.
+         */
+        private void status(byte opcode, byte status) {
+            end(begin(opcode, status, 0));
+        }
+
+        /**
+         * Starts encoding a response.
+         * @param opcode the opcode of the request.
+         * @param status the status of the response.
+         * @param payload the size of the payload of the response, in bytes.
+         * @return the offset of the response in the output buffer.
+         */
+        private int begin(byte opcode, byte status, int payload) {
+            int frameSize = BinaryProtocol.LENGTH_SIZE + 2 + payload;
+            if(out.remaining() < frameSize) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(out.position() + frameSize, out.capacity() << 1));
+                out = grown.put(out.flip());
+            }
+            int response = out.position();
+            out.putInt(0).put(opcode).put(status);
+            return response;
+        }
+
+        /**
+         * Finishes encoding a response, by writing its length.
+         * @param response the offset of the response in the output buffer.
+         */
+        private void end(int response) {
+            out.putInt(response, out.position() - response - BinaryProtocol.LENGTH_SIZE);
+        }
+
+        /**
+         * Writes as many pending responses as the channel takes, and updates the interest of the
+         * key: in writing while responses are pending, and in reading unless too many are.
+         * @throws IOException if the channel cannot be written.
+         */
+        void flush() throws IOException {
+            out.flip();
+            if(out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.compact();
+            int pending = out.position();
+            int interest = pending >= HIGH_WATER_MARK ? 0 : SelectionKey.OP_READ;
+            if(pending > 0) {
+                interest |= SelectionKey.OP_WRITE;
+            }
+            if(key.isValid() && key.interestOps() != interest) {
+                key.interestOps(interest);
+            }
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package com.theschool.clock.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.theschool.clock.model.TickScheduler;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.Timer;
+import com.theschool.clock.util.LatencyHistogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A headless clock, serving the stopwatches and timers of a {@link TimerService} over HTTP.
+ * <p>
+ * The server uses the HTTP server of the JDK and never loads AWT. Each request is handled on a
+ * virtual thread when the runtime supports them, and on a pool of platform threads otherwise.
+ * Responses are JSON objects describing a Timeable, such as
+ * {@code {"id":1,"type":"timer","state":"RUNNING","nanos":9000000000,"time":"00:00:09.000","originalNanos":10000000000}}.
+ * <p>
+ * The API is:
+ * <ul>
+ *     <li>{@code POST /timers?type=timer&seconds=10} creates a timer, which may also be given in
+ *     {@code nanos}, and {@code POST /timers?type=stopwatch} creates a stopwatch.</li>
+ *     <li>{@code GET /timers} returns the number of Timeables.</li>
+ *     <li>{@code GET /timers/{id}} returns a Timeable.</li>
+ *     <li>{@code GET /timers/next?n=10} returns the next running timers to expire, ordered by
+ *     deadline. {@code within} also counts the timers that expire within a number of milliseconds.</li>
+ *     <li>{@code GET /timers/latency} returns the count, p50, p99, p999 and max, in nanoseconds, of
+ *     how late the ticks of the scheduler ran ({@code tickLag}) and how late the timers expired
+ *     ({@code expiryLatency}). {@code reset=true} starts the next measurement from scratch.</li>
+ *     <li>{@code POST /timers/{id}/start}, {@code /pause}, {@code /resume}, {@code /reset} and
+ *     {@code /lap} control a Timeable, and return it.</li>
+ *     <li>{@code DELETE /timers/{id}} stops and removes a Timeable.</li>
+ *     <li>{@code GET /events?ids=1,2,3} streams the ticks ({@code tick}), changes of state
+ *     ({@code state}) and laps ({@code lap}) of Timeables as server-sent events, starting with
+ *     their current state. {@code interval} sets the minimum number of milliseconds between two
+ *     ticks of a Timeable; ticks in between are skipped. An id given twice is an invalid parameter.</li>
+ * </ul>
+ * Unknown ids are answered with 404, invalid parameters with 400, and a lap of a timer with 409.
+ *
+ * @see TimerService
+ *
+ * @author Thomas Munguya
+ */
+public final class ClockServer implements Closeable {
+
+    /**
+     * Defines the default port of the server.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Defines the path of the Timeables.
+     */
+    static final String TIMERS_PATH = "/timers";
+
+    /**
+     * Defines the path of the event streams.
+     */
+    static final String EVENTS_PATH = "/events";
+
+    /**
+     * Defines the path of the next timers to expire.
+     */
+    static final String NEXT_PATH = TIMERS_PATH + "/next";
+
+    /**
+     * Defines the path of the latency histograms of the scheduler.
+     */
+    static final String LATENCY_PATH = TIMERS_PATH + "/latency";
+
+    /**
+     * Defines the default number of timers returned on {@value #NEXT_PATH}.
+     */
+    private static final int DEFAULT_NEXT_COUNT = 10;
+
+    /**
+     * Defines the interval at which an idle event stream is sent a comment, to detect a closed connection.
+     */
+    private static final long KEEP_ALIVE_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    /**
+     * Defines the frame sent to an idle event stream.
+     */
+    private static final byte[] KEEP_ALIVE_FRAME = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Defines the number of connections waiting to be accepted before new ones are refused.
+     */
+    private static final int BACKLOG = 1024;
+
+    static {
+        // the server writes the headers and the body of a response separately: without this, the
+        // body waits for the acknowledgement of the headers, which is delayed by up to 40 ms.
+        if(System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Defines the HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Defines the executor the requests are handled on.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Defines the service the requests are applied to.
+     */
+    private final TimerService service;
+
+    /**
+     * Constructs a {@code ClockServer}. It does not accept connections until it is started.
+     * @param address the address to listen on. Its port may be zero, to listen on any free port.
+     * @param service the service the requests are applied to.
+     * @throws IllegalArgumentException if {@code address} or {@code service} is {@code null}.
+     * @throws IOException if the server cannot listen on the address.
+     */
+    public ClockServer(InetSocketAddress address, TimerService service) throws IOException {
+        if(address == null) {
+            throw new IllegalArgumentException("Address argument cannot be null.");
+        }
+        if(service == null) {
+            throw new IllegalArgumentException("Service argument cannot be null.");
+        }
+        this.service = service;
+        this.executor = newExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext(TIMERS_PATH, new TimersHandler());
+        server.createContext(EVENTS_PATH, new EventsHandler());
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     * @return the port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the service the requests are applied to.
+     * @return the service.
+     */
+    public TimerService getService() {
+        return service;
+    }
+
+    /**
+     * Stops the server, and the threads handling its requests.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread, or on a pool of platform
+     * threads if the runtime does not support virtual threads. The pool is not bounded, since an
+     * event stream holds its thread for as long as it is open.
+     * <p>
+     * Virtual threads are looked up reflectively so that the server still builds and runs on
+     * runtimes without them.
+     * @return the executor.
+     */
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicLong count = new AtomicLong();
+            return Executors.newCachedThreadPool((runnable) -> {
+                Thread thread = new Thread(runnable, "clock-server-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Runs a headless clock.
+     * @param args the port to listen on, which defaults to {@value #DEFAULT_PORT}.
+     * @throws IOException if the server cannot listen on the port.
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        ClockServer server = new ClockServer(new InetSocketAddress(port), new TimerService());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "clock-server-close"));
+        server.start();
+        System.out.println("Clock server listening on port " + server.getPort());
+    }
+
+    /**
+     * Handles the requests on the Timeables.
+     */
+    private final class TimersHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                route(exchange);
+            } catch (NumberFormatException e) {
+                respondError(exchange, 400, "Invalid number: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                respondError(exchange, 400, e.getMessage());
+            } catch (IllegalStateException e) {
+                respondError(exchange, 409, e.getMessage());
+            } catch (RuntimeException e) {
+                respondError(exchange, 500, String.valueOf(e));
+            } finally {
+                exchange.close();
+            }
+        }
+
+        /**
+         * Applies a request to the service, and responds to it.
+         * @param exchange the exchange of the request.
+         * @throws IOException if the response cannot be sent.
+         */
+        private void route(HttpExchange exchange) throws IOException {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getRawPath();
+            int start = TIMERS_PATH.length();
+            if(path.length() <= start + 1) {
+                if(path.length() == start || path.charAt(start) == '/') {
+                    if("POST".equals(method)) {
+                        create(exchange);
+                    }
+                    else if("GET".equals(method)) {
+                        respond(exchange, 200, new StringBuilder("{\"count\":").append(service.size()).append('}'));
+                    }
+                    else {
+                        respondError(exchange, 405, method + " is not allowed on " + path + ".");
+                    }
+                    return;
+                }
+            }
+            if(path.charAt(start) != '/') {
+                respondError(exchange, 404, path + " does not exist.");
+                return;
+            }
+            if(path.equals(NEXT_PATH) || path.equals(LATENCY_PATH)) {
+                if(!"GET".equals(method)) {
+                    respondError(exchange, 405, method + " is not allowed on " + path + ".");
+                }
+                else if(path.equals(NEXT_PATH)) {
+                    next(exchange);
+                }
+                else {
+                    latency(exchange);
+                }
+                return;
+            }
+            int slash = path.indexOf('/', start + 1);
+            long id = Long.parseLong(path.substring(start + 1, slash < 0 ? path.length() : slash));
+            String action = slash < 0 ? "" : path.substring(slash + 1);
+
+            Timeable timeable;
+            switch(method + ' ' + action) {
+                case "GET " -> timeable = service.get(id);
+                case "DELETE " -> timeable = service.remove(id);
+                case "POST start" -> timeable = service.start(id);
+                case "POST pause" -> timeable = service.pause(id);
+                case "POST resume" -> timeable = service.resume(id);
+                case "POST reset" -> timeable = service.reset(id);
+                case "POST lap" -> timeable = service.lap(id);
+                default -> {
+                    respondError(exchange, 404, method + ' ' + path + " does not exist.");
+                    return;
+                }
+            }
+            if(timeable == null) {
+                respondError(exchange, 404, "Timeable " + id + " does not exist.");
+                return;
+            }
+            respond(exchange, 200, TimeableJson.append(timeable, new StringBuilder(160)));
+        }
+
+        /**
+         * Creates a Timeable from the parameters of a request, and responds with it.
+         * @param exchange the exchange of the request.
+         * @throws IOException if the response cannot be sent.
+         */
+        private void create(HttpExchange exchange) throws IOException {
+            String query = exchange.getRequestURI().getRawQuery();
+            TimerService.Kind kind = TimerService.Kind.STOPWATCH;
+            long nanos = 0;
+            if(query != null) {
+                for(String parameter : query.split("&")) {
+                    int equals = parameter.indexOf('=');
+                    String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                    String value = equals < 0 ? "" : parameter.substring(equals + 1);
+                    switch(name) {
+                        case "type" -> kind = kindOf(value);
+                        case "nanos" -> nanos = Long.parseLong(value);
+                        case "seconds" -> nanos = TimeUnit.SECONDS.toNanos(Long.parseLong(value));
+                        default -> {
+                        }
+                    }
+                }
+            }
+            Timeable timeable = service.create(kind, nanos);
+            respond(exchange, 201, TimeableJson.append(timeable, new StringBuilder(160)));
+        }
+
+        /**
+         * Responds with the next timers to expire, and the number of timers expiring within a window if one is given.
+         * @param exchange the exchange of the request.
+         * @throws IOException if the response cannot be sent.
+         */
+        private void next(HttpExchange exchange) throws IOException {
+            String query = exchange.getRequestURI().getRawQuery();
+            int n = DEFAULT_NEXT_COUNT;
+            long withinMillis = -1;
+            if(query != null) {
+                for(String parameter : query.split("&")) {
+                    int equals = parameter.indexOf('=');
+                    String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                    String value = equals < 0 ? "" : parameter.substring(equals + 1);
+                    switch(name) {
+                        case "n" -> n = Integer.parseInt(value);
+                        case "within" -> withinMillis = Long.parseLong(value);
+                        default -> {
+                        }
+                    }
+                }
+            }
+            List<Timer> next = service.getExpiryIndex().peekNext(n);
+            StringBuilder json = new StringBuilder(32 + next.size() * 160);
+            json.append('{');
+            if(withinMillis >= 0) {
+                json.append("\"within\":").append(service.getExpiryIndex().countWithin(TimeUnit.MILLISECONDS.toNanos(withinMillis))).append(',');
+            }
+            json.append("\"timers\":[");
+            for(int i = 0; i < next.size(); i++) {
+                if(i > 0) {
+                    json.append(',');
+                }
+                TimeableJson.append(next.get(i), json);
+            }
+            respond(exchange, 200, json.append("]}"));
+        }
+
+        /**
+         * Responds with the latency histograms of the scheduler, resetting them if the request asks to.
+         * @param exchange the exchange of the request.
+         * @throws IOException if the response cannot be sent.
+         */
+        private void latency(HttpExchange exchange) throws IOException {
+            String query = exchange.getRequestURI().getRawQuery();
+            boolean reset = query != null && query.contains("reset=true");
+            TickScheduler scheduler = TickScheduler.getShared();
+            LatencyHistogram.Snapshot tickLag = reset
+                    ? scheduler.getTickLag().snapshotAndReset()
+                    : scheduler.getTickLag().snapshot();
+            LatencyHistogram.Snapshot expiryLatency = reset
+                    ? scheduler.getExpiryLatency().snapshotAndReset()
+                    : scheduler.getExpiryLatency().snapshot();
+            StringBuilder json = new StringBuilder(256).append("{\"tickLag\":");
+            appendLatency(tickLag, json).append(",\"expiryLatency\":");
+            respond(exchange, 200, appendLatency(expiryLatency, json).append('}'));
+        }
+
+        /**
+         * Appends a latency histogram to a JSON document.
+         * @param snapshot the values of the histogram.
+         * @param json the document.
+         * @return the document.
+         */
+        private StringBuilder appendLatency(LatencyHistogram.Snapshot snapshot, StringBuilder json) {
+            return json.append("{\"count\":").append(snapshot.getCount())
+                    .append(",\"p50\":").append(snapshot.getP50())
+                    .append(",\"p99\":").append(snapshot.getP99())
+                    .append(",\"p999\":").append(snapshot.getP999())
+                    .append(",\"max\":").append(snapshot.getMax()).append('}');
+        }
+
+        /**
+         * Returns the kind of Timeable named by a parameter.
+         * @param value the value of the parameter, e.g timer.
+         * @return the kind.
+         * @throws IllegalArgumentException if {@code value} is not a kind of Timeable.
+         */
+        private TimerService.Kind kindOf(String value) {
+            for(TimerService.Kind kind : TimerService.Kind.values()) {
+                if(kind.name().equalsIgnoreCase(value)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Invalid value provided for type.");
+        }
+    }
+
+    /**
+     * Streams the events of Timeables to a client.
+     */
+    private final class EventsHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                if(!"GET".equals(exchange.getRequestMethod())) {
+                    respondError(exchange, 405, exchange.getRequestMethod() + " is not allowed on " + EVENTS_PATH + ".");
+                    return;
+                }
+                stream(exchange);
+            } catch (NumberFormatException e) {
+                respondError(exchange, 400, "Invalid number: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                respondError(exchange, 400, e.getMessage());
+            } finally {
+                exchange.close();
+            }
+        }
+
+        /**
+         * Subscribes to the Timeables of a request, and writes their events until the client
+         * disconnects, falls too far behind, or a Timeable is removed.
+         * @param exchange the exchange of the request.
+         * @throws IOException if the response cannot be started.
+         */
+        private void stream(HttpExchange exchange) throws IOException {
+            String ids = null;
+            long intervalNanos = 0;
+            String query = exchange.getRequestURI().getRawQuery();
+            if(query != null) {
+                for(String parameter : query.split("&")) {
+                    if(parameter.startsWith("ids=")) {
+                        ids = parameter.substring(4);
+                    }
+                    else if(parameter.startsWith("interval=")) {
+                        intervalNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(parameter.substring(9)));
+                    }
+                }
+            }
+            if(ids == null || ids.isEmpty()) {
+                throw new IllegalArgumentException("Ids parameter cannot be empty.");
+            }
+            String[] values = ids.split(",");
+            TimeableBroadcaster[] broadcasters = new TimeableBroadcaster[values.length];
+            Set<Long> distinct = new HashSet<>();
+            for(String value : values) {
+                if(!distinct.add(Long.parseLong(value))) {
+                    throw new IllegalArgumentException("Invalid value provided for ids.");
+                }
+            }
+            for(int i = 0; i < values.length; i++) {
+                broadcasters[i] = service.getBroadcaster(Long.parseLong(values[i]));
+                if(broadcasters[i] == null) {
+                    respondError(exchange, 404, "Timeable " + values[i] + " does not exist.");
+                    return;
+                }
+            }
+
+            EventSubscriber subscriber = new EventSubscriber(broadcasters.length);
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            for(int i = 0; i < broadcasters.length; i++) {
+                broadcasters[i].subscribe(subscriber, i);
+            }
+            try(OutputStream out = exchange.getResponseBody()) {
+                for(TimeableBroadcaster broadcaster : broadcasters) {
+                    out.write(broadcaster.stateFrame());
+                }
+                out.flush();
+                long lastWrite = System.nanoTime();
+                long nextTick = lastWrite;
+                while(!subscriber.isClosed()) {
+                    boolean written = false;
+                    for(byte[] event = subscriber.pollEvent(); event != null; event = subscriber.pollEvent()) {
+                        out.write(event);
+                        written = true;
+                    }
+                    long now = System.nanoTime();
+                    boolean ticksDue = now - nextTick >= 0;
+                    if(ticksDue) {
+                        for(int i = 0; i < broadcasters.length; i++) {
+                            byte[] tick = subscriber.pollTick(i);
+                            if(tick != null) {
+                                out.write(tick);
+                                written = true;
+                            }
+                        }
+                        if(written) {
+                            nextTick = now + intervalNanos;
+                        }
+                    }
+                    if(!written && now - lastWrite >= KEEP_ALIVE_NANOS) {
+                        out.write(KEEP_ALIVE_FRAME);
+                        written = true;
+                    }
+                    if(written) {
+                        out.flush();
+                        lastWrite = now;
+                    }
+                    long wait = ticksDue ? KEEP_ALIVE_NANOS : Math.min(nextTick - now, KEEP_ALIVE_NANOS);
+                    subscriber.await(wait, ticksDue);
+                }
+            } catch (IOException e) {
+                // the client disconnected.
+            } finally {
+                for(TimeableBroadcaster broadcaster : broadcasters) {
+                    broadcaster.unsubscribe(subscriber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Responds to a request with a JSON document.
+     * @param exchange the exchange of the request.
+     * @param status the status of the response.
+     * @param json the document.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void respond(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Responds to a request with an error.
+     * @param exchange the exchange of the request.
+     * @param status the status of the response.
+     * @param message the message of the error.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, TimeableJson.appendError(String.valueOf(message), new StringBuilder()));
+    }
+}
@@ -0,0 +1,172 @@
+package com.theschool.clock.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A client of the event stream of one or more Timeables.
+ * <p>
+ * The frames of a subscriber are written by a single thread, its writer, and offered by the
+ * threads that drive its Timeables. Frames are never copied: each one is serialized once by the
+ * {@link TimeableBroadcaster} of its Timeable and shared by all its subscribers.
+ * <p>
+ * Ticks and changes of state are kept apart. The subscriber holds a single slot for the latest
+ * tick of each Timeable: a tick the writer has not written yet is replaced by the next one, so a
+ * slow client skips stale ticks instead of falling behind. Changes of state are queued, up to
+ * {@value #MAX_PENDING_EVENTS} of them; a client that falls further behind is disconnected.
+ *
+ * @author Thomas Munguya
+ */
+final class EventSubscriber {
+
+    /**
+     * Defines the number of changes of state a subscriber may fall behind by before it is disconnected.
+     */
+    static final int MAX_PENDING_EVENTS = 256;
+
+    /**
+     * Defines the latest tick not yet written of each Timeable, by subscription index.
+     */
+    private final AtomicReferenceArray<byte[]> latestTicks;
+
+    /**
+     * Defines the changes of state not yet written.
+     */
+    private final ArrayBlockingQueue<byte[]> events = new ArrayBlockingQueue<>(MAX_PENDING_EVENTS);
+
+    /**
+     * Defines the writer of the subscriber, while it waits for frames.
+     */
+    private volatile Thread waiter;
+
+    /**
+     * Defines whether the subscriber was disconnected: it fell behind, or a Timeable was removed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Defines the number of ticks replaced before they were written.
+     */
+    private final AtomicLong droppedTicks = new AtomicLong();
+
+    /**
+     * Constructs an {@code EventSubscriber}.
+     * @param timeables the number of Timeables the subscriber follows.
+     */
+    EventSubscriber(int timeables) {
+        this.latestTicks = new AtomicReferenceArray<>(timeables);
+    }
+
+    /**
+     * Offers a tick, replacing the previous tick of the same Timeable if it was not written yet.
+     * @param index the subscription index of the Timeable.
+     * @param frame the frame of the tick.
+     */
+    void offerTick(int index, byte[] frame) {
+        if(latestTicks.getAndSet(index, frame) != null) {
+            droppedTicks.incrementAndGet();
+        }
+        signal();
+    }
+
+    /**
+     * Offers a change of state. The subscriber is disconnected if it has too many of them pending.
+     * @param index the subscription index of the Timeable.
+     * @param frame the frame of the change of state, which supersedes any pending tick.
+     */
+    void offerEvent(int index, byte[] frame) {
+        latestTicks.set(index, null);
+        if(!events.offer(frame)) {
+            closed = true;
+        }
+        signal();
+    }
+
+    /**
+     * Disconnects the subscriber.
+     */
+    void close() {
+        closed = true;
+        signal();
+    }
+
+    /**
+     * Returns whether the subscriber was disconnected.
+     * @return {@code true} if it was disconnected, and {@code false} otherwise.
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the number of ticks replaced before they were written.
+     * @return the number of dropped ticks.
+     */
+    long getDroppedTicks() {
+        return droppedTicks.get();
+    }
+
+    /**
+     * Returns the next pending change of state. Only the writer may call this method.
+     * @return the frame, or {@code null} if none is pending.
+     */
+    byte[] pollEvent() {
+        return events.poll();
+    }
+
+    /**
+     * Returns the pending tick of a Timeable, and clears it. Only the writer may call this method.
+     * @param index the subscription index of the Timeable.
+     * @return the frame, or {@code null} if none is pending.
+     */
+    byte[] pollTick(int index) {
+        return latestTicks.getAndSet(index, null);
+    }
+
+    /**
+     * Returns the number of Timeables the subscriber follows.
+     * @return the number of Timeables.
+     */
+    int size() {
+        return latestTicks.length();
+    }
+
+    /**
+     * Waits for a frame to be offered, for the subscriber to be disconnected, or for a timeout.
+     * Only the writer may call this method.
+     * @param timeoutNanos the timeout, in nanoseconds.
+     * @param ticks whether a tick ends the wait, or only a change of state does.
+     */
+    void await(long timeoutNanos, boolean ticks) {
+        waiter = Thread.currentThread();
+        if(!closed && events.isEmpty() && !(ticks && hasTicks())) {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+        waiter = null;
+    }
+
+    /**
+     * Returns whether a tick is pending.
+     * @return {@code true} if a tick is pending, and {@code false} otherwise.
+     */
+    private boolean hasTicks() {
+        for(int i = 0; i < latestTicks.length(); i++) {
+            if(latestTicks.get(i) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wakes the writer up if it is waiting.
+     */
+    private void signal() {
+        Thread thread = waiter;
+        if(thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
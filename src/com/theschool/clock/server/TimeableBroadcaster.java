@@ -0,0 +1,176 @@
+package com.theschool.clock.server;
+
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.TimeSink;
+import com.theschool.clock.model.Timeable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link TimeSink} that streams the ticks and changes of state of a Timeable to its subscribers,
+ * as server-sent events.
+ * <p>
+ * Each tick or change of state is serialized once into a frame, which is handed to every
+ * subscriber as is. A Timeable without subscribers costs a single volatile read per tick. The
+ * subscribers are kept in an array that is copied when they change, so handing out a frame
+ * takes no lock.
+ *
+ * @see EventSubscriber
+ *
+ * @author Thomas Munguya
+ */
+final class TimeableBroadcaster implements TimeSink {
+
+    /**
+     * Defines an empty list of subscriptions.
+     */
+    private static final Subscription[] NONE = new Subscription[0];
+
+    /**
+     * Defines the Timeable of the broadcaster.
+     */
+    private final Timeable timeable;
+
+    /**
+     * Defines the subscriptions to the Timeable.
+     */
+    private volatile Subscription[] subscriptions = NONE;
+
+    /**
+     * Constructs a {@code TimeableBroadcaster}.
+     * @param timeable the Timeable of the broadcaster.
+     */
+    TimeableBroadcaster(Timeable timeable) {
+        this.timeable = timeable;
+    }
+
+    /**
+     * Adds a subscriber.
+     * @param subscriber the subscriber.
+     * @param index the subscription index of the Timeable for the subscriber.
+     */
+    synchronized void subscribe(EventSubscriber subscriber, int index) {
+        Subscription[] current = subscriptions;
+        Subscription[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = new Subscription(subscriber, index);
+        subscriptions = grown;
+    }
+
+    /**
+     * Removes every subscription of a subscriber.
+     * @param subscriber the subscriber.
+     */
+    synchronized void unsubscribe(EventSubscriber subscriber) {
+        Subscription[] current = subscriptions;
+        Subscription[] kept = new Subscription[current.length];
+        int count = 0;
+        for(Subscription subscription : current) {
+            if(subscription.subscriber != subscriber) {
+                kept[count++] = subscription;
+            }
+        }
+        if(count != current.length) {
+            subscriptions = count == 0 ? NONE : Arrays.copyOf(kept, count);
+        }
+    }
+
+    /**
+     * Disconnects all the subscribers, such as when the Timeable is removed.
+     */
+    synchronized void close() {
+        for(Subscription subscription : subscriptions) {
+            subscription.subscriber.close();
+        }
+        subscriptions = NONE;
+    }
+
+    /**
+     * Returns the number of subscribers.
+     * @return the number of subscribers.
+     */
+    int getSubscriberCount() {
+        return subscriptions.length;
+    }
+
+    /**
+     * Returns the frame describing the current state of the Timeable, as sent when a subscriber connects.
+     * @return the frame.
+     */
+    byte[] stateFrame() {
+        return frame("state", timeable);
+    }
+
+    @Override
+    public void onTick(long nanos) {
+        Subscription[] current = subscriptions;
+        if(current.length == 0) {
+            return;
+        }
+        byte[] frame = frame("tick", timeable);
+        for(Subscription subscription : current) {
+            subscription.subscriber.offerTick(subscription.index, frame);
+        }
+    }
+
+    @Override
+    public void onStateChanged(Timeable source, Timeable.State previous, Timeable.State current) {
+        broadcastEvent("state");
+    }
+
+    @Override
+    public void onLap(Stopwatch source, long elapsedNanos) {
+        broadcastEvent("lap");
+    }
+
+    /**
+     * Hands a change of the Timeable to the subscribers.
+     * @param event the name of the event.
+     */
+    private void broadcastEvent(String event) {
+        Subscription[] current = subscriptions;
+        if(current.length == 0) {
+            return;
+        }
+        byte[] frame = frame(event, timeable);
+        for(Subscription subscription : current) {
+            subscription.subscriber.offerEvent(subscription.index, frame);
+        }
+    }
+
+    /**
+     * Serializes the state of a Timeable into a server-sent event.
+     * @param event the name of the event.
+     * @param timeable the Timeable.
+     * @return the frame.
+     */
+    private static byte[] frame(String event, Timeable timeable) {
+        StringBuilder frame = new StringBuilder(192).append("event: ").append(event).append("\ndata: ");
+        return TimeableJson.append(timeable, frame).append("\n\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The subscription of a subscriber to the Timeable.
+     */
+    private static final class Subscription {
+        /**
+         * The subscriber.
+         */
+        final EventSubscriber subscriber;
+
+        /**
+         * The subscription index of the Timeable for the subscriber.
+         */
+        final int index;
+
+        /**
+         * Constructs a {@code Subscription}.
+         * @param subscriber the subscriber.
+         * @param index the subscription index of the Timeable for the subscriber.
+         */
+        Subscription(EventSubscriber subscriber, int index) {
+            this.subscriber = subscriber;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.theschool.clock.server;
+
+import com.theschool.clock.model.LapRecorder;
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.Timer;
+import com.theschool.clock.util.TimeFormatter;
+
+/**
+ * Writes the state of Timeables as JSON.
+ * <p>
+ * The documents only hold numbers, enum names and formatted times, so they are appended straight
+ * to a {@link StringBuilder} without escaping.
+ *
+ * @author Thomas Munguya
+ */
+final class TimeableJson {
+
+    /**
+     * Defines the number of fraction digits of the formatted times.
+     */
+    private static final int FRACTION_DIGITS = 3;
+
+    /**
+     * Prevents instantiation.
+     */
+    private TimeableJson() {
+    }
+
+    /**
+     * Appends the state of a Timeable as a JSON object.
+     * @param timeable the Timeable.
+     * @param json the builder to append to.
+     * @return {@code json}.
+     */
+    static StringBuilder append(Timeable timeable, StringBuilder json) {
+        long nanos = timeable.getNanos();
+        json.append("{\"id\":").append(timeable.getId())
+                .append(",\"type\":\"").append(timeable instanceof Timer ? "timer" : "stopwatch")
+                .append("\",\"state\":\"").append(timeable.getState().name())
+                .append("\",\"nanos\":").append(nanos)
+                .append(",\"time\":\"");
+        TimeFormatter.append(nanos, FRACTION_DIGITS, json).append('"');
+        if(timeable instanceof Timer) {
+            json.append(",\"originalNanos\":").append(((Timer) timeable).getOriginalNanos());
+        }
+        else if(timeable instanceof Stopwatch) {
+            LapRecorder laps = ((Stopwatch) timeable).getLaps();
+            int size = laps.size();
+            json.append(",\"laps\":").append(size);
+            if(size > 0) {
+                json.append(",\"lastLapNanos\":").append(laps.getCumulative(size - 1))
+                        .append(",\"lastSplitNanos\":").append(laps.getSplit(size - 1));
+            }
+        }
+        return json.append('}');
+    }
+
+    /**
+     * Appends an error as a JSON object.
+     * @param message the message of the error.
+     * @param json the builder to append to.
+     * @return {@code json}.
+     */
+    static StringBuilder appendError(String message, StringBuilder json) {
+        json.append("{\"error\":\"");
+        for(int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if(c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            }
+            else if(c >= ' ') {
+                json.append(c);
+            }
+        }
+        return json.append("\"}");
+    }
+}
@@ -0,0 +1,249 @@
+package com.theschool.clock.server;
+
+import com.theschool.clock.model.ExpiryIndex;
+import com.theschool.clock.model.Stopwatch;
+import com.theschool.clock.model.Time;
+import com.theschool.clock.model.TimeSinks;
+import com.theschool.clock.model.Timeable;
+import com.theschool.clock.model.TimeableRegistry;
+import com.theschool.clock.model.Timer;
+import com.theschool.clock.util.StripedLongMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the stopwatches and timers of a headless clock, and controls them by id.
+ * <p>
+ * The service does not depend on AWT or Swing, so it runs on servers. Its Timeables are driven by
+ * the shared {@link com.theschool.clock.model.TickScheduler} and kept in a {@link TimeableRegistry},
+ * and its methods may be called from any thread. Each Timeable streams its ticks and changes of state to the subscribers of its
+ * {@link TimeableBroadcaster}, which is its sink. Running timers are also kept in an
+ * {@link ExpiryIndex}, which tells which ones expire next.
+ *
+ * @see ClockServer
+ *
+ * @author Thomas Munguya
+ */
+public class TimerService {
+
+    /**
+     * The kinds of Timeables the service creates.
+     */
+    public enum Kind {
+        /**
+         * A {@link Stopwatch}.
+         */
+        STOPWATCH,
+
+        /**
+         * A {@link Timer}.
+         */
+        TIMER
+    }
+
+    /**
+     * Defines the Timeables of the service.
+     */
+    private final TimeableRegistry timeables = new TimeableRegistry();
+
+    /**
+     * Defines the broadcasters of the Timeables, by id.
+     */
+    private final StripedLongMap<TimeableBroadcaster> broadcasters = new StripedLongMap<>();
+
+    /**
+     * Defines the index of the running timers of the service, by deadline.
+     */
+    private final ExpiryIndex expiries = new ExpiryIndex();
+
+    /**
+     * Creates a Timeable.
+     * @param kind the kind of Timeable.
+     * @param nanos the time of a timer, in nanoseconds. It is ignored for a stopwatch.
+     * @return the Timeable, which is idle.
+     * @throws IllegalArgumentException if {@code kind} is {@code null}, or {@code nanos} is less than zero.
+     */
+    public Timeable create(Kind kind, long nanos) {
+        if(kind == null) {
+            throw new IllegalArgumentException("Kind argument cannot be null.");
+        }
+        Timeable timeable = kind == Kind.TIMER ? new Timer(Time.ofNanos(nanos)) : new Stopwatch();
+        TimeableBroadcaster broadcaster = new TimeableBroadcaster(timeable);
+        timeable.setTimeSink(kind == Kind.TIMER ? TimeSinks.compose(broadcaster, expiries.sink()) : broadcaster);
+        broadcasters.put(timeable.getId(), broadcaster);
+        timeables.register(timeable);
+        return timeable;
+    }
+
+    /**
+     * Returns a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable get(long id) {
+        return timeables.get(id);
+    }
+
+    /**
+     * Returns the registry of the Timeables of the service.
+     * @return the registry.
+     */
+    public TimeableRegistry getRegistry() {
+        return timeables;
+    }
+
+    /**
+     * Returns the index of the running timers of the service, by deadline.
+     * @return the index.
+     */
+    public ExpiryIndex getExpiryIndex() {
+        return expiries;
+    }
+
+    /**
+     * Returns the broadcaster of a Timeable.
+     * @param id the id of the Timeable.
+     * @return the broadcaster, or {@code null} if there is no Timeable with this id.
+     */
+    TimeableBroadcaster getBroadcaster(long id) {
+        return broadcasters.get(id);
+    }
+
+    /**
+     * Returns the Timeables of the service.
+     * @return a copy of the Timeables, in no particular order.
+     */
+    public List<Timeable> snapshot() {
+        List<Timeable> snapshot = new ArrayList<>(timeables.size());
+        timeables.forEach(snapshot::add);
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of Timeables of the service.
+     * @return the number of Timeables.
+     */
+    public int size() {
+        return timeables.size();
+    }
+
+    /**
+     * Starts a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable start(long id) {
+        return timeables.start(id);
+    }
+
+    /**
+     * Pauses a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable pause(long id) {
+        return timeables.pause(id);
+    }
+
+    /**
+     * Resumes a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable resume(long id) {
+        return timeables.resume(id);
+    }
+
+    /**
+     * Resets a Timeable.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable reset(long id) {
+        Timeable timeable = timeables.get(id);
+        if(timeable != null) {
+            timeable.reset();
+        }
+        return timeable;
+    }
+
+    /**
+     * Records a lap of a stopwatch.
+     * @param id the id of the stopwatch.
+     * @return the stopwatch, or {@code null} if there is none with this id.
+     * @throws IllegalStateException if the Timeable with this id is not a stopwatch.
+     */
+    public Stopwatch lap(long id) {
+        Timeable timeable = timeables.get(id);
+        if(timeable == null) {
+            return null;
+        }
+        if(!(timeable instanceof Stopwatch)) {
+            throw new IllegalStateException("Timeable " + id + " is not a stopwatch.");
+        }
+        Stopwatch stopwatch = (Stopwatch) timeable;
+        stopwatch.lap();
+        stopwatch.drainLaps();
+        return stopwatch;
+    }
+
+    /**
+     * Removes a Timeable from the service, stopping it and disconnecting its subscribers.
+     * @param id the id of the Timeable.
+     * @return the Timeable, or {@code null} if there is none with this id.
+     */
+    public Timeable remove(long id) {
+        Timeable timeable = timeables.cancel(id);
+        if(timeable != null) {
+            expiries.remove(id);
+            TimeableBroadcaster broadcaster = broadcasters.remove(id);
+            if(broadcaster != null) {
+                broadcaster.close();
+            }
+        }
+        return timeable;
+    }
+
+    /**
+     * Removes the Timeables whose ids are in a range from the service, stopping them.
+     * @param fromId the lowest id of the range.
+     * @param toId the id following the range.
+     * @return the number of Timeables removed.
+     */
+    public int cancelRange(long fromId, long toId) {
+        if(fromId >= toId) {
+            return 0;
+        }
+        int cancelled = 0;
+        long width = toId - fromId;
+        if(width > 0 && width <= timeables.size()) {
+            for(long id = fromId; id < toId; id++) {
+                if(remove(id) != null) {
+                    cancelled++;
+                }
+            }
+        }
+        else {
+            // the range is wider than the population: look at the Timeables rather than at the ids.
+            long[] ids = new long[16];
+            int count = 0;
+            for(Timeable timeable : snapshot()) {
+                long id = timeable.getId();
+                if(id >= fromId && id < toId) {
+                    if(count == ids.length) {
+                        ids = Arrays.copyOf(ids, count << 1);
+                    }
+                    ids[count++] = id;
+                }
+            }
+            for(int i = 0; i < count; i++) {
+                if(remove(ids[i]) != null) {
+                    cancelled++;
+                }
+            }
+        }
+        return cancelled;
+    }
+}
@@ -0,0 +1,238 @@
+package com.theschool.clock.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies, in nanoseconds, recorded without locks or allocation.
+ * <p>
+ * The histogram is log-linear, like HdrHistogram: the values below {@code 2^}{@value #PRECISION_BITS}
+ * have a bucket each, and every further power of two is split into {@code 2^(}{@value #PRECISION_BITS}
+ * {@code - 1)} buckets of equal width. A value is therefore known to within 1/64 of itself, from
+ * a nanosecond to the largest {@code long}, in a fixed array of 3712 counters allocated once.
+ * Recording a value is an atomic increment of its bucket, plus a compare-and-set of the maximum
+ * when it is a new maximum, so many threads may record at once.
+ * <p>
+ * Percentiles are read from a {@link Snapshot}. A snapshot taken while values are recorded may
+ * miss some of them, but never counts a value twice; {@link #snapshotAndReset()} hands every
+ * value to exactly one snapshot.
+ *
+ * @author Thomas Munguya
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Defines the number of bits of a value that select its bucket within its power of two.
+     */
+    public static final int PRECISION_BITS = 7;
+
+    /**
+     * Defines the number of buckets in each power of two above the linear range.
+     */
+    private static final int HALF = 1 << (PRECISION_BITS - 1);
+
+    /**
+     * Defines the number of buckets: the linear range, then {@link #HALF} buckets per power of two up to {@code 2^63}.
+     */
+    private static final int BUCKETS = (64 - PRECISION_BITS + 1) * HALF;
+
+    /**
+     * Defines the number of values recorded in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Defines the largest value recorded.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     * @param nanos the latency, in nanoseconds. A negative latency is recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.getAndIncrement(indexOf(value));
+        long current = max.get();
+        while(value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Returns the values recorded so far.
+     * @return the snapshot.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, max.get());
+    }
+
+    /**
+     * Returns the values recorded so far, and removes them from the histogram.
+     * @return the snapshot.
+     */
+    public Snapshot snapshotAndReset() {
+        long[] copy = new long[BUCKETS];
+        long largest = max.getAndSet(0);
+        for(int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.getAndSet(i, 0);
+        }
+        return new Snapshot(copy, largest);
+    }
+
+    /**
+     * Removes every value recorded.
+     */
+    public void reset() {
+        snapshotAndReset();
+    }
+
+    /**
+     * Returns the bucket of a value.
+     * @param value the value, not negative.
+     * @return the index of the bucket.
+     */
+    static int indexOf(long value) {
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (PRECISION_BITS - 1);
+        if(shift <= 0) {
+            return (int) value;
+        }
+        // the value shifted keeps its PRECISION_BITS highest bits, between HALF and 2 * HALF.
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     * @param index the index of the bucket.
+     * @return the value.
+     */
+    static long highestValueOf(int index) {
+        if(index < 2 * HALF) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long low = (long) (index - shift * HALF) << shift;
+        return low + ((1L << shift) - 1);
+    }
+
+    /**
+     * The values of a {@link LatencyHistogram} at an instant.
+     */
+    public static final class Snapshot {
+
+        /**
+         * Defines the number of values in each bucket.
+         */
+        private final long[] counts;
+
+        /**
+         * Defines the number of values.
+         */
+        private final long count;
+
+        /**
+         * Defines the largest value.
+         */
+        private final long max;
+
+        /**
+         * Constructs a {@code Snapshot}.
+         * @param counts the number of values in each bucket.
+         * @param max the largest value.
+         */
+        private Snapshot(long[] counts, long max) {
+            this.counts = counts;
+            long total = 0;
+            for(long bucketCount : counts) {
+                total += bucketCount;
+            }
+            this.count = total;
+            this.max = max;
+        }
+
+        /**
+         * Returns the number of values.
+         * @return the number of values.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the largest value.
+         * @return the value, in nanoseconds, or zero if there is none.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the value below or at which a percentage of the values are.
+         * <p>
+         * The value is the largest of its bucket, so it is at most 1/64 above the exact percentile,
+         * and never above the largest value recorded.
+         * @param percentile the percentage, e.g. 99.9.
+         * @return the value, in nanoseconds, or zero if there is none.
+         * @throws IllegalArgumentException if {@code percentile} is not between 0 and 100.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if(!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Invalid value provided for percentile.");
+            }
+            if(count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for(int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if(seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Returns the median.
+         * @return the value, in nanoseconds.
+         */
+        public long getP50() {
+            return getValueAtPercentile(50);
+        }
+
+        /**
+         * Returns the 99th percentile.
+         * @return the value, in nanoseconds.
+         */
+        public long getP99() {
+            return getValueAtPercentile(99);
+        }
+
+        /**
+         * Returns the 99.9th percentile.
+         * @return the value, in nanoseconds.
+         */
+        public long getP999() {
+            return getValueAtPercentile(99.9);
+        }
+
+        /**
+         * Returns the number of values and their percentiles, in microseconds.
+         * @return the text, e.g. {@code count=1200 p50=412us p99=1033us p999=1990us max=2101us}.
+         */
+        @Override
+        public String toString() {
+            return "count=" + count
+                    + " p50=" + TimeUnit.NANOSECONDS.toMicros(getP50()) + "us"
+                    + " p99=" + TimeUnit.NANOSECONDS.toMicros(getP99()) + "us"
+                    + " p999=" + TimeUnit.NANOSECONDS.toMicros(getP999()) + "us"
+                    + " max=" + TimeUnit.NANOSECONDS.toMicros(max) + "us";
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.theschool.clock.util;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * A concurrent map from primitive {@code long} keys to values, for large populations.
+ * <p>
+ * The map is split into stripes by a hash of the key, each with a lock of its own, so threads
+ * working on different stripes never contend. Each stripe is an open-addressing table with linear
+ * probing: the keys are kept in a {@code long[]} and the values in a parallel array, so a lookup
+ * neither boxes the key nor follows a chain of entries. Entries are removed by shifting the
+ * following ones back, so the table never fills up with tombstones.
+ * <p>
+ * Lookups take no lock: they read the table optimistically, and only take the read lock of the
+ * stripe if a writer changed it in the meantime. Values cannot be {@code null}.
+ *
+ * @param <V> the type of the values.
+ *
+ * @author Thomas Munguya
+ */
+public final class StripedLongMap<V> {
+
+    /**
+     * Defines the initial capacity of the table of a stripe.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Defines the stripes of the map.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Defines the mask used to map a hash to its stripe.
+     */
+    private final int stripeMask;
+
+    /**
+     * Constructs a {@code StripedLongMap} with four stripes per available processor.
+     */
+    public StripedLongMap() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Constructs a {@code StripedLongMap}.
+     * @param stripes the number of stripes. It is rounded up to a power of two.
+     * @throws IllegalArgumentException if {@code stripes} is not greater than zero.
+     */
+    public StripedLongMap(int stripes) {
+        if(stripes <= 0 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("Invalid value provided for stripes.");
+        }
+        int count = Integer.highestOneBit(stripes);
+        if(count < stripes) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for(int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * Returns the value of a key.
+     * @param key the key.
+     * @return the value, or {@code null} if the key is not in the map.
+     */
+    public V get(long key) {
+        long hash = hash(key);
+        Stripe stripe = stripeOf(hash);
+        StampedLock lock = stripe.lock;
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0) {
+            Object value = stripe.find(key, (int) hash);
+            if(lock.validate(stamp)) {
+                return cast(value);
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return cast(stripe.find(key, (int) hash));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Associates a value with a key.
+     * @param key the key.
+     * @param value the value.
+     * @return the previous value of the key, or {@code null} if it was not in the map.
+     * @throws IllegalArgumentException if {@code value} is {@code null}.
+     */
+    public V put(long key, V value) {
+        if(value == null) {
+            throw new IllegalArgumentException("Value argument cannot be null.");
+        }
+        long hash = hash(key);
+        Stripe stripe = stripeOf(hash);
+        long stamp = stripe.lock.writeLock();
+        try {
+            return cast(stripe.put(key, (int) hash, value));
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key the key.
+     * @return the value of the key, or {@code null} if it was not in the map.
+     */
+    public V remove(long key) {
+        long hash = hash(key);
+        Stripe stripe = stripeOf(hash);
+        long stamp = stripe.lock.writeLock();
+        try {
+            return cast(stripe.remove(key, (int) hash));
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of keys in the map. It is not a snapshot if the map is being changed.
+     * @return the number of keys.
+     */
+    public int size() {
+        int size = 0;
+        for(Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Hands every value of the map to a consumer. The values of a stripe are copied under its read
+     * lock, and handed out once it is released, so the consumer may change the map.
+     * @param consumer the consumer.
+     * @throws IllegalArgumentException if {@code consumer} is {@code null}.
+     */
+    public void forEachValue(Consumer<? super V> consumer) {
+        if(consumer == null) {
+            throw new IllegalArgumentException("Consumer argument cannot be null.");
+        }
+        for(Stripe stripe : stripes) {
+            Object[] values;
+            long stamp = stripe.lock.readLock();
+            try {
+                values = stripe.values();
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+            for(Object value : values) {
+                consumer.accept(cast(value));
+            }
+        }
+    }
+
+    /**
+     * Returns the stripe of a hash.
+     * @param hash the hash of a key.
+     * @return the stripe.
+     */
+    private Stripe stripeOf(long hash) {
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    /**
+     * Returns the hash of a key. The stripe is taken from its high half and the slot from its low half.
+     * @param key the key.
+     * @return the hash.
+     */
+    private static long hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Returns a value as the type of the values of the map.
+     * @param value the value.
+     * @return the value.
+     */
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    /**
+     * The table of a stripe. Its arrays are replaced together when it grows.
+     */
+    private static final class Table {
+        /**
+         * The keys of the slots.
+         */
+        final long[] keys;
+
+        /**
+         * The values of the slots, {@code null} for a free slot.
+         */
+        final Object[] values;
+
+        /**
+         * The mask used to map a hash to its slot.
+         */
+        final int mask;
+
+        /**
+         * Constructs a {@code Table}.
+         * @param capacity the number of slots, a power of two.
+         */
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    /**
+     * A stripe of the map.
+     */
+    private static final class Stripe {
+        /**
+         * The lock of the stripe.
+         */
+        final StampedLock lock = new StampedLock();
+
+        /**
+         * The table of the stripe.
+         */
+        volatile Table table = new Table(INITIAL_CAPACITY);
+
+        /**
+         * The number of keys in the stripe. It is only written under the write lock.
+         */
+        volatile int size;
+
+        /**
+         * Returns the value of a key. It may be called without the lock, as long as the result is
+         * validated: the probe is bounded, so a concurrent change can only make it return a wrong value.
+         * @param key the key.
+         * @param hash the hash of the key.
+         * @return the value, or {@code null} if the key is not in the stripe.
+         */
+        Object find(long key, int hash) {
+            Table t = table;
+            for(int i = hash & t.mask, probes = 0; probes <= t.mask; i = (i + 1) & t.mask, probes++) {
+                Object value = t.values[i];
+                if(value == null) {
+                    return null;
+                }
+                if(t.keys[i] == key) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Associates a value with a key. The write lock must be held.
+         * @param key the key.
+         * @param hash the hash of the key.
+         * @param value the value.
+         * @return the previous value of the key, or {@code null} if it was not in the stripe.
+         */
+        Object put(long key, int hash, Object value) {
+            Table t = table;
+            int i = hash & t.mask;
+            while(t.values[i] != null) {
+                if(t.keys[i] == key) {
+                    Object previous = t.values[i];
+                    t.values[i] = value;
+                    return previous;
+                }
+                i = (i + 1) & t.mask;
+            }
+            if(size + 1 > t.keys.length >> 1) {
+                // keep the table at most half full, so that probes stay short.
+                t = grow(t);
+                i = hash & t.mask;
+                while(t.values[i] != null) {
+                    i = (i + 1) & t.mask;
+                }
+            }
+            t.keys[i] = key;
+            t.values[i] = value;
+            size++;
+            return null;
+        }
+
+        /**
+         * Removes a key, and shifts back the entries that probed past it. The write lock must be held.
+         * @param key the key.
+         * @param hash the hash of the key.
+         * @return the value of the key, or {@code null} if it was not in the stripe.
+         */
+        Object remove(long key, int hash) {
+            Table t = table;
+            int i = hash & t.mask;
+            while(t.values[i] != null && t.keys[i] != key) {
+                i = (i + 1) & t.mask;
+            }
+            Object removed = t.values[i];
+            if(removed == null) {
+                return null;
+            }
+            for(int j = (i + 1) & t.mask; t.values[j] != null; j = (j + 1) & t.mask) {
+                int home = (int) hash(t.keys[j]) & t.mask;
+                // move the entry back to the free slot if the free slot is on its probe sequence.
+                if(((j - home) & t.mask) >= ((j - i) & t.mask)) {
+                    t.keys[i] = t.keys[j];
+                    t.values[i] = t.values[j];
+                    i = j;
+                }
+            }
+            t.keys[i] = 0;
+            t.values[i] = null;
+            size--;
+            return removed;
+        }
+
+        /**
+         * Returns the values of the stripe. The lock must be held.
+         * @return the values.
+         */
+        Object[] values() {
+            Table t = table;
+            Object[] values = new Object[size];
+            int count = 0;
+            for(Object value : t.values) {
+                if(value != null) {
+                    values[count++] = value;
+                }
+            }
+            return values;
+        }
+
+        /**
+         * Replaces the table with one twice as large. The write lock must be held.
+         * @param t the current table.
+         * @return the new table.
+         */
+        private Table grow(Table t) {
+            Table grown = new Table(t.keys.length << 1);
+            for(int i = 0; i < t.keys.length; i++) {
+                Object value = t.values[i];
+                if(value != null) {
+                    int j = (int) hash(t.keys[i]) & grown.mask;
+                    while(grown.values[j] != null) {
+                        j = (j + 1) & grown.mask;
+                    }
+                    grown.keys[j] = t.keys[i];
+                    grown.values[j] = value;
+                }
+            }
+            table = grown;
+            return grown;
+        }
+    }
+}
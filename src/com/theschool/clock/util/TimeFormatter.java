@@ -0,0 +1,216 @@
+package com.theschool.clock.util;
+
+import java.nio.CharBuffer;
+
+/**
+ * Helper class for formatting nanosecond times as {@code HH:MM:SS}, optionally followed by a
+ * fraction of a second, e.g. {@code 01:02:03.456}.
+ * <p>
+ * The digits are written straight into a buffer supplied by the caller, so formatting does not
+ * allocate. Hours have at least two digits, and more when they are above 99.
+ */
+public final class TimeFormatter {
+    private TimeFormatter() {}
+
+    /**
+     * Defines the maximum number of fraction digits.
+     */
+    public static final int MAX_FRACTION_DIGITS = 9;
+
+    /**
+     * Defines the maximum length of a formatted time: the 7 digits of the hours in
+     * {@link Long#MAX_VALUE} nanoseconds, two separators, four digits of minutes and seconds, a
+     * decimal point and the fraction digits.
+     */
+    public static final int MAX_LENGTH = 7 + 2 + 4 + 1 + MAX_FRACTION_DIGITS;
+
+    /**
+     * Defines the number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * Defines the powers of ten, indexed by exponent.
+     */
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    /**
+     * Returns the length of a formatted time.
+     * @param nanos the time, in nanoseconds.
+     * @param fractionDigits the number of digits of the fraction of a second, or zero for none.
+     * @return the number of characters.
+     * @throws IllegalArgumentException if {@code nanos} is less than zero, or {@code fractionDigits}
+     * is not between zero and {@link #MAX_FRACTION_DIGITS}.
+     */
+    public static int length(long nanos, int fractionDigits) {
+        validate(nanos, fractionDigits);
+        int length = hourDigits(nanos / NANOS_PER_SECOND / 3600) + 6;
+        return fractionDigits == 0 ? length : length + 1 + fractionDigits;
+    }
+
+    /**
+     * Formats a time into a char array.
+     * @param nanos the time, in nanoseconds.
+     * @param fractionDigits the number of digits of the fraction of a second, or zero for none.
+     * @param destination the array.
+     * @param offset the index at which the first character is written.
+     * @return the number of characters written.
+     * @throws IllegalArgumentException if {@code nanos} is less than zero, or {@code fractionDigits}
+     * is not between zero and {@link #MAX_FRACTION_DIGITS}.
+     * @throws IndexOutOfBoundsException if the array is too small.
+     */
+    public static int format(long nanos, int fractionDigits, char[] destination, int offset) {
+        int length = length(nanos, fractionDigits);
+        if(offset < 0 || offset > destination.length - length) {
+            throw new IndexOutOfBoundsException("Destination is too small for the formatted time.");
+        }
+
+        long totalSeconds = nanos / NANOS_PER_SECOND;
+        long hours = totalSeconds / 3600;
+        int minutes = (int) (totalSeconds / 60 % 60);
+        int seconds = (int) (totalSeconds % 60);
+
+        int position = offset + hourDigits(hours);
+        // write the hours backwards, from the last digit.
+        for(int i = position - 1; i >= offset; i--) {
+            destination[i] = (char) ('0' + hours % 10);
+            hours /= 10;
+        }
+        destination[position++] = ':';
+        position = writeTwoDigits(minutes, destination, position);
+        destination[position++] = ':';
+        position = writeTwoDigits(seconds, destination, position);
+
+        if(fractionDigits > 0) {
+            destination[position++] = '.';
+            long fraction = nanos % NANOS_PER_SECOND / POWERS_OF_TEN[MAX_FRACTION_DIGITS - fractionDigits];
+            for(int i = position + fractionDigits - 1; i >= position; i--) {
+                destination[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            position += fractionDigits;
+        }
+        return position - offset;
+    }
+
+    /**
+     * Appends a formatted time to a string builder.
+     * @param nanos the time, in nanoseconds.
+     * @param fractionDigits the number of digits of the fraction of a second, or zero for none.
+     * @param destination the string builder.
+     * @return the string builder.
+     * @throws IllegalArgumentException if {@code nanos} is less than zero, or {@code fractionDigits}
+     * is not between zero and {@link #MAX_FRACTION_DIGITS}.
+     */
+    public static StringBuilder append(long nanos, int fractionDigits, StringBuilder destination) {
+        int length = length(nanos, fractionDigits);
+        int start = destination.length();
+        destination.setLength(start + length);
+
+        long totalSeconds = nanos / NANOS_PER_SECOND;
+        long hours = totalSeconds / 3600;
+        int position = start + hourDigits(hours);
+        for(int i = position - 1; i >= start; i--) {
+            destination.setCharAt(i, (char) ('0' + hours % 10));
+            hours /= 10;
+        }
+        int minutes = (int) (totalSeconds / 60 % 60);
+        int seconds = (int) (totalSeconds % 60);
+        destination.setCharAt(position++, ':');
+        destination.setCharAt(position++, (char) ('0' + minutes / 10));
+        destination.setCharAt(position++, (char) ('0' + minutes % 10));
+        destination.setCharAt(position++, ':');
+        destination.setCharAt(position++, (char) ('0' + seconds / 10));
+        destination.setCharAt(position++, (char) ('0' + seconds % 10));
+
+        if(fractionDigits > 0) {
+            destination.setCharAt(position++, '.');
+            long fraction = nanos % NANOS_PER_SECOND / POWERS_OF_TEN[MAX_FRACTION_DIGITS - fractionDigits];
+            for(int i = position + fractionDigits - 1; i >= position; i--) {
+                destination.setCharAt(i, (char) ('0' + fraction % 10));
+                fraction /= 10;
+            }
+        }
+        return destination;
+    }
+
+    /**
+     * Writes a formatted time into a char buffer, at its position.
+     * @param nanos the time, in nanoseconds.
+     * @param fractionDigits the number of digits of the fraction of a second, or zero for none.
+     * @param destination the buffer. Its position is advanced past the written characters.
+     * @return the buffer.
+     * @throws IllegalArgumentException if {@code nanos} is less than zero, or {@code fractionDigits}
+     * is not between zero and {@link #MAX_FRACTION_DIGITS}.
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough room left.
+     */
+    public static CharBuffer put(long nanos, int fractionDigits, CharBuffer destination) {
+        if(destination.hasArray() && !destination.isReadOnly()) {
+            int length = format(nanos, fractionDigits, destination.array(),
+                    destination.arrayOffset() + destination.position());
+            destination.position(destination.position() + length);
+            return destination;
+        }
+        char[] digits = new char[length(nanos, fractionDigits)];
+        format(nanos, fractionDigits, digits, 0);
+        return destination.put(digits);
+    }
+
+    /**
+     * Formats a time as a string.
+     * @param nanos the time, in nanoseconds.
+     * @param fractionDigits the number of digits of the fraction of a second, or zero for none.
+     * @return the formatted time.
+     * @throws IllegalArgumentException if {@code nanos} is less than zero, or {@code fractionDigits}
+     * is not between zero and {@link #MAX_FRACTION_DIGITS}.
+     */
+    public static String toString(long nanos, int fractionDigits) {
+        char[] digits = new char[length(nanos, fractionDigits)];
+        format(nanos, fractionDigits, digits, 0);
+        return new String(digits);
+    }
+
+    /**
+     * Writes a two-digit number.
+     * @param value the number, from 0 to 99.
+     * @param destination the array.
+     * @param position the index of the first digit.
+     * @return the index after the second digit.
+     */
+    private static int writeTwoDigits(int value, char[] destination, int position) {
+        destination[position] = (char) ('0' + value / 10);
+        destination[position + 1] = (char) ('0' + value % 10);
+        return position + 2;
+    }
+
+    /**
+     * Returns the number of digits used to display hours.
+     * @param hours the hours.
+     * @return the number of digits, at least two.
+     */
+    private static int hourDigits(long hours) {
+        int digits = 2;
+        for(long limit = 100; hours >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Validates the arguments of a formatting method.
+     * @param nanos the time, in nanoseconds.
+     * @param fractionDigits the number of digits of the fraction of a second.
+     * @throws IllegalArgumentException if {@code nanos} is less than zero, or {@code fractionDigits}
+     * is not between zero and {@link #MAX_FRACTION_DIGITS}.
+     */
+    private static void validate(long nanos, int fractionDigits) {
+        if(nanos < 0) {
+            throw new IllegalArgumentException("Time cannot be less than zero.");
+        }
+        if(fractionDigits < 0 || fractionDigits > MAX_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("Invalid value provided for fraction digits.");
+        }
+    }
+}